@@ -0,0 +1,88 @@
+package com.chan.hotel.benchmark;
+
+import com.chan.hotel.catalog.HotelCatalogSnapshot;
+import com.chan.hotel.pojo.Hotel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按id查询价格、城市：内存映射的列式快照 对比 堆上的HashMap&lt;Long, Hotel&gt;
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CatalogBenchmark {
+
+    @Param({"100000"})
+    private int count;
+
+    private Path file;
+    private HotelCatalogSnapshot snapshot;
+    private Map<Long, Hotel> map;
+    private long[] ids;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<Hotel> hotels = HotelFixtures.hotels(count, 42);
+        file = Files.createTempFile("hotel", ".snapshot");
+        HotelCatalogSnapshot.write(hotels.iterator(), file);
+        snapshot = HotelCatalogSnapshot.open(file);
+        map = new HashMap<>(count * 2);
+        ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            Hotel hotel = hotels.get(i);
+            map.put(hotel.getId(), hotel);
+            ids[i] = hotel.getId();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    private long nextId() {
+        next = (next + 7919) % ids.length;
+        return ids[next];
+    }
+
+    @Benchmark
+    public void snapshot(Blackhole blackhole) {
+        int row = snapshot.rowOf(nextId());
+        blackhole.consume(snapshot.price(row));
+        blackhole.consume(snapshot.city(row));
+    }
+
+    @Benchmark
+    public void hashMap(Blackhole blackhole) {
+        Hotel hotel = map.get(nextId());
+        blackhole.consume(hotel.getPrice());
+        blackhole.consume(hotel.getCity());
+    }
+}
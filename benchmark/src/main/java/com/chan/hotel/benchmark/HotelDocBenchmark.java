@@ -0,0 +1,111 @@
+package com.chan.hotel.benchmark;
+
+import cn.hutool.json.JSONUtil;
+import com.alibaba.fastjson.JSON;
+import com.chan.hotel.pojo.Hotel;
+import com.chan.hotel.pojo.HotelDoc;
+import com.chan.hotel.utils.HotelDocDecoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单个文档的转换与序列化：
+ * <p>
+ * - 写入时：Hotel -> HotelDoc，HotelDoc -> json（Hutool / fastjson / Jackson）
+ * - 查询时：json -> HotelDoc（Hutool / fastjson / Jackson / HotelDocDecoder）
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HotelDocBenchmark {
+
+    private static final int SIZE = 1024;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Hotel[] hotels;
+    private HotelDoc[] docs;
+    private String[] jsons;
+    private byte[][] bytes;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        List<Hotel> hotelList = HotelFixtures.hotels(SIZE, 42);
+        hotels = hotelList.toArray(new Hotel[0]);
+        docs = new HotelDoc[SIZE];
+        jsons = new String[SIZE];
+        bytes = new byte[SIZE][];
+        for (int i = 0; i < SIZE; i++) {
+            docs[i] = new HotelDoc(hotels[i]);
+            jsons[i] = JSONUtil.toJsonStr(docs[i]);
+            bytes[i] = jsons[i].getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private int next() {
+        cursor = (cursor + 1) & (SIZE - 1);
+        return cursor;
+    }
+
+    @Benchmark
+    public HotelDoc convert() {
+        return new HotelDoc(hotels[next()]);
+    }
+
+    @Benchmark
+    public String serializeHutool() {
+        return JSONUtil.toJsonStr(docs[next()]);
+    }
+
+    @Benchmark
+    public String serializeFastjson() {
+        return JSON.toJSONString(docs[next()]);
+    }
+
+    @Benchmark
+    public String serializeJackson() throws IOException {
+        return objectMapper.writeValueAsString(docs[next()]);
+    }
+
+    @Benchmark
+    public HotelDoc deserializeHutool() {
+        return JSONUtil.toBean(jsons[next()], HotelDoc.class);
+    }
+
+    @Benchmark
+    public HotelDoc deserializeFastjson() {
+        return JSON.parseObject(jsons[next()], HotelDoc.class);
+    }
+
+    @Benchmark
+    public HotelDoc deserializeJackson() throws IOException {
+        return objectMapper.readValue(bytes[next()], HotelDoc.class);
+    }
+
+    @Benchmark
+    public HotelDoc deserializeDecoder() throws IOException {
+        return HotelDocDecoder.decode(new BytesArray(bytes[next()]));
+    }
+}
@@ -0,0 +1,87 @@
+package com.chan.hotel.benchmark;
+
+import com.chan.hotel.pojo.Hotel;
+import com.chan.hotel.pojo.HotelDoc;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 基准测试用的数据：按tb_hotel的真实取值分布生成Hotel，以及从本地文件回放的ES响应
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public final class HotelFixtures {
+
+    private static final String[] BRANDS = {"如家", "7天酒店", "汉庭", "速8", "万怡", "皇冠假日", "希尔顿", "万豪", "和颐", "华美达"};
+    private static final String[] CITIES = {"北京", "上海", "深圳", "广州", "杭州"};
+    private static final String[] STAR_NAMES = {"一星", "二钻", "三钻", "四钻", "五钻", "四星级", "五星级"};
+    private static final String[] BUSINESSES = {"江湾、五角场商业区", "四川北路商业区", "国展中心", "八达岭长城地区", "滴水湖临港地区"};
+
+    private HotelFixtures() {
+    }
+
+    /**
+     * 生成count个酒店，seed相同时结果相同
+     */
+    public static List<Hotel> hotels(int count, long seed) {
+        Random random = new Random(seed);
+        List<Hotel> hotels = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Hotel hotel = new Hotel();
+            String brand = BRANDS[random.nextInt(BRANDS.length)];
+            String city = CITIES[random.nextInt(CITIES.length)];
+            hotel.setId(36934L + i * 17L);
+            hotel.setName(brand + "酒店(" + city + BUSINESSES[random.nextInt(BUSINESSES.length)].substring(0, 2) + "店)");
+            hotel.setAddress(city + "市某某区某某路" + (random.nextInt(999) + 1) + "号");
+            hotel.setPrice(100 + random.nextInt(3000));
+            hotel.setScore(35 + random.nextInt(15));
+            hotel.setBrand(brand);
+            hotel.setCity(city);
+            hotel.setStarName(STAR_NAMES[random.nextInt(STAR_NAMES.length)]);
+            hotel.setBusiness(BUSINESSES[random.nextInt(BUSINESSES.length)]);
+            hotel.setLatitude(String.format("%.6f", 22.5 + random.nextDouble() * 17));
+            hotel.setLongitude(String.format("%.6f", 113.5 + random.nextDouble() * 8));
+            hotel.setPic("https://m.tuniucdn.com/fb2/t1/G1/M00/3E/40/Cii9EVkyLrKIXo1vAAHgrxo_pUcAALcKQLD688AAeDH564_w200_h200_c1_t0.jpg");
+            hotels.add(hotel);
+        }
+        return hotels;
+    }
+
+    /**
+     * 由hotels转换得到的HotelDoc
+     */
+    public static List<HotelDoc> docs(int count, long seed) {
+        List<HotelDoc> docs = new ArrayList<>(count);
+        for (Hotel hotel : hotels(count, seed)) {
+            docs.add(new HotelDoc(hotel));
+        }
+        return docs;
+    }
+
+    /**
+     * 读取ES的_search响应样本：指定了-Dfixture时读取该文件，否则读取classpath中的search-response.json
+     */
+    public static byte[] searchResponse() throws IOException {
+        String fixture = System.getProperty("fixture");
+        if (fixture != null) {
+            return Files.readAllBytes(Paths.get(fixture));
+        }
+        try (InputStream in = HotelFixtures.class.getResourceAsStream("/search-response.json")) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        }
+    }
+}
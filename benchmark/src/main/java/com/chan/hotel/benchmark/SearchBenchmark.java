@@ -0,0 +1,98 @@
+package com.chan.hotel.benchmark;
+
+import cn.hutool.json.JSONUtil;
+import com.chan.hotel.pojo.HotelDoc;
+import com.chan.hotel.pojo.RequestParams;
+import com.chan.hotel.utils.HotelDocDecoder;
+import com.chan.hotel.utils.HotelQueries;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.common.xcontent.DeprecationHandler;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.json.JsonXContent;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.fetch.subphase.highlight.HighlightField;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 每个搜索请求上的开销：
+ * <p>
+ * - 构建SearchSourceBuilder并渲染为json（同时也是结果缓存的key）
+ * - 解析回放的_search响应，并把每条结果转换为HotelDoc（JSONUtil.toBean 对比 HotelDocDecoder）
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+
+    private byte[] response;
+    private RequestParams params;
+
+    @Setup
+    public void setUp() throws IOException {
+        response = HotelFixtures.searchResponse();
+        params = new RequestParams();
+        params.setKey("如家");
+        params.setCity("北京");
+        params.setMinPrice(100);
+        params.setMaxPrice(500);
+        params.setSortBy("price");
+        params.setPage(2);
+        params.setSize(10);
+    }
+
+    @Benchmark
+    public String buildSource() {
+        SearchSourceBuilder source = new SearchSourceBuilder();
+        HotelQueries.buildSource(params, source);
+        return source.toString();
+    }
+
+    @Benchmark
+    public void parseAndToBean(Blackhole blackhole) throws IOException {
+        for (SearchHit hit : parse().getHits().getHits()) {
+            HotelDoc hotelDoc = JSONUtil.toBean(hit.getSourceAsString(), HotelDoc.class);
+            Map<String, HighlightField> highlightFields = hit.getHighlightFields();
+            HighlightField highlightField = highlightFields.get("name");
+            if (highlightField != null) {
+                hotelDoc.setName(highlightField.getFragments()[0].string());
+            }
+            blackhole.consume(hotelDoc);
+        }
+    }
+
+    @Benchmark
+    public void parseAndDecode(Blackhole blackhole) throws IOException {
+        for (SearchHit hit : parse().getHits().getHits()) {
+            blackhole.consume(HotelDocDecoder.decode(hit));
+        }
+    }
+
+    private SearchResponse parse() throws IOException {
+        try (XContentParser parser = JsonXContent.jsonXContent.createParser(NamedXContentRegistry.EMPTY,
+                DeprecationHandler.THROW_UNSUPPORTED_OPERATION, response)) {
+            return SearchResponse.fromXContent(parser);
+        }
+    }
+}
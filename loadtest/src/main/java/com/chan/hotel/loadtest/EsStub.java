@@ -0,0 +1,215 @@
+package com.chan.hotel.loadtest;
+
+import cn.hutool.core.io.IoUtil;
+import cn.hutool.json.JSONArray;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * ES替身：回放录制的响应，响应前等待固定的延迟（加上随机抖动），模拟ES的服务端耗时。
+ * <p>
+ * - _search：按请求体区分，带aggregations的返回facets.json，带geo_distance的返回nearby.json，其余返回search.json
+ * - _msearch：每个查询按_search的规则返回
+ * - _mget：按请求的id逐个返回，_source取自search.json中的第一条结果
+ * - _bulk：每个操作都返回成功
+ * - 其他请求返回404
+ * <p>
+ * 延迟通过定时任务实现，等待期间不占用线程，高到达率下也不会因为替身的线程数而排队。
+ * JDK的HttpServer默认没有开启TCP_NODELAY，响应头和响应体分两次写出时会与客户端的延迟确认叠加出约40ms的等待，必须开启
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Slf4j
+public class EsStub implements Closeable {
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+    private final long delayMicros;
+    private final long jitterMicros;
+    private final byte[] search;
+    private final byte[] nearby;
+    private final byte[] facets;
+    private final JSONObject source;
+
+    /**
+     * @param port         端口，0表示随机
+     * @param responses    录制的响应所在目录，为null时使用classpath下的es/
+     * @param delayMicros  每个请求的固定延迟（微秒）
+     * @param jitterMicros 在固定延迟上增加的[0, jitter)随机延迟（微秒）
+     */
+    public EsStub(int port, String responses, long delayMicros, long jitterMicros) throws IOException {
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        this.delayMicros = delayMicros;
+        this.jitterMicros = jitterMicros;
+        this.search = load(responses, "search.json");
+        this.nearby = load(responses, "nearby.json");
+        this.facets = load(responses, "facets.json");
+        this.source = JSONUtil.parseObj(new String(search, StandardCharsets.UTF_8))
+                .getJSONObject("hits").getJSONArray("hits").getJSONObject(0).getJSONObject("_source");
+        this.server = HttpServer.create(new InetSocketAddress("localhost", port), 1024);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        scheduler.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        byte[] body = readBody(exchange);
+        int status = 200;
+        byte[] response;
+        if (path.endsWith("/_search")) {
+            response = search(new String(body, StandardCharsets.UTF_8));
+        } else if (path.endsWith("/_msearch")) {
+            response = msearch(body);
+        } else if (path.endsWith("/_mget")) {
+            response = mget(body);
+        } else if (path.endsWith("/_bulk")) {
+            response = bulk(body);
+        } else {
+            status = 404;
+            response = ("{\"error\":{\"type\":\"index_not_found_exception\",\"reason\":\"stub: " + path + "\"},\"status\":404}")
+                    .getBytes(StandardCharsets.UTF_8);
+        }
+        long delay = delayMicros + (jitterMicros > 0 ? ThreadLocalRandom.current().nextLong(jitterMicros) : 0);
+        int finalStatus = status;
+        if (delay <= 0) {
+            send(exchange, finalStatus, response);
+        } else {
+            scheduler.schedule(() -> send(exchange, finalStatus, response), delay, TimeUnit.MICROSECONDS);
+        }
+    }
+
+    private byte[] search(String request) {
+        return request.contains("\"aggregations\"") ? facets : request.contains("geo_distance") ? nearby : search;
+    }
+
+    /**
+     * 请求体为header行、查询行交替，每个查询返回一个带status的响应
+     */
+    private byte[] msearch(byte[] body) {
+        StringBuilder responses = new StringBuilder("{\"took\":1,\"responses\":[");
+        String[] lines = new String(body, StandardCharsets.UTF_8).split("\n");
+        for (int i = 1; i < lines.length; i += 2) {
+            String response = new String(search(lines[i]), StandardCharsets.UTF_8).trim();
+            responses.append(i > 1 ? "," : "").append("{\"status\":200,").append(response.substring(1));
+        }
+        return responses.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private byte[] mget(byte[] body) {
+        JSONArray docs = new JSONArray();
+        JSONObject request = JSONUtil.parseObj(new String(body, StandardCharsets.UTF_8));
+        JSONArray ids = request.containsKey("ids") ? request.getJSONArray("ids") : new JSONArray();
+        if (request.containsKey("docs")) {
+            for (Object doc : request.getJSONArray("docs")) {
+                ids.add(((JSONObject) doc).get("_id"));
+            }
+        }
+        for (Object id : ids) {
+            JSONObject doc = JSONUtil.createObj()
+                    .set("_index", "hotel").set("_type", "_doc").set("_id", String.valueOf(id))
+                    .set("_version", 1).set("_seq_no", 0).set("_primary_term", 1).set("found", true)
+                    .set("_source", JSONUtil.parseObj(source.toString()).set("id", Long.valueOf(String.valueOf(id))));
+            docs.add(doc);
+        }
+        return JSONUtil.createObj().set("docs", docs).toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 每个操作行（index、create、update、delete）返回一个成功的item，操作行之后的文档行跳过
+     */
+    private byte[] bulk(byte[] body) {
+        JSONArray items = new JSONArray();
+        String[] lines = new String(body, StandardCharsets.UTF_8).split("\n");
+        for (int i = 0; i < lines.length; i++) {
+            if (lines[i].trim().isEmpty()) {
+                continue;
+            }
+            JSONObject action = JSONUtil.parseObj(lines[i]);
+            String op = action.keySet().iterator().next();
+            JSONObject meta = action.getJSONObject(op);
+            items.add(JSONUtil.createObj().set(op, JSONUtil.createObj()
+                    .set("_index", meta.getStr("_index", "hotel")).set("_type", "_doc").set("_id", meta.getStr("_id"))
+                    .set("_version", 1).set("result", "delete".equals(op) ? "deleted" : "updated")
+                    .set("_shards", JSONUtil.createObj().set("total", 1).set("successful", 1).set("failed", 0))
+                    .set("_seq_no", 0).set("_primary_term", 1).set("status", 200)));
+            if (!"delete".equals(op)) {
+                i++;
+            }
+        }
+        return JSONUtil.createObj().set("took", 1).set("errors", false).set("items", items).toString()
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] response) {
+        try {
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(status, -1);
+            } else {
+                exchange.sendResponseHeaders(status, response.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(response);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("ES替身写出响应失败：{}", e.getMessage());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * 客户端开启了请求压缩时请求体为gzip
+     */
+    private static byte[] readBody(HttpExchange exchange) throws IOException {
+        InputStream in = exchange.getRequestBody();
+        if ("gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+            in = new GZIPInputStream(in);
+        }
+        return IoUtil.readBytes(in);
+    }
+
+    private static byte[] load(String dir, String name) throws IOException {
+        if (dir != null) {
+            return Files.readAllBytes(Paths.get(dir, name));
+        }
+        try (InputStream in = EsStub.class.getResourceAsStream("/es/" + name)) {
+            if (in == null) {
+                throw new IOException("classpath中没有录制的响应：es/" + name);
+            }
+            return IoUtil.readBytes(in);
+        }
+    }
+}
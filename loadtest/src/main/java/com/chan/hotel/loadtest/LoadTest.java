@@ -0,0 +1,255 @@
+package com.chan.hotel.loadtest;
+
+import com.chan.hotel.HotelApplication;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 端到端压测：启动ES替身和es-demo，按固定到达率（开环）发送请求组合，统计每类请求的延迟分布。
+ * <p>
+ * 开环：第i个请求的计划发送时间固定为start + i * interval，不等待上一个请求返回；
+ * 延迟从计划发送时间算起，而不是实际发送时间，服务端变慢导致的发送推迟也计入延迟（避免coordinated omission）。
+ * <p>
+ * 参数（-D系统属性）：
+ * <pre>
+ * rates     到达率（请求/秒），逗号分隔，依次压测，默认50,100,200
+ * duration  每个到达率的持续时间（秒），默认30
+ * warmup    预热时间（秒），按第一个到达率发送，不计入结果，默认10
+ * mix       请求组合，默认match:30,bool:25,geo:15,facets:15,paging:15,get:0
+ * seed      请求组合的随机数种子，默认42
+ * delay     ES替身的固定延迟（毫秒，可以是小数），默认5
+ * jitter    ES替身的随机延迟上限（毫秒），默认2
+ * responses 录制的响应目录（search.json、nearby.json、facets.json），默认使用jar中的响应
+ * cache     是否开启搜索结果缓存，默认false：开启后压测的是缓存而不是搜索链路
+ * port      es-demo的端口，默认18089
+ * timeout   每轮结束后等待在途请求的时间（秒），默认30
+ * report    结果文件，默认target/loadtest-report.txt
+ * </pre>
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public class LoadTest {
+
+    private static final String ALL = "all";
+
+    public static void main(String[] args) throws Exception {
+        List<Integer> rates = new ArrayList<>();
+        for (String rate : System.getProperty("rates", "50,100,200").split(",")) {
+            rates.add(Integer.parseInt(rate.trim()));
+        }
+        int duration = Integer.getInteger("duration", 30);
+        int warmup = Integer.getInteger("warmup", 10);
+        QueryMix mix = new QueryMix(System.getProperty("mix", QueryMix.DEFAULT), Long.getLong("seed", 42L));
+        long delayMicros = (long) (Double.parseDouble(System.getProperty("delay", "5")) * 1000);
+        long jitterMicros = (long) (Double.parseDouble(System.getProperty("jitter", "2")) * 1000);
+        int port = Integer.getInteger("port", 18089);
+        long timeoutSeconds = Long.getLong("timeout", 30L);
+        Path report = Paths.get(System.getProperty("report", "target/loadtest-report.txt"));
+
+        int exitCode = 0;
+        try (EsStub stub = new EsStub(0, System.getProperty("responses"), delayMicros, jitterMicros)) {
+            ConfigurableApplicationContext app = SpringApplication.run(HotelApplication.class,
+                    "--server.port=" + port,
+                    "--hotel.elasticsearch.hosts=http://localhost:" + stub.getPort(),
+                    "--hotel.cache.enabled=" + Boolean.getBoolean("cache"),
+                    "--hotel.schema.check-on-startup=false",
+                    "--spring.main.banner-mode=off",
+                    "--logging.level.root=WARN",
+                    "--logging.level.com.chan=WARN");
+            try (CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+                    .setMaxConnTotal(10000).setMaxConnPerRoute(10000).build()) {
+                client.start();
+                String base = "http://localhost:" + port;
+                if (warmup > 0) {
+                    System.out.printf("预热%d秒，到达率%d/s%n", warmup, rates.get(0));
+                    run(client, base, mix, rates.get(0), warmup, timeoutSeconds);
+                }
+                List<Phase> phases = new ArrayList<>();
+                for (int rate : rates) {
+                    System.out.printf("压测%d秒，到达率%d/s%n", duration, rate);
+                    Phase phase = run(client, base, mix, rate, duration, timeoutSeconds);
+                    phases.add(phase);
+                    if (phase.unfinished > 0) {
+                        System.out.printf("%d个请求在%d秒内没有返回，停止压测%n", phase.unfinished, timeoutSeconds);
+                        exitCode = 1;
+                        break;
+                    }
+                }
+                write(report, phases, delayMicros, jitterMicros);
+            } finally {
+                app.close();
+            }
+        }
+        System.exit(exitCode);
+    }
+
+    /**
+     * 按固定到达率发送一轮请求，发送完后等待在途请求返回
+     */
+    private static Phase run(CloseableHttpAsyncClient client, String base, QueryMix mix,
+                             int rate, int seconds, long timeoutSeconds) throws InterruptedException {
+        Phase phase = new Phase(rate);
+        int count = rate * seconds;
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        CountDownLatch latch = new CountDownLatch(count);
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            long intended = start + i * interval;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            QueryMix.Request request = mix.next();
+            client.execute(toHttp(base, request), new FutureCallback<HttpResponse>() {
+                @Override
+                public void completed(HttpResponse response) {
+                    int status = response.getStatusLine().getStatusCode();
+                    if (status >= 200 && status < 300) {
+                        phase.record(request.getOp(), System.nanoTime() - intended);
+                    } else {
+                        phase.error(request.getOp());
+                    }
+                    latch.countDown();
+                }
+
+                @Override
+                public void failed(Exception e) {
+                    phase.error(request.getOp());
+                    latch.countDown();
+                }
+
+                @Override
+                public void cancelled() {
+                    phase.error(request.getOp());
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await(timeoutSeconds, TimeUnit.SECONDS);
+        phase.unfinished = latch.getCount();
+        phase.elapsedNanos = System.nanoTime() - start;
+        return phase;
+    }
+
+    private static HttpUriRequest toHttp(String base, QueryMix.Request request) {
+        if ("GET".equals(request.getMethod())) {
+            return new HttpGet(base + request.getUri());
+        }
+        HttpPost post = new HttpPost(base + request.getUri());
+        post.setEntity(new StringEntity(request.getBody(), ContentType.APPLICATION_JSON));
+        return post;
+    }
+
+    /**
+     * 汇总表打印到控制台并写入文件，文件中再追加每轮全部请求的完整百分位分布（HdrHistogram的hgrm格式，可以直接画图）
+     */
+    private static void write(Path report, List<Phase> phases, long delayMicros, long jitterMicros) throws IOException {
+        if (report.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(report.toAbsolutePath().getParent());
+        }
+        StringBuilder table = new StringBuilder();
+        table.append(String.format("ES替身延迟%.1fms + [0, %.1fms)%n", delayMicros / 1000.0, jitterMicros / 1000.0));
+        table.append(String.format("%8s %8s %8s %8s %10s %10s %10s %10s %10s%n",
+                "rate", "op", "count", "errors", "req/s", "p50(ms)", "p99(ms)", "p999(ms)", "max(ms)"));
+        for (Phase phase : phases) {
+            double seconds = phase.elapsedNanos / 1e9;
+            for (Map.Entry<String, Histogram> entry : phase.histograms().entrySet()) {
+                Histogram histogram = entry.getValue();
+                table.append(String.format("%8d %8s %8d %8d %10.1f %10.2f %10.2f %10.2f %10.2f%n",
+                        phase.rate, entry.getKey(), histogram.getTotalCount(), phase.errors(entry.getKey()),
+                        histogram.getTotalCount() / seconds,
+                        millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(99)),
+                        millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue())));
+            }
+        }
+        System.out.print(table);
+        try (PrintStream out = new PrintStream(Files.newOutputStream(report), false, StandardCharsets.UTF_8.name())) {
+            out.print(table);
+            for (Phase phase : phases) {
+                out.printf("%n# rate=%d, all%n", phase.rate);
+                phase.histogram(ALL).outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        System.out.println("结果已写入" + report.toAbsolutePath());
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    /**
+     * 一轮压测的统计，延迟以微秒记录，按请求类型和全部请求分别统计
+     */
+    private static final class Phase {
+        private final int rate;
+        private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+        private final Map<String, AtomicLong> errors = new ConcurrentHashMap<>();
+        private long elapsedNanos;
+        private long unfinished;
+
+        Phase(int rate) {
+            this.rate = rate;
+        }
+
+        void record(String op, long nanos) {
+            long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+            histogram(op).recordValue(micros);
+            histogram(ALL).recordValue(micros);
+        }
+
+        void error(String op) {
+            histogram(op);
+            errors.computeIfAbsent(op, k -> new AtomicLong()).incrementAndGet();
+            errors.computeIfAbsent(ALL, k -> new AtomicLong()).incrementAndGet();
+        }
+
+        long errors(String op) {
+            AtomicLong count = errors.get(op);
+            return count == null ? 0 : count.get();
+        }
+
+        Histogram histogram(String op) {
+            return histograms.computeIfAbsent(op, k -> new ConcurrentHistogram(3));
+        }
+
+        /**
+         * @return 按请求类型排序，all在最后
+         */
+        Map<String, Histogram> histograms() {
+            Map<String, Histogram> sorted = new TreeMap<>(histograms);
+            Histogram all = sorted.remove(ALL);
+            Map<String, Histogram> result = new LinkedHashMap<>(sorted);
+            result.put(ALL, all == null ? histogram(ALL) : all);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.chan.hotel.loadtest;
+
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 按权重随机生成的请求组合，seed相同时请求序列相同：
+ * <p>
+ * - match：POST /hotel/list，只有关键字
+ * - bool：POST /hotel/list，城市+品牌+价格区间，按价格或评分排序
+ * - geo：GET /hotel/nearby
+ * - facets：POST /hotel/filters
+ * - paging：POST /hotel/list，第2~50页
+ * - get：GET /hotel/{id}，默认权重为0
+ * <p>
+ * 只在发送线程中调用，不是线程安全的
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public class QueryMix {
+
+    public static final String DEFAULT = "match:30,bool:25,geo:15,facets:15,paging:15,get:0";
+
+    private static final List<String> OPS = Arrays.asList("match", "bool", "geo", "facets", "paging", "get");
+    private static final String[] KEYS = {"如家", "外滩", "连锁", "江景", "五星", "商务", "机场", "地铁"};
+    private static final String[] CITIES = {"上海", "北京", "深圳", "广州", "杭州"};
+    private static final String[] BRANDS = {"如家", "汉庭", "7天酒店", "和颐", "万豪", "希尔顿"};
+    private static final double[][] LOCATIONS = {{31.2304, 121.4737}, {39.9042, 116.4074}, {22.5431, 114.0579}};
+
+    private final Random random;
+    private final List<String> ops = new ArrayList<>();
+    private final List<Integer> cumulative = new ArrayList<>();
+    private int total;
+
+    /**
+     * @param spec 权重，如match:30,bool:25
+     * @param seed 随机数种子
+     * @throws IllegalArgumentException 不认识的请求类型或者权重之和为0
+     */
+    public QueryMix(String spec, long seed) {
+        this.random = new Random(seed);
+        for (String item : spec.split(",")) {
+            String[] parts = item.trim().split(":");
+            if (!OPS.contains(parts[0])) {
+                throw new IllegalArgumentException("不认识的请求类型：" + parts[0] + "，可选" + OPS);
+            }
+            int weight = Integer.parseInt(parts[1]);
+            if (weight > 0) {
+                total += weight;
+                ops.add(parts[0]);
+                cumulative.add(total);
+            }
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("请求组合的权重之和为0：" + spec);
+        }
+    }
+
+    public Request next() {
+        int r = random.nextInt(total);
+        int i = 0;
+        while (r >= cumulative.get(i)) {
+            i++;
+        }
+        String op = ops.get(i);
+        switch (op) {
+            case "match":
+                return post(op, "/hotel/list", JSONUtil.createObj().set("key", pick(KEYS)).set("page", 1).set("size", 10));
+            case "bool":
+                int minPrice = 100 * (1 + random.nextInt(5));
+                return post(op, "/hotel/list", JSONUtil.createObj()
+                        .set("city", pick(CITIES)).set("brand", pick(BRANDS))
+                        .set("minPrice", minPrice).set("maxPrice", minPrice + 500)
+                        .set("sortBy", random.nextBoolean() ? "price" : "score"));
+            case "geo":
+                double[] location = LOCATIONS[random.nextInt(LOCATIONS.length)];
+                return new Request(op, "GET", String.format("/hotel/nearby?lat=%.4f&lon=%.4f&distance=%d",
+                        location[0] + random.nextDouble() / 10, location[1] + random.nextDouble() / 10,
+                        1 + random.nextInt(10)), null);
+            case "facets":
+                JSONObject params = JSONUtil.createObj().set("city", pick(CITIES));
+                if (random.nextBoolean()) {
+                    params.set("brand", pick(BRANDS));
+                }
+                return post(op, "/hotel/filters", params);
+            case "paging":
+                return post(op, "/hotel/list", JSONUtil.createObj()
+                        .set("city", pick(CITIES)).set("page", 2 + random.nextInt(49)).set("size", 20));
+            default:
+                return new Request(op, "GET", "/hotel/" + (36934 + random.nextInt(10000)), null);
+        }
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static Request post(String op, String uri, JSONObject body) {
+        return new Request(op, "POST", uri, body.toString());
+    }
+
+    /**
+     * 一个请求，body为null时没有请求体
+     */
+    public static final class Request {
+        private final String op;
+        private final String method;
+        private final String uri;
+        private final String body;
+
+        Request(String op, String method, String uri, String body) {
+            this.op = op;
+            this.method = method;
+            this.uri = uri;
+            this.body = body;
+        }
+
+        public String getOp() {
+            return op;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public String getUri() {
+            return uri;
+        }
+
+        public String getBody() {
+            return body;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.chan.hotel.cache;
+
+import com.chan.hotel.config.HotelCacheProperties;
+import com.chan.hotel.pojo.PageResult;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 搜索结果缓存：
+ * <p>
+ * - key由索引代数和规范化后的DSL组成，相同条件的查询命中同一条缓存
+ * - Caffeine按W-TinyLFU淘汰，并设置写入后的TTL
+ * - 写hotel索引（全量导入、增量同步、重建切换别名）后调用{@link #invalidate()}使代数加一，
+ * 旧代数的缓存再也不会被命中，随后被淘汰
+ * - 缓存的是future：同一个查询并发到达时只有一个请求会发往ES，失败的future会被自动移除
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Component
+public class HotelSearchCache {
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private AsyncCache<String, PageResult> cache;
+
+    @Resource
+    private HotelCacheProperties properties;
+
+    @PostConstruct
+    public void init() {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtlSeconds(), TimeUnit.SECONDS)
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * 查询缓存，未命中时调用loader查询ES并缓存结果
+     *
+     * @param query  规范化后的查询（相同条件必须得到相同的字符串）
+     * @param loader 未命中时的查询
+     * @return 查询结果
+     */
+    public CompletableFuture<PageResult> get(String query, Supplier<CompletableFuture<PageResult>> loader) {
+        if (!properties.isEnabled()) {
+            return loader.get();
+        }
+        String key = generation.get() + ":" + query;
+        return cache.get(key, (k, executor) -> loader.get());
+    }
+
+    /**
+     * hotel索引发生写入后调用，使之前的缓存全部失效
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * 当前索引代数
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * 缓存命中率等统计信息
+     */
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.synchronous().stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("generation", generation.get());
+        result.put("size", cache.synchronous().estimatedSize());
+        result.put("requestCount", stats.requestCount());
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictionCount", stats.evictionCount());
+        return result;
+    }
+}
@@ -0,0 +1,281 @@
+package com.chan.hotel.catalog;
+
+import com.chan.hotel.pojo.Hotel;
+import com.chan.hotel.pojo.HotelAttributes;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按列存储的酒店目录快照，通过内存映射读取：数据在堆外，同一台机器上的多个JVM共享操作系统的页缓存。
+ * <p>
+ * 文件格式（大端）：
+ * <pre>
+ * header   int magic, int version, int rows, long createdAt
+ * id       long[rows]，升序，按id二分查找得到行号
+ * price    int[rows]，NULL_INT表示没有值
+ * score    int[rows]
+ * city     字典：int size, int[size + 1]偏移, byte[] UTF-8；int[rows]编码，-1表示没有值
+ * brand    同city
+ * </pre>
+ * 字典在打开时解码到堆上（城市、品牌的取值很少），查询时不再分配对象；快照打开后只读，可以被多个线程同时访问
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public final class HotelCatalogSnapshot {
+
+    /**
+     * 整数列中表示没有值
+     */
+    public static final int NULL_INT = Integer.MIN_VALUE;
+
+    private static final int MAGIC = 0x48434154;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 4 + 8;
+
+    private final ByteBuffer buffer;
+    private final int rows;
+    private final long createdAt;
+    private final int priceOffset;
+    private final int scoreOffset;
+    private final String[] cities;
+    private final int cityOffset;
+    private final String[] brands;
+    private final int brandOffset;
+
+    private HotelCatalogSnapshot(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalStateException("不是版本" + VERSION + "的酒店目录快照");
+        }
+        this.rows = buffer.getInt(8);
+        this.createdAt = buffer.getLong(12);
+        this.priceOffset = HEADER_BYTES + rows * 8;
+        this.scoreOffset = priceOffset + rows * 4;
+        int position = scoreOffset + rows * 4;
+        this.cities = readDictionary(buffer, position);
+        this.cityOffset = position + dictionaryBytes(buffer, position);
+        position = cityOffset + rows * 4;
+        this.brands = readDictionary(buffer, position);
+        this.brandOffset = position + dictionaryBytes(buffer, position);
+    }
+
+    /**
+     * 以只读方式映射快照文件，映射建立后文件可以被替换或删除，已打开的快照不受影响
+     *
+     * @param file 快照文件
+     * @return 快照
+     * @throws IOException 读取失败
+     */
+    public static HotelCatalogSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new HotelCatalogSnapshot(buffer);
+        }
+    }
+
+    /**
+     * 把酒店按列写入快照文件
+     *
+     * @param hotels 按id升序的酒店
+     * @param file   快照文件，已存在时覆盖
+     * @return 写入的行数
+     * @throws IOException              写入失败
+     * @throws IllegalArgumentException id为空或者不是严格升序
+     */
+    public static int write(Iterator<Hotel> hotels, Path file) throws IOException {
+        Columns columns = new Columns();
+        while (hotels.hasNext()) {
+            columns.add(hotels.next());
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(columns.rows);
+            out.writeLong(System.currentTimeMillis());
+            for (int i = 0; i < columns.rows; i++) {
+                out.writeLong(columns.ids[i]);
+            }
+            for (int i = 0; i < columns.rows; i++) {
+                out.writeInt(columns.prices[i]);
+            }
+            for (int i = 0; i < columns.rows; i++) {
+                out.writeInt(columns.scores[i]);
+            }
+            writeDictionary(out, columns.cities.keySet());
+            for (int i = 0; i < columns.rows; i++) {
+                out.writeInt(columns.cityCodes[i]);
+            }
+            writeDictionary(out, columns.brands.keySet());
+            for (int i = 0; i < columns.rows; i++) {
+                out.writeInt(columns.brandCodes[i]);
+            }
+        }
+        return columns.rows;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    /**
+     * @return 快照的生成时间（毫秒）
+     */
+    public long createdAt() {
+        return createdAt;
+    }
+
+    /**
+     * @return id所在的行号，不存在时返回-1
+     */
+    public int rowOf(long id) {
+        int low = 0;
+        int high = rows - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midId = buffer.getLong(HEADER_BYTES + mid * 8);
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    public long id(int row) {
+        return buffer.getLong(HEADER_BYTES + row * 8);
+    }
+
+    /**
+     * @return 价格，没有值时为NULL_INT
+     */
+    public int price(int row) {
+        return buffer.getInt(priceOffset + row * 4);
+    }
+
+    /**
+     * @return 评分，没有值时为NULL_INT
+     */
+    public int score(int row) {
+        return buffer.getInt(scoreOffset + row * 4);
+    }
+
+    public String city(int row) {
+        int code = buffer.getInt(cityOffset + row * 4);
+        return code < 0 ? null : cities[code];
+    }
+
+    public String brand(int row) {
+        int code = buffer.getInt(brandOffset + row * 4);
+        return code < 0 ? null : brands[code];
+    }
+
+    /**
+     * @return id对应的属性，不存在时返回null
+     */
+    public HotelAttributes get(long id) {
+        int row = rowOf(id);
+        if (row < 0) {
+            return null;
+        }
+        int price = price(row);
+        int score = score(row);
+        return new HotelAttributes(id, price == NULL_INT ? null : price, score == NULL_INT ? null : score,
+                city(row), brand(row));
+    }
+
+    private static void writeDictionary(DataOutputStream out, Iterable<String> values) throws IOException {
+        List<byte[]> encoded = new ArrayList<>();
+        for (String value : values) {
+            encoded.add(value.getBytes(StandardCharsets.UTF_8));
+        }
+        out.writeInt(encoded.size());
+        int offset = 0;
+        out.writeInt(offset);
+        for (byte[] bytes : encoded) {
+            offset += bytes.length;
+            out.writeInt(offset);
+        }
+        for (byte[] bytes : encoded) {
+            out.write(bytes);
+        }
+    }
+
+    private static String[] readDictionary(ByteBuffer buffer, int position) {
+        int size = buffer.getInt(position);
+        int offsets = position + 4;
+        int data = offsets + (size + 1) * 4;
+        String[] values = new String[size];
+        for (int i = 0; i < size; i++) {
+            int start = buffer.getInt(offsets + i * 4);
+            int end = buffer.getInt(offsets + (i + 1) * 4);
+            byte[] bytes = new byte[end - start];
+            ByteBuffer slice = buffer.duplicate();
+            slice.position(data + start);
+            slice.get(bytes);
+            values[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return values;
+    }
+
+    private static int dictionaryBytes(ByteBuffer buffer, int position) {
+        int size = buffer.getInt(position);
+        return 4 + (size + 1) * 4 + buffer.getInt(position + 4 + size * 4);
+    }
+
+    /**
+     * 写入前在内存中按列收集，字符串列同时建立字典
+     */
+    private static final class Columns {
+        private int rows;
+        private long[] ids = new long[1024];
+        private int[] prices = new int[1024];
+        private int[] scores = new int[1024];
+        private int[] cityCodes = new int[1024];
+        private int[] brandCodes = new int[1024];
+        private final Map<String, Integer> cities = new LinkedHashMap<>();
+        private final Map<String, Integer> brands = new LinkedHashMap<>();
+
+        void add(Hotel hotel) {
+            if (hotel.getId() == null || (rows > 0 && hotel.getId() <= ids[rows - 1])) {
+                throw new IllegalArgumentException("酒店id必须非空且严格升序：" + hotel.getId());
+            }
+            if (rows == ids.length) {
+                int capacity = rows * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                prices = Arrays.copyOf(prices, capacity);
+                scores = Arrays.copyOf(scores, capacity);
+                cityCodes = Arrays.copyOf(cityCodes, capacity);
+                brandCodes = Arrays.copyOf(brandCodes, capacity);
+            }
+            ids[rows] = hotel.getId();
+            prices[rows] = hotel.getPrice() == null ? NULL_INT : hotel.getPrice();
+            scores[rows] = hotel.getScore() == null ? NULL_INT : hotel.getScore();
+            cityCodes[rows] = code(cities, hotel.getCity());
+            brandCodes[rows] = code(brands, hotel.getBrand());
+            rows++;
+        }
+
+        private static int code(Map<String, Integer> dictionary, String value) {
+            return value == null ? -1 : dictionary.computeIfAbsent(value, v -> dictionary.size());
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.chan.hotel.config;
+
+import com.chan.hotel.metrics.EsHttpMetricsInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.http.HttpHost;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.elasticsearch.client.Node;
+import org.elasticsearch.client.RestClient;
+import org.elasticsearch.client.RestClientBuilder;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.client.sniff.ElasticsearchNodesSniffer;
+import org.elasticsearch.client.sniff.SniffOnFailureListener;
+import org.elasticsearch.client.sniff.Sniffer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 全局唯一的ES客户端：
+ * <p>
+ * - 由Spring管理，所有调用方注入同一个实例，复用连接池，容器关闭时自动close
+ * - 连接池大小、IO线程、保活、超时、压缩都在application.yml的hotel.elasticsearch中配置
+ * - 开启sniff后定时从集群获取节点列表，某个节点请求失败时立即重新获取
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Configuration
+public class EsClientConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "hotel.elasticsearch.sniff", name = "enabled", havingValue = "true")
+    public SniffOnFailureListener sniffOnFailureListener() {
+        return new SniffOnFailureListener();
+    }
+
+    @Bean
+    public RestHighLevelClient client(EsClientProperties properties, MeterRegistry meterRegistry,
+                                      ObjectProvider<SniffOnFailureListener> sniffOnFailureListener) {
+        HttpHost[] hosts = properties.getHosts().stream().map(HttpHost::create).toArray(HttpHost[]::new);
+        RestClientBuilder builder = builder(properties, new EsHttpMetricsInterceptor(meterRegistry), hosts);
+        SniffOnFailureListener failureListener = sniffOnFailureListener.getIfAvailable();
+        if (failureListener != null) {
+            builder.setFailureListener(failureListener);
+        }
+        return new RestHighLevelClient(builder);
+    }
+
+    /**
+     * 按hotel.elasticsearch的连接池、超时、压缩配置创建builder，对冲请求的单节点客户端也使用这里的配置
+     */
+    public static RestClientBuilder builder(EsClientProperties properties, EsHttpMetricsInterceptor interceptor,
+                                            HttpHost... hosts) {
+        return RestClient.builder(hosts)
+                .setCompressionEnabled(properties.isCompressionEnabled())
+                .setRequestConfigCallback(config -> config
+                        .setConnectTimeout(properties.getConnectTimeoutMs())
+                        .setSocketTimeout(properties.getSocketTimeoutMs())
+                        .setConnectionRequestTimeout(properties.getConnectionRequestTimeoutMs()))
+                .setHttpClientConfigCallback(httpClient -> httpClient
+                        .setMaxConnPerRoute(properties.getMaxConnPerRoute())
+                        .setMaxConnTotal(properties.getMaxConnTotal())
+                        .setKeepAliveStrategy((response, context) -> properties.getKeepAliveMs())
+                        .setDefaultIOReactorConfig(IOReactorConfig.custom()
+                                .setIoThreadCount(properties.getIoThreadCount() > 0
+                                        ? properties.getIoThreadCount() : Runtime.getRuntime().availableProcessors())
+                                .setSoKeepAlive(true)
+                                .build())
+                        .addInterceptorLast(interceptor));
+    }
+
+    /**
+     * 节点嗅探器，先于客户端关闭
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "hotel.elasticsearch.sniff", name = "enabled", havingValue = "true")
+    public Sniffer sniffer(RestHighLevelClient client, EsClientProperties properties,
+                           SniffOnFailureListener sniffOnFailureListener) {
+        RestClient restClient = client.getLowLevelClient();
+        // 嗅探到的节点沿用配置的协议
+        Node first = restClient.getNodes().get(0);
+        ElasticsearchNodesSniffer.Scheme scheme = "https".equals(first.getHost().getSchemeName())
+                ? ElasticsearchNodesSniffer.Scheme.HTTPS : ElasticsearchNodesSniffer.Scheme.HTTP;
+        Sniffer sniffer = Sniffer.builder(restClient)
+                .setSniffIntervalMillis(properties.getSniff().getIntervalMs())
+                .setSniffAfterFailureDelayMillis(properties.getSniff().getDelayAfterFailureMs())
+                .setNodesSniffer(new ElasticsearchNodesSniffer(restClient,
+                        TimeUnit.SECONDS.toMillis(1), scheme))
+                .build();
+        sniffOnFailureListener.setSniffer(sniffer);
+        return sniffer;
+    }
+}
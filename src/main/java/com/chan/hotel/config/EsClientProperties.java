@@ -0,0 +1,128 @@
+package com.chan.hotel.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ES客户端相关配置，对应application.yml中的hotel.elasticsearch
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "hotel.elasticsearch")
+public class EsClientProperties {
+
+    /**
+     * 节点地址，例如http://es1:9200，请求在多个节点间轮询，节点失败时自动切换
+     */
+    private List<String> hosts = new ArrayList<>(Collections.singletonList("http://localhost:9200"));
+
+    /**
+     * 每个节点的最大连接数（默认10）
+     */
+    private int maxConnPerRoute = 30;
+
+    /**
+     * 所有节点的最大连接数（默认30）
+     */
+    private int maxConnTotal = 100;
+
+    /**
+     * IO线程数，0表示使用CPU核数
+     */
+    private int ioThreadCount = 0;
+
+    /**
+     * 空闲连接的保活时间（毫秒），应小于ES和中间负载均衡的空闲超时，避免复用已被对端关闭的连接
+     */
+    private long keepAliveMs = 60000;
+
+    /**
+     * 建立连接超时（毫秒）
+     */
+    private int connectTimeoutMs = 1000;
+
+    /**
+     * 读取响应超时（毫秒）
+     */
+    private int socketTimeoutMs = 30000;
+
+    /**
+     * 从连接池获取连接的超时（毫秒），连接池耗尽时快速失败而不是无限排队
+     */
+    private int connectionRequestTimeoutMs = 1000;
+
+    /**
+     * 是否gzip压缩请求体，并接受gzip压缩的响应
+     */
+    private boolean compressionEnabled = true;
+
+    private Sniff sniff = new Sniff();
+
+    private Hedge hedge = new Hedge();
+
+    @Data
+    public static class Sniff {
+
+        /**
+         * 是否定时从集群获取节点列表，新增、下线的节点自动加入、移出轮询
+         */
+        private boolean enabled = false;
+
+        /**
+         * 定时获取节点列表的间隔（毫秒）
+         */
+        private int intervalMs = 300000;
+
+        /**
+         * 请求某个节点失败后，立即重新获取一次节点列表，并在该延迟（毫秒）后再获取一次
+         */
+        private int delayAfterFailureMs = 60000;
+    }
+
+    @Data
+    public static class Hedge {
+
+        /**
+         * 是否对search、get、mget发送对冲请求：超过延迟仍未返回时，向另一个节点再发一次，先返回的生效。至少配置两个节点才会生效
+         */
+        private boolean enabled = false;
+
+        /**
+         * 对冲延迟取最近延迟的这个百分位，例如95表示只有最慢的约5%的请求会触发对冲
+         */
+        private double percentile = 95;
+
+        /**
+         * 对冲延迟的下限（毫秒），避免ES很快时几乎每个请求都对冲
+         */
+        private long minDelayMs = 5;
+
+        /**
+         * 对冲延迟的上限（毫秒），样本不足时也使用这个值
+         */
+        private long maxDelayMs = 500;
+
+        /**
+         * 对冲请求最多占请求总数的百分比，超出后不再对冲，避免ES整体变慢时请求量翻倍
+         */
+        private double budgetPercent = 5;
+
+        /**
+         * 重新计算对冲延迟的间隔（毫秒）
+         */
+        private long refreshMs = 1000;
+
+        /**
+         * 至少积累这么多样本才更新对冲延迟
+         */
+        private int minSamples = 100;
+    }
+}
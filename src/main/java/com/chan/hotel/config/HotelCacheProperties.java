@@ -0,0 +1,32 @@
+package com.chan.hotel.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 搜索结果缓存相关配置，对应application.yml中的hotel.cache
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "hotel.cache")
+public class HotelCacheProperties {
+
+    /**
+     * 是否开启搜索结果缓存
+     */
+    private boolean enabled = true;
+
+    /**
+     * 最多缓存的查询条数，超出后按W-TinyLFU淘汰
+     */
+    private long maximumSize = 10000;
+
+    /**
+     * 缓存写入后的存活时间（秒）
+     */
+    private long ttlSeconds = 60;
+}
@@ -0,0 +1,32 @@
+package com.chan.hotel.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 酒店目录快照相关配置，对应application.yml中的hotel.catalog
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "hotel.catalog")
+public class HotelCatalogProperties {
+
+    /**
+     * 是否提供按id查询价格、评分、城市、品牌的快照
+     */
+    private boolean enabled = false;
+
+    /**
+     * 快照文件，同一台机器上的多个实例可以共用
+     */
+    private String file = "data/catalog/hotel.snapshot";
+
+    /**
+     * 是否由本实例从tb_hotel生成快照；为false时只在文件被替换后重新映射
+     */
+    private boolean build = true;
+}
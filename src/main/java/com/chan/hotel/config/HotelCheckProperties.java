@@ -0,0 +1,42 @@
+package com.chan.hotel.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * tb_hotel与hotel索引一致性校验相关配置，对应application.yml中的hotel.check
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "hotel.check")
+public class HotelCheckProperties {
+
+    /**
+     * 顶层区间包含的id个数，顶层区间之间并行校验
+     */
+    private long rangeSize = 100000;
+
+    /**
+     * 指纹不一致的区间拆分为多少个子区间继续比较
+     */
+    private int fanout = 10;
+
+    /**
+     * 区间不超过该id个数时不再拆分，逐个id比较。逐个比较时两侧的指纹都在内存中，它决定了内存上限
+     */
+    private long leafSize = 1000;
+
+    /**
+     * 两侧每次分页读取的行数
+     */
+    private int batchSize = 1000;
+
+    /**
+     * 并行校验的线程数
+     */
+    private int parallelism = 4;
+}
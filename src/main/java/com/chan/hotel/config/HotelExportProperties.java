@@ -0,0 +1,47 @@
+package com.chan.hotel.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 全量导出相关配置，对应application.yml中的hotel.export
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "hotel.export")
+public class HotelExportProperties {
+
+    /**
+     * 默认的切片数，每个切片由一个线程独立scroll
+     */
+    private int slices = 4;
+
+    /**
+     * 切片数上限，不超过索引的分片数时效果最好
+     */
+    private int maxSlices = 16;
+
+    /**
+     * 每个切片每次scroll取回的文档数，也是每个切片在内存中最多持有的文档数
+     */
+    private int batchSize = 1000;
+
+    /**
+     * scroll上下文的保活时间，需要大于写出一批文档的耗时
+     */
+    private String scrollKeepAlive = "1m";
+
+    /**
+     * 命令行导出：指定后应用启动时导出到该文件，完成后退出
+     */
+    private String file;
+
+    /**
+     * 命令行导出的格式，ndjson或csv
+     */
+    private String format = "ndjson";
+}
@@ -0,0 +1,46 @@
+package com.chan.hotel.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 过滤项（聚合）相关配置，对应application.yml中的hotel.facet
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "hotel.facet")
+public class HotelFacetProperties {
+
+    /**
+     * 每个过滤项最多返回的取值个数
+     */
+    private int size = 20;
+
+    /**
+     * 价格区间的分割点，如200,500,1000得到0-200、200-500、500-1000、1000-四个区间
+     */
+    private List<Integer> priceRanges = new ArrayList<>(Arrays.asList(200, 500, 1000));
+
+    /**
+     * 城市级（除城市外没有任何条件）过滤项缓存的存活时间（秒）
+     */
+    private long ttlSeconds = 30;
+
+    /**
+     * 城市级过滤项缓存的最大条数
+     */
+    private long maximumSize = 1000;
+
+    /**
+     * 定时预热城市级过滤项的城市，空字符串表示全部城市
+     */
+    private List<String> warmCities = new ArrayList<>();
+}
@@ -0,0 +1,52 @@
+package com.chan.hotel.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 全量导入（MySQL -> ES）相关配置，对应application.yml中的hotel.import
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "hotel.import")
+public class HotelImportProperties {
+
+    /**
+     * 每次按id游标从tb_hotel读取的行数
+     */
+    private int fetchSize = 1000;
+
+    /**
+     * 单个BulkRequest最多包含的文档数
+     */
+    private int bulkActions = 1000;
+
+    /**
+     * 单个BulkRequest最大字节数（MB），与bulkActions先到先切
+     */
+    private long bulkSizeMb = 5;
+
+    /**
+     * 同时在途的BulkRequest数量，超过时读库线程阻塞等待，从而保证内存恒定
+     */
+    private int concurrentRequests = 2;
+
+    /**
+     * ES返回429拒绝时的首次退避时间（毫秒），之后指数增长
+     */
+    private long backoffInitialDelayMs = 100;
+
+    /**
+     * ES返回429拒绝时的最大重试次数
+     */
+    private int backoffMaxRetries = 8;
+
+    /**
+     * 读库结束后等待在途BulkRequest完成的最长时间（分钟）
+     */
+    private long awaitCloseMinutes = 10;
+}
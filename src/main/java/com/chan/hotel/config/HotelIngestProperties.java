@@ -0,0 +1,22 @@
+package com.chan.hotel.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 合作方数据写入tb_hotel的相关配置，对应application.yml中的hotel.ingest
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "hotel.ingest")
+public class HotelIngestProperties {
+
+    /**
+     * 每条多行upsert语句包含的行数，语句大小不能超过MySQL的max_allowed_packet
+     */
+    private int batchSize = 500;
+}
@@ -0,0 +1,71 @@
+package com.chan.hotel.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 搜索、按id查询的自适应并发限制相关配置，对应application.yml中的hotel.limit
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "hotel.limit")
+public class HotelLimitProperties {
+
+    /**
+     * 是否开启，关闭后所有请求直接放行
+     */
+    private boolean enabled = true;
+
+    /**
+     * 初始并发上限，之后根据延迟自动调整
+     */
+    private int initialLimit = 20;
+
+    private int minLimit = 4;
+
+    private int maxLimit = 200;
+
+    /**
+     * 允许的延迟放大倍数：短期延迟不超过长期延迟的这么多倍时并发上限继续增长
+     */
+    private double tolerance = 2.0;
+
+    /**
+     * 每次调整时新上限所占的权重，越大调整越快、抖动也越大
+     */
+    private double smoothing = 0.2;
+
+    /**
+     * 长期延迟的指数平均窗口（样本数）
+     */
+    private int longWindow = 600;
+
+    /**
+     * 请求超时、ES拒绝（429）或不可用时，并发上限乘以这个比例
+     */
+    private double backoffRatio = 0.9;
+
+    /**
+     * 普通请求（列表第一页、附近的酒店）最多占用并发上限的比例
+     */
+    private double normalShare = 0.9;
+
+    /**
+     * 昂贵请求（深分页、过滤项聚合）最多占用并发上限的比例，按id查询可以用满
+     */
+    private double expensiveShare = 0.6;
+
+    /**
+     * 超过这一页的列表查询按昂贵请求处理
+     */
+    private int deepPage = 10;
+
+    /**
+     * 拒绝时响应头Retry-After的秒数
+     */
+    private int retryAfterSeconds = 1;
+}
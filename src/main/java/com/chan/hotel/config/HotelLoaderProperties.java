@@ -0,0 +1,27 @@
+package com.chan.hotel.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 按id查询酒店的批量合并相关配置，对应application.yml中的hotel.loader
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "hotel.loader")
+public class HotelLoaderProperties {
+
+    /**
+     * 收集请求的时间窗口（毫秒），第一个请求到达后最多等待这么久就发送
+     */
+    private long windowMs = 2;
+
+    /**
+     * 每个MultiGetRequest最多包含的id数，攒够了立即发送
+     */
+    private int maxBatchSize = 50;
+}
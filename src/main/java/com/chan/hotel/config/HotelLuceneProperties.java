@@ -0,0 +1,32 @@
+package com.chan.hotel.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 本地Lucene降级索引相关配置，对应application.yml中的hotel.lucene
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "hotel.lucene")
+public class HotelLuceneProperties {
+
+    /**
+     * 是否从tb_hotel构建本地索引
+     */
+    private boolean enabled = false;
+
+    /**
+     * 索引目录，通过MMapDirectory打开，重启后上一次构建的索引立即可用；为空时只保存在堆内存中
+     */
+    private String directory = "data/lucene";
+
+    /**
+     * ES搜索失败（连接失败、超时、5xx）时是否降级到本地索引
+     */
+    private boolean fallbackEnabled = true;
+}
@@ -0,0 +1,42 @@
+package com.chan.hotel.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 重建索引相关配置，对应application.yml中的hotel.reindex
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "hotel.reindex")
+public class HotelReindexProperties {
+
+    /**
+     * force merge后每个分片的段数
+     */
+    private int maxNumSegments = 1;
+
+    /**
+     * force merge请求的超时时间（分钟），段合并可能远超客户端默认的30秒socket超时
+     */
+    private long forceMergeTimeoutMinutes = 30;
+
+    /**
+     * 切换别名前等待新索引达到的健康状态：green或yellow。单节点集群副本无法分配，只能到yellow
+     */
+    private String waitForStatus = "yellow";
+
+    /**
+     * 等待健康状态的超时时间（分钟）
+     */
+    private long waitForStatusTimeoutMinutes = 10;
+
+    /**
+     * 切换别名后是否删除旧索引
+     */
+    private boolean deleteOldIndex = true;
+}
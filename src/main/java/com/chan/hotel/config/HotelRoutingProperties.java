@@ -0,0 +1,23 @@
+package com.chan.hotel.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 自定义路由相关配置，对应application.yml中的hotel.routing
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "hotel.routing")
+public class HotelRoutingProperties {
+
+    /**
+     * 是否按城市路由：同一城市的酒店写入同一个分片，带城市条件的搜索只查询一个分片。
+     * 已有的文档是按id路由的，开启或关闭后都要重建索引（POST reindex）
+     */
+    private boolean cityEnabled = false;
+}
@@ -0,0 +1,27 @@
+package com.chan.hotel.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 索引结构版本相关配置，对应application.yml中的hotel.schema
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "hotel.schema")
+public class HotelSchemaProperties {
+
+    /**
+     * 启动后是否检查线上索引与当前版本是否一致，不一致时打印警告
+     */
+    private boolean checkOnStartup = true;
+
+    /**
+     * 启动后是否自动迁移：可以直接修改的差异就地修改，否则重建索引。默认关闭，重建索引应当人工触发
+     */
+    private boolean autoMigrate = false;
+}
@@ -0,0 +1,22 @@
+package com.chan.hotel.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 搜索相关配置，对应application.yml中的hotel.search
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "hotel.search")
+public class HotelSearchProperties {
+
+    /**
+     * 游标分页时point in time的保活时间，两次翻页的间隔不能超过它
+     */
+    private String cursorKeepAlive = "1m";
+}
@@ -0,0 +1,32 @@
+package com.chan.hotel.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 自动补全相关配置，对应application.yml中的hotel.suggest
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "hotel.suggest")
+public class HotelSuggestProperties {
+
+    /**
+     * 每次返回的补全词个数
+     */
+    private int size = 10;
+
+    /**
+     * 是否在本地内存中构建前缀树，命中时不再访问ES
+     */
+    private boolean localTrieEnabled = false;
+
+    /**
+     * 前缀树每个节点保存的补全词个数
+     */
+    private int trieTopK = 10;
+}
@@ -0,0 +1,42 @@
+package com.chan.hotel.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 增量同步（tb_hotel -> ES）相关配置，对应application.yml中的hotel.sync
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "hotel.sync")
+public class HotelSyncProperties {
+
+    /**
+     * 是否开启增量同步
+     */
+    private boolean enabled = true;
+
+    /**
+     * 合并窗口（毫秒）：同一酒店在窗口内的多次变更只同步一次
+     */
+    private long windowMs = 1000;
+
+    /**
+     * 每个BulkRequest最多包含的酒店数
+     */
+    private int maxBatchSize = 1000;
+
+    /**
+     * 单条同步失败（429、5xx）的最大重试次数，超过后丢弃，由一致性修复兜底
+     */
+    private int maxRetries = 10;
+
+    /**
+     * 重试的最长退避时间（毫秒），从一个合并窗口开始每次翻倍
+     */
+    private long maxBackoffMs = 60000;
+}
@@ -0,0 +1,42 @@
+package com.chan.hotel.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 局部更新写缓冲相关配置，对应application.yml中的hotel.update-buffer
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "hotel.update-buffer")
+public class HotelUpdateBufferProperties {
+
+    /**
+     * 本地日志目录，未写入数据库的更新先写在这里，重启后恢复
+     */
+    private String journalDir = "data/update-buffer";
+
+    /**
+     * 每次写日志后是否fsync。关闭后吞吐更高，但机器掉电可能丢失最近已确认的更新
+     */
+    private boolean fsync = true;
+
+    /**
+     * 定时刷新间隔（毫秒）
+     */
+    private long flushIntervalMs = 1000;
+
+    /**
+     * 缓冲中的酒店数达到该值时立即刷新
+     */
+    private int maxPending = 5000;
+
+    /**
+     * 每条update语句包含的酒店数，也是每次同步到ES的数量
+     */
+    private int batchSize = 500;
+}
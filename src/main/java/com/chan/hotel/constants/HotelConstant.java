@@ -6,54 +6,14 @@ package com.chan.hotel.constants;
  */
 public class HotelConstant {
 
-    public static final String MAPPING_TEMPLATE = "{\n" +
-            "  \"mappings\": {\n" +
-            "    \"properties\": {\n" +
-            "      \"id\": {\n" +
-            "        \"type\": \"keyword\"\n" +
-            "      },\n" +
-            "      \"name\":{\n" +
-            "        \"type\": \"text\",\n" +
-            "        \"analyzer\": \"ik_max_word\",\n" +
-            "        \"copy_to\": \"all\"\n" +
-            "      },\n" +
-            "      \"address\":{\n" +
-            "        \"type\": \"keyword\",\n" +
-            "        \"index\": false\n" +
-            "      },\n" +
-            "      \"price\":{\n" +
-            "        \"type\": \"integer\"\n" +
-            "      },\n" +
-            "      \"score\":{\n" +
-            "        \"type\": \"integer\"\n" +
-            "      },\n" +
-            "      \"brand\":{\n" +
-            "        \"type\": \"keyword\",\n" +
-            "        \"copy_to\": \"all\"\n" +
-            "      },\n" +
-            "      \"city\":{\n" +
-            "        \"type\": \"keyword\",\n" +
-            "        \"copy_to\": \"all\"\n" +
-            "      },\n" +
-            "      \"starName\":{\n" +
-            "        \"type\": \"keyword\"\n" +
-            "      },\n" +
-            "      \"business\":{\n" +
-            "        \"type\": \"keyword\"\n" +
-            "      },\n" +
-            "      \"location\":{\n" +
-            "        \"type\": \"geo_point\"\n" +
-            "      },\n" +
-            "      \"pic\":{\n" +
-            "        \"type\": \"keyword\",\n" +
-            "        \"index\": false\n" +
-            "      },\n" +
-            "      \"all\":{\n" +
-            "        \"type\": \"text\",\n" +
-            "        \"analyzer\": \"ik_max_word\"\n" +
-            "      }\n" +
-            "    }\n" +
-            "  }\n" +
-            "}";
+    /**
+     * 酒店索引库名称
+     */
+    public static final String INDEX_NAME = "hotel";
+
+    /**
+     * 版本化索引前缀，重建时创建hotel_v{n}，再把INDEX_NAME作为别名切过去
+     */
+    public static final String VERSIONED_INDEX_PREFIX = INDEX_NAME + "_v";
 
 }
@@ -1,11 +1,253 @@
 package com.chan.hotel.controller;
 
+import com.chan.hotel.cache.HotelSearchCache;
+import com.chan.hotel.limit.HotelLoadShedder;
+import com.chan.hotel.limit.OverloadedException;
+import com.chan.hotel.pojo.ConsistencyReport;
+import com.chan.hotel.pojo.ExportFormat;
+import com.chan.hotel.pojo.FacetResult;
+import com.chan.hotel.pojo.HotelAttributes;
+import com.chan.hotel.pojo.HotelDoc;
+import com.chan.hotel.pojo.IngestResult;
+import com.chan.hotel.pojo.NearbyParams;
+import com.chan.hotel.pojo.PageResult;
+import com.chan.hotel.pojo.RequestParams;
+import com.chan.hotel.pojo.RequestPriority;
+import com.chan.hotel.pojo.SchemaCheckResult;
+import com.chan.hotel.service.HotelCatalogService;
+import com.chan.hotel.service.HotelConsistencyService;
+import com.chan.hotel.service.HotelDocLoader;
+import com.chan.hotel.service.HotelExportService;
+import com.chan.hotel.service.HotelIngestService;
+import com.chan.hotel.service.HotelSchemaService;
+import com.chan.hotel.service.HotelSearchEngine;
+import com.chan.hotel.service.HotelSearchService;
+import com.chan.hotel.service.HotelSuggestService;
+import com.chan.hotel.service.HotelUpdateBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.annotation.Resource;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 /**
+ * 返回CompletableFuture时Spring MVC按异步请求处理：Tomcat线程立即释放，future完成后再写回响应
+ *
  * @author CHAN
  * @since 2022/6/13
  */
 @RestController
+@RequestMapping("/hotel")
 public class HotelController {
+
+    @Resource
+    private HotelSearchService hotelSearchService;
+
+    /**
+     * 优先查询ES，ES不可用时降级到本地索引
+     */
+    @Resource
+    private HotelSearchEngine hotelSearchEngine;
+
+    @Resource
+    private HotelSuggestService hotelSuggestService;
+
+    @Resource
+    private HotelDocLoader hotelDocLoader;
+
+    @Resource
+    private HotelUpdateBuffer hotelUpdateBuffer;
+
+    @Resource
+    private HotelExportService hotelExportService;
+
+    @Resource
+    private HotelIngestService hotelIngestService;
+
+    @Resource
+    private HotelConsistencyService hotelConsistencyService;
+
+    @Resource
+    private HotelSchemaService hotelSchemaService;
+
+    @Resource
+    private HotelCatalogService hotelCatalogService;
+
+    @Resource
+    private HotelSearchCache hotelSearchCache;
+
+    /**
+     * 搜索、按id查询超过并发上限时直接返回503
+     */
+    @Resource
+    private HotelLoadShedder hotelLoadShedder;
+
+    /**
+     * 搜索酒店列表
+     */
+    @PostMapping("/list")
+    public CompletableFuture<PageResult> search(@RequestBody RequestParams params) {
+        return hotelLoadShedder.execute(hotelLoadShedder.priorityOf(params), () -> hotelSearchEngine.search(params));
+    }
+
+    /**
+     * 游标分页搜索酒店列表，适合无限下拉：第一页传查询条件，之后只传上一页返回的nextCursor
+     */
+    @PostMapping("/scroll")
+    public CompletableFuture<PageResult> scroll(@RequestBody RequestParams params) {
+        return hotelLoadShedder.execute(RequestPriority.NORMAL, () -> hotelSearchService.searchByCursor(params));
+    }
+
+    /**
+     * 附近的酒店，按距离由近到远排序
+     */
+    @GetMapping("/nearby")
+    public CompletableFuture<PageResult> nearby(NearbyParams params) {
+        return hotelLoadShedder.execute(RequestPriority.NORMAL, () -> hotelSearchEngine.nearby(params));
+    }
+
+    /**
+     * 搜索酒店列表，同时返回侧边栏的城市、品牌、星级、价格区间过滤项
+     */
+    @PostMapping("/filters")
+    public CompletableFuture<FacetResult> filters(@RequestBody RequestParams params) {
+        return hotelLoadShedder.execute(RequestPriority.EXPENSIVE, () -> hotelSearchEngine.facets(params));
+    }
+
+    /**
+     * 搜索框自动补全
+     */
+    @GetMapping("/suggest")
+    public CompletableFuture<List<String>> suggest(@RequestParam("key") String key) {
+        return hotelSuggestService.suggest(key);
+    }
+
+    /**
+     * 按id查询酒店，并发的查询会合并为一个MultiGetRequest
+     */
+    @GetMapping("/{id:\\d+}")
+    public CompletableFuture<ResponseEntity<HotelDoc>> getById(@PathVariable("id") Long id) {
+        return hotelLoadShedder.execute(RequestPriority.CHEAP, () -> hotelDocLoader.load(id))
+                .thenApply(hotelDoc -> hotelDoc == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(hotelDoc));
+    }
+
+    /**
+     * 按id查询价格、评分、城市、品牌，读取本地的酒店目录快照，不访问ES和数据库
+     */
+    @GetMapping("/catalog/{id:\\d+}")
+    public ResponseEntity<HotelAttributes> catalog(@PathVariable("id") Long id) {
+        HotelAttributes attributes = hotelCatalogService.get(id);
+        return attributes == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(attributes);
+    }
+
+    /**
+     * 批量按id查询酒店目录快照，不存在的id不返回
+     */
+    @GetMapping("/catalog")
+    public List<HotelAttributes> catalog(@RequestParam("ids") List<Long> ids) {
+        return hotelCatalogService.get(ids);
+    }
+
+    /**
+     * 局部修改酒店文档（如价格、评分），写入缓冲后立即返回202，稍后批量写入tb_hotel并同步到ES
+     */
+    @PatchMapping("/{id:\\d+}")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public void update(@PathVariable("id") Long id, @RequestBody Map<String, Object> fields) {
+        hotelUpdateBuffer.update(id, fields);
+    }
+
+    /**
+     * 全量导出hotel索引，边查询边写出响应体。导出耗时较长，不走异步请求（会受request-timeout限制）
+     *
+     * @param format ndjson或csv
+     * @param slices 并行的切片数，不传时使用配置的默认值
+     */
+    @GetMapping("/export")
+    public void export(@RequestParam(value = "format", defaultValue = "ndjson") String format,
+                       @RequestParam(value = "slices", defaultValue = "0") int slices,
+                       HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.of(format);
+        response.setContentType(exportFormat.getContentType() + ";charset=UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=hotel." + exportFormat.getExtension());
+        hotelExportService.export(exportFormat, slices, response.getOutputStream());
+    }
+
+    /**
+     * 把请求体中的合作方酒店数据批量写入tb_hotel，边读边写，不会把整个请求体读入内存
+     *
+     * @param format ndjson或csv
+     */
+    @PostMapping("/ingest")
+    public IngestResult ingest(@RequestParam(value = "format", defaultValue = "ndjson") String format,
+                               HttpServletRequest request) throws IOException {
+        return hotelIngestService.ingest(request.getInputStream(), ExportFormat.of(format));
+    }
+
+    /**
+     * 校验tb_hotel与hotel索引是否一致，repair=true时立即修复不一致的酒店
+     */
+    @PostMapping("/check")
+    public ConsistencyReport check(@RequestParam(value = "repair", defaultValue = "false") boolean repair) throws IOException {
+        return hotelConsistencyService.check(repair);
+    }
+
+    /**
+     * 比较线上索引与当前版本的索引结构
+     */
+    @GetMapping("/schema")
+    public SchemaCheckResult schema() throws IOException {
+        return hotelSchemaService.check();
+    }
+
+    /**
+     * 迁移到当前版本的索引结构，需要重建时同步执行，耗时与数据量相关
+     */
+    @PostMapping("/schema/migrate")
+    public SchemaCheckResult migrateSchema() throws IOException {
+        return hotelSchemaService.migrate();
+    }
+
+    /**
+     * 搜索结果缓存的命中率等统计
+     */
+    @GetMapping("/cache/stats")
+    public Map<String, Object> cacheStats() {
+        return hotelSearchCache.stats();
+    }
+
+    /**
+     * 参数不合法（如游标无法解析）时返回400
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String handleIllegalArgument(IllegalArgumentException e) {
+        return e.getMessage();
+    }
+
+    /**
+     * 超过并发上限时返回503，客户端按Retry-After退避后重试
+     */
+    @ExceptionHandler(OverloadedException.class)
+    public ResponseEntity<String> handleOverloaded(OverloadedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(e.getMessage());
+    }
 }
@@ -0,0 +1,110 @@
+package com.chan.hotel.hedge;
+
+import com.chan.hotel.config.EsClientProperties;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 对冲请求的延迟和预算：
+ * <p>
+ * - 延迟：每类请求（search、get、mget）各自记录延迟，refresh时取积累的样本的percentile百分位，
+ * 限制在[minDelayMs, maxDelayMs]；样本不足minSamples时沿用上一次的值，最初为maxDelayMs
+ * - 预算：每个请求存入budgetPercent / 100个令牌，每次对冲消耗一个，令牌最多积累BUDGET_BURST个。
+ * ES整体变慢时几乎所有请求都会超过对冲延迟，预算保证对冲请求不超过总数的budgetPercent%
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public class HedgePolicy {
+
+    /**
+     * 令牌以千分之一为单位计数
+     */
+    private static final long TOKEN = 1000;
+    private static final long BUDGET_BURST = 10 * TOKEN;
+
+    private final EsClientProperties.Hedge properties;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private final AtomicLong tokens = new AtomicLong();
+
+    public HedgePolicy(EsClientProperties.Hedge properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * @return 当前的对冲延迟（纳秒）
+     */
+    public long delayNanos(String operation) {
+        return window(operation).delayNanos;
+    }
+
+    /**
+     * 记录一次请求的延迟（从发出第一个请求到收到第一个响应）
+     */
+    public void record(String operation, long nanos) {
+        window(operation).recorder.recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos)));
+    }
+
+    /**
+     * 每个可以对冲的请求调用一次，存入预算
+     */
+    public void deposit() {
+        long deposit = (long) (properties.getBudgetPercent() * TOKEN / 100);
+        tokens.getAndUpdate(current -> Math.min(BUDGET_BURST, current + deposit));
+    }
+
+    /**
+     * @return 预算足够时消耗一个令牌并返回true
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            long current = tokens.get();
+            if (current < TOKEN) {
+                return false;
+            }
+            if (tokens.compareAndSet(current, current - TOKEN)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 用积累的样本重新计算每类请求的对冲延迟
+     */
+    public void refresh() {
+        for (Window window : windows.values()) {
+            window.refresh();
+        }
+    }
+
+    private Window window(String operation) {
+        return windows.computeIfAbsent(operation, k -> new Window());
+    }
+
+    /**
+     * 一类请求的延迟样本，Recorder支持多线程无锁写入，refresh时取出区间内的样本合并到samples
+     */
+    private final class Window {
+        private final Recorder recorder = new Recorder(3);
+        private final Histogram samples = new Histogram(3);
+        private Histogram interval;
+        private volatile long delayNanos = TimeUnit.MILLISECONDS.toNanos(properties.getMaxDelayMs());
+
+        synchronized void refresh() {
+            interval = recorder.getIntervalHistogram(interval);
+            samples.add(interval);
+            if (samples.getTotalCount() < properties.getMinSamples()) {
+                return;
+            }
+            long micros = samples.getValueAtPercentile(properties.getPercentile());
+            delayNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(properties.getMinDelayMs()),
+                    Math.min(TimeUnit.MILLISECONDS.toNanos(properties.getMaxDelayMs()), TimeUnit.MICROSECONDS.toNanos(micros)));
+            samples.reset();
+        }
+    }
+}
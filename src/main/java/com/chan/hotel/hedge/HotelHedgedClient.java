@@ -0,0 +1,366 @@
+package com.chan.hotel.hedge;
+
+import com.chan.hotel.config.EsClientConfig;
+import com.chan.hotel.config.EsClientProperties;
+import com.chan.hotel.metrics.EsHttpMetricsInterceptor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.HttpHost;
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.get.GetRequest;
+import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.action.get.MultiGetRequest;
+import org.elasticsearch.action.get.MultiGetResponse;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.Cancellable;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BiFunction;
+
+/**
+ * 对冲请求：search、get、mget是幂等的读请求，超过对冲延迟仍未返回时向另一个节点再发一次，先返回的生效，另一个取消。
+ * <p>
+ * 全局客户端在多个节点间轮询，无法指定节点，所以开启后为每个节点单独创建一个客户端，
+ * 第一次请求按轮询选择节点，对冲请求发往下一个节点。单节点客户端只使用配置的hosts，不参与sniff。
+ * <p>
+ * 节点故障切换与全局客户端一致：连接失败、超时、502/503/504的节点标记为不可用，按连续失败次数退避1~30分钟，
+ * 期间排在其他节点之后，成功一次即恢复。某次尝试失败（连接失败、超时、429、5xx）且没有其他尝试在进行时，
+ * 立即发往下一个还没尝试过的节点，不占用对冲预算；所有节点都失败时返回最后一次的异常。对冲请求受预算限制，见{@link HedgePolicy}。
+ * <p>
+ * 未开启或只有一个节点时直接使用全局客户端。
+ * 指标（operation标签）：es.hedge.requests、es.hedge.fired（发出的对冲请求）、es.hedge.won（对冲请求先返回）、
+ * es.hedge.skipped（预算不足）、es.hedge.failover（失败后换节点重试）、es.hedge.delay（当前的对冲延迟，毫秒）
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Slf4j
+@Component
+public class HotelHedgedClient {
+
+    private static final List<String> OPERATIONS = Arrays.asList("search", "get", "mget");
+    private static final long MIN_DEAD_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final long MAX_DEAD_NANOS = TimeUnit.MINUTES.toNanos(30);
+
+    @Resource
+    private RestHighLevelClient client;
+
+    @Resource
+    private EsClientProperties properties;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    private final List<RestHighLevelClient> nodes = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * 每个节点的连续失败次数和不可用的截止时间（System.nanoTime），失败次数为0时可用
+     */
+    private AtomicIntegerArray failures;
+    private AtomicLongArray deadUntil;
+    private HedgePolicy policy;
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        EsClientProperties.Hedge hedge = properties.getHedge();
+        if (!hedge.isEnabled()) {
+            return;
+        }
+        if (properties.getHosts().size() < 2) {
+            log.warn("只配置了一个ES节点，不发送对冲请求");
+            return;
+        }
+        EsHttpMetricsInterceptor interceptor = new EsHttpMetricsInterceptor(meterRegistry);
+        for (String host : properties.getHosts()) {
+            nodes.add(new RestHighLevelClient(EsClientConfig.builder(properties, interceptor, HttpHost.create(host))));
+        }
+        failures = new AtomicIntegerArray(nodes.size());
+        deadUntil = new AtomicLongArray(nodes.size());
+        policy = new HedgePolicy(hedge);
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "es-hedge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(policy::refresh, hedge.getRefreshMs(), hedge.getRefreshMs(), TimeUnit.MILLISECONDS);
+        for (String operation : OPERATIONS) {
+            Gauge.builder("es.hedge.delay", policy, p -> TimeUnit.NANOSECONDS.toMillis(p.delayNanos(operation)))
+                    .tag("operation", operation).register(meterRegistry);
+        }
+        log.info("开启对冲请求，{}个节点", nodes.size());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        for (RestHighLevelClient node : nodes) {
+            try {
+                node.close();
+            } catch (IOException e) {
+                log.warn("关闭单节点ES客户端失败：{}", e.getMessage());
+            }
+        }
+    }
+
+    public void searchAsync(SearchRequest request, ActionListener<SearchResponse> listener) {
+        if (policy == null) {
+            client.searchAsync(request, RequestOptions.DEFAULT, listener);
+            return;
+        }
+        execute("search", (node, l) -> node.searchAsync(request, RequestOptions.DEFAULT, l), listener);
+    }
+
+    public void getAsync(GetRequest request, ActionListener<GetResponse> listener) {
+        if (policy == null) {
+            client.getAsync(request, RequestOptions.DEFAULT, listener);
+            return;
+        }
+        execute("get", (node, l) -> node.getAsync(request, RequestOptions.DEFAULT, l), listener);
+    }
+
+    public void mgetAsync(MultiGetRequest request, ActionListener<MultiGetResponse> listener) {
+        if (policy == null) {
+            client.mgetAsync(request, RequestOptions.DEFAULT, listener);
+            return;
+        }
+        execute("mget", (node, l) -> node.mgetAsync(request, RequestOptions.DEFAULT, l), listener);
+    }
+
+    private <T> void execute(String operation, BiFunction<RestHighLevelClient, ActionListener<T>, Cancellable> call,
+                             ActionListener<T> listener) {
+        policy.deposit();
+        meterRegistry.counter("es.hedge.requests", "operation", operation).increment();
+        new HedgedCall<>(operation, call, listener, nodeOrder()).start();
+    }
+
+    /**
+     * 本次请求尝试节点的顺序：可用的节点从轮询位置开始，不可用的节点按恢复时间排在最后
+     */
+    private List<Integer> nodeOrder() {
+        int first = Math.floorMod(next.getAndIncrement(), nodes.size());
+        long now = System.nanoTime();
+        List<Integer> order = new ArrayList<>(nodes.size());
+        List<Integer> dead = new ArrayList<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            int node = (first + i) % nodes.size();
+            if (failures.get(node) == 0 || deadUntil.get(node) - now <= 0) {
+                order.add(node);
+            } else {
+                dead.add(node);
+            }
+        }
+        dead.sort(Comparator.comparingLong(node -> deadUntil.get(node) - now));
+        order.addAll(dead);
+        return order;
+    }
+
+    /**
+     * 与RestClient相同：不可用时长为1分钟 * 2^((连续失败次数 - 1) / 2)，最长30分钟
+     */
+    private void markDead(int node) {
+        int failed = failures.incrementAndGet(node);
+        long timeout = (long) Math.min(MAX_DEAD_NANOS, MIN_DEAD_NANOS * Math.pow(2, 0.5 * (failed - 1)));
+        deadUntil.set(node, System.nanoTime() + timeout);
+        log.warn("ES节点{}请求失败，{}秒内排在其他节点之后", properties.getHosts().get(node), TimeUnit.NANOSECONDS.toSeconds(timeout));
+    }
+
+    private void markAlive(int node) {
+        if (failures.get(node) != 0) {
+            failures.set(node, 0);
+        }
+    }
+
+    /**
+     * ES返回的4xx（429除外）是请求本身的问题，换节点也一样
+     */
+    private static boolean isRetryable(Exception e) {
+        if (e instanceof ElasticsearchStatusException) {
+            int status = ((ElasticsearchStatusException) e).status().getStatus();
+            return status == 429 || status >= 500;
+        }
+        return true;
+    }
+
+    /**
+     * 与RestClient相同：连接失败、超时和502/503/504说明节点本身有问题
+     */
+    private static boolean isNodeFailure(Exception e) {
+        if (e instanceof ElasticsearchStatusException) {
+            int status = ((ElasticsearchStatusException) e).status().getStatus();
+            return status == 502 || status == 503 || status == 504;
+        }
+        return e instanceof IOException;
+    }
+
+    /**
+     * 一次调用：按nodeOrder依次尝试，每个节点最多一次。超过对冲延迟时（受预算限制）发出一次对冲请求，
+     * 失败且没有其他尝试在进行时发往下一个节点。状态转换在锁内进行，回调和发送在锁外
+     */
+    private final class HedgedCall<T> {
+
+        private final String operation;
+        private final BiFunction<RestHighLevelClient, ActionListener<T>, Cancellable> call;
+        private final ActionListener<T> listener;
+        private final List<Integer> order;
+        private final long start = System.nanoTime();
+        private final Cancellable[] attempts;
+        private int sent;
+        private int pending;
+        private int hedgeAttempt = -1;
+        private boolean timerFired;
+        private boolean done;
+        private volatile ScheduledFuture<?> timer;
+
+        HedgedCall(String operation, BiFunction<RestHighLevelClient, ActionListener<T>, Cancellable> call,
+                   ActionListener<T> listener, List<Integer> order) {
+            this.operation = operation;
+            this.call = call;
+            this.listener = listener;
+            this.order = order;
+            this.attempts = new Cancellable[order.size()];
+        }
+
+        void start() {
+            synchronized (this) {
+                sent = 1;
+                pending = 1;
+            }
+            dispatch(0);
+            timer = scheduler.schedule(this::onTimer, policy.delayNanos(operation), TimeUnit.NANOSECONDS);
+        }
+
+        private void onTimer() {
+            int attempt;
+            synchronized (this) {
+                if (done || timerFired || sent >= order.size()) {
+                    return;
+                }
+                timerFired = true;
+                if (!policy.tryAcquire()) {
+                    meterRegistry.counter("es.hedge.skipped", "operation", operation).increment();
+                    return;
+                }
+                attempt = sent++;
+                pending++;
+                hedgeAttempt = attempt;
+            }
+            meterRegistry.counter("es.hedge.fired", "operation", operation).increment();
+            dispatch(attempt);
+        }
+
+        private void dispatch(int attempt) {
+            Cancellable cancellable = call.apply(nodes.get(order.get(attempt)), new ActionListener<T>() {
+                @Override
+                public void onResponse(T response) {
+                    onAttemptResponse(attempt, response);
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    onAttemptFailure(attempt, e);
+                }
+            });
+            boolean cancel;
+            synchronized (this) {
+                attempts[attempt] = cancellable;
+                // 其他尝试在发送期间已经返回
+                cancel = done;
+            }
+            if (cancel) {
+                cancellable.cancel();
+            }
+        }
+
+        private void onAttemptResponse(int attempt, T response) {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                done = true;
+            }
+            markAlive(order.get(attempt));
+            finish();
+            policy.record(operation, System.nanoTime() - start);
+            if (attempt == hedgeAttempt) {
+                meterRegistry.counter("es.hedge.won", "operation", operation).increment();
+            }
+            listener.onResponse(response);
+        }
+
+        private void onAttemptFailure(int attempt, Exception e) {
+            int failover = -1;
+            synchronized (this) {
+                if (done) {
+                    // 被取消的尝试
+                    return;
+                }
+                pending--;
+                if (pending > 0) {
+                    // 另一次尝试还在进行，等它的结果
+                    failover = -2;
+                } else if (isRetryable(e) && sent < order.size()) {
+                    failover = sent++;
+                    pending++;
+                } else {
+                    done = true;
+                }
+            }
+            if (isNodeFailure(e)) {
+                markDead(order.get(attempt));
+            }
+            if (failover == -2) {
+                return;
+            }
+            if (failover >= 0) {
+                meterRegistry.counter("es.hedge.failover", "operation", operation).increment();
+                dispatch(failover);
+                return;
+            }
+            finish();
+            listener.onFailure(e);
+        }
+
+        /**
+         * 取消对冲定时器和其他尝试，被取消的尝试以CancellationException结束，由done忽略
+         */
+        private void finish() {
+            ScheduledFuture<?> scheduled = timer;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+            List<Cancellable> others = new ArrayList<>();
+            synchronized (this) {
+                for (Cancellable cancellable : attempts) {
+                    if (cancellable != null) {
+                        others.add(cancellable);
+                    }
+                }
+            }
+            others.forEach(Cancellable::cancel);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.chan.hotel.limit;
+
+import com.chan.hotel.config.HotelLimitProperties;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按延迟梯度自适应的并发限制（gradient算法，失败时乘性减小）：
+ * <p>
+ * - 长期延迟longRtt是最近longWindow个样本的指数平均，代表没有排队时的延迟；短期延迟shortRtt是最近10个样本的指数平均
+ * - gradient = tolerance * longRtt / shortRtt，限制在[0.5, 1]：短期延迟没有明显高于长期延迟时为1
+ * - 新上限 = 上限 * gradient + sqrt(上限)，再按smoothing平滑：延迟稳定时上限缓慢增长，排队导致延迟升高时上限减小
+ * - 超时、ES拒绝或不可用时上限乘以backoffRatio
+ * <p>
+ * 在途请求数不到上限一半时不调整：此时延迟与并发上限无关，继续增长只会让上限虚高。
+ * 长期延迟明显高于短期延迟（持续变慢之后又恢复）时逐步衰减长期延迟，避免上限长时间按过高的延迟放行。
+ * <p>
+ * 优先级通过share实现：请求只能在 在途数 < 上限 * share 时进入，share小的请求在负载升高时先被拒绝
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final int SHORT_WINDOW = 10;
+
+    private final HotelLimitProperties properties;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private volatile double limit;
+    private double longRtt;
+    private double shortRtt;
+    private long samples;
+
+    public AdaptiveConcurrencyLimiter(HotelLimitProperties properties) {
+        this.properties = properties;
+        this.limit = properties.getInitialLimit();
+    }
+
+    /**
+     * @param share 可以占用的并发上限比例
+     * @return 许可，超过上限时返回null；请求结束时必须调用release
+     */
+    public Permit tryAcquire(double share) {
+        int max = Math.max(1, (int) (limit * share));
+        while (true) {
+            int current = inflight.get();
+            if (current >= max) {
+                return null;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return new Permit();
+            }
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    /**
+     * 记录一个成功请求的延迟并调整上限
+     *
+     * @param rttNanos 请求耗时（纳秒）
+     * @param inflight 请求开始时的在途请求数（{@link #getInflight()}）
+     */
+    public synchronized void update(long rttNanos, int inflight) {
+        samples++;
+        if (samples == 1) {
+            longRtt = rttNanos;
+            shortRtt = rttNanos;
+        } else {
+            longRtt += (rttNanos - longRtt) / Math.min(samples, properties.getLongWindow());
+            shortRtt += (rttNanos - shortRtt) / Math.min(samples, SHORT_WINDOW);
+        }
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+        if (inflight < limit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, properties.getTolerance() * longRtt / shortRtt));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        newLimit = limit * (1 - properties.getSmoothing()) + newLimit * properties.getSmoothing();
+        limit = Math.max(properties.getMinLimit(), Math.min(properties.getMaxLimit(), newLimit));
+    }
+
+    /**
+     * 请求超时或被ES拒绝，乘性减小上限
+     */
+    public synchronized void backoff() {
+        limit = Math.max(properties.getMinLimit(), limit * properties.getBackoffRatio());
+    }
+
+    /**
+     * 一个在途请求的许可。延迟样本和过载信号与许可分开记录（{@link #update}、{@link #backoff}），
+     * 请求的总耗时可能包含缓存命中、降级等与下游负载无关的部分
+     */
+    public final class Permit {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit() {
+        }
+
+        /**
+         * 请求结束，归还许可，重复调用无效
+         */
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                inflight.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.chan.hotel.limit;
+
+import com.chan.hotel.config.HotelLimitProperties;
+import com.chan.hotel.pojo.RequestParams;
+import com.chan.hotel.pojo.RequestPriority;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.client.Response;
+import org.elasticsearch.client.ResponseException;
+import org.elasticsearch.client.ResponseListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 搜索、按id查询的入口限流：超过自适应并发上限时立即拒绝，不让请求在Tomcat和ES客户端连接池中排队。
+ * <p>
+ * 入口只负责放行和计数，延迟样本和过载信号取自这些请求发往ES的调用（{@link #listener}），ES变慢时上限随之减小：
+ * 缓存命中、ES失败后降级到本地索引的耗时与ES的负载无关，不作为样本，降级前的ES失败仍然会减小上限。
+ * 按id查询可以用满上限，深分页、过滤项聚合只能用expensiveShare，过载时先拒绝昂贵的请求。
+ * <p>
+ * 指标：hotel.limit.limit、hotel.limit.inflight，被拒绝的请求数hotel.limit.rejected（priority标签）
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Component
+public class HotelLoadShedder {
+
+    private final HotelLimitProperties properties;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final MeterRegistry registry;
+
+    public HotelLoadShedder(HotelLimitProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        this.limiter = new AdaptiveConcurrencyLimiter(properties);
+        this.registry = registry;
+        Gauge.builder("hotel.limit.limit", limiter, AdaptiveConcurrencyLimiter::getLimit).register(registry);
+        Gauge.builder("hotel.limit.inflight", limiter, AdaptiveConcurrencyLimiter::getInflight).register(registry);
+    }
+
+    /**
+     * 列表查询超过deepPage页时按昂贵请求处理
+     */
+    public RequestPriority priorityOf(RequestParams params) {
+        Integer page = params.getPage();
+        return page != null && page > properties.getDeepPage() ? RequestPriority.EXPENSIVE : RequestPriority.NORMAL;
+    }
+
+    /**
+     * 拿到许可后执行调用，调用完成时归还许可
+     *
+     * @throws OverloadedException 超过并发上限，在调用前同步抛出
+     */
+    public <T> CompletableFuture<T> execute(RequestPriority priority, Supplier<CompletableFuture<T>> call) {
+        if (!properties.isEnabled()) {
+            return call.get();
+        }
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire(share(priority));
+        if (permit == null) {
+            registry.counter("hotel.limit.rejected", "priority", priority.name().toLowerCase()).increment();
+            throw new OverloadedException("服务繁忙，当前并发上限" + limiter.getLimit(), properties.getRetryAfterSeconds());
+        }
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            permit.release();
+            throw e;
+        }
+        return future.whenComplete((result, e) -> permit.release());
+    }
+
+    /**
+     * 包装搜索链路上ES调用的listener：成功时用ES调用的耗时调整上限，超时、连接失败、429、5xx时减小上限
+     */
+    public <T> ActionListener<T> listener(ActionListener<T> delegate) {
+        if (!properties.isEnabled()) {
+            return delegate;
+        }
+        long start = System.nanoTime();
+        int inflight = limiter.getInflight();
+        return new ActionListener<T>() {
+            @Override
+            public void onResponse(T response) {
+                limiter.update(System.nanoTime() - start, inflight);
+                delegate.onResponse(response);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                onEsFailure(e);
+                delegate.onFailure(e);
+            }
+        };
+    }
+
+    /**
+     * 包装低级客户端的ES调用
+     */
+    public ResponseListener listener(ResponseListener delegate) {
+        if (!properties.isEnabled()) {
+            return delegate;
+        }
+        long start = System.nanoTime();
+        int inflight = limiter.getInflight();
+        return new ResponseListener() {
+            @Override
+            public void onSuccess(Response response) {
+                limiter.update(System.nanoTime() - start, inflight);
+                delegate.onSuccess(response);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                onEsFailure(e);
+                delegate.onFailure(e);
+            }
+        };
+    }
+
+    private void onEsFailure(Exception e) {
+        if (isOverload(e)) {
+            limiter.backoff();
+        }
+    }
+
+    private double share(RequestPriority priority) {
+        switch (priority) {
+            case CHEAP:
+                return 1.0;
+            case NORMAL:
+                return properties.getNormalShare();
+            default:
+                return properties.getExpensiveShare();
+        }
+    }
+
+    /**
+     * 超时、连接失败、ES返回429或5xx说明下游过载；参数错误等4xx与负载无关
+     */
+    private static boolean isOverload(Throwable cause) {
+        if (cause instanceof ElasticsearchStatusException) {
+            int status = ((ElasticsearchStatusException) cause).status().getStatus();
+            return status == 429 || status >= 500;
+        }
+        if (cause instanceof ResponseException) {
+            int status = ((ResponseException) cause).getResponse().getStatusLine().getStatusCode();
+            return status == 429 || status >= 500;
+        }
+        return cause instanceof TimeoutException || cause instanceof IOException;
+    }
+}
@@ -0,0 +1,21 @@
+package com.chan.hotel.limit;
+
+/**
+ * 超过并发上限，请求被拒绝，由控制器转换为503
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public class OverloadedException extends RuntimeException {
+
+    private final int retryAfterSeconds;
+
+    public OverloadedException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,526 @@
+package com.chan.hotel.lucene;
+
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import com.chan.hotel.pojo.FacetBucket;
+import com.chan.hotel.pojo.FacetResult;
+import com.chan.hotel.pojo.GeoLocation;
+import com.chan.hotel.pojo.HotelDoc;
+import com.chan.hotel.pojo.NearbyParams;
+import com.chan.hotel.pojo.PageResult;
+import com.chan.hotel.pojo.RequestParams;
+import com.chan.hotel.utils.HotelDocDecoder;
+import com.chan.hotel.utils.HotelQueries;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.cjk.CJKAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.LatLonDocValuesField;
+import org.apache.lucene.document.LatLonPoint;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.SortedDocValues;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.MatchNoDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.SimpleCollector;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopDocsCollector;
+import org.apache.lucene.search.TopFieldCollector;
+import org.apache.lucene.search.TopScoreDocCollector;
+import org.apache.lucene.search.highlight.Highlighter;
+import org.apache.lucene.search.highlight.InvalidTokenOffsetsException;
+import org.apache.lucene.search.highlight.NullFragmenter;
+import org.apache.lucene.search.highlight.QueryScorer;
+import org.apache.lucene.search.highlight.SimpleHTMLFormatter;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.QueryBuilder;
+import org.elasticsearch.common.bytes.BytesArray;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 嵌入式的Lucene酒店索引，支持与ES相同的查询：all字段的关键字匹配、城市/品牌/星级/价格过滤、排序、
+ * name高亮、附近的酒店以及侧边栏过滤项。ES不可用时作为降级读，也可以脱离ES测试查询逻辑。
+ * <p>
+ * 与ES的差异：没有ik分词器，中文按CJKAnalyzer的二元切分，相关度和高亮片段与ES不完全相同。
+ * <p>
+ * 重建期间的写入不提交，搜索看到的始终是上一次提交的完整快照。重建失败时丢弃未提交的写入（rollback会关闭IndexWriter），
+ * 再基于上一次提交重新打开IndexWriter和SearcherManager，下一次重建不受影响
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public class HotelLuceneIndex implements Closeable {
+
+    /**
+     * 与ES的_source相同的json，只包含列表页需要的字段
+     */
+    private static final String SOURCE = "_source";
+    private static final Set<String> SOURCE_ONLY = Collections.singleton(SOURCE);
+    private static final String[] FACETS = {"city", "brand", "starName", "price"};
+
+    private final Analyzer analyzer = new CJKAnalyzer();
+    private final Directory directory;
+    private volatile IndexWriter writer;
+    private volatile SearcherManager searcherManager;
+
+    /**
+     * @param directory 索引目录，本地磁盘用MMapDirectory，测试用ByteBuffersDirectory
+     * @throws IOException 打开索引失败
+     */
+    public HotelLuceneIndex(Directory directory) throws IOException {
+        this.directory = directory;
+        this.writer = openWriter();
+        this.searcherManager = new SearcherManager(writer, null);
+    }
+
+    private IndexWriter openWriter() throws IOException {
+        return new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+    }
+
+    /**
+     * 用给定的数据替换整个索引，全部写入后一次提交
+     *
+     * @param hotels 全部酒店
+     * @return 写入的文档数
+     * @throws IOException 写入失败，此时搜索仍然看到上一次提交的数据
+     */
+    public synchronized long replaceAll(Iterator<HotelDoc> hotels) throws IOException {
+        long count = 0;
+        try {
+            writer.deleteAll();
+            while (hotels.hasNext()) {
+                writer.addDocument(toDocument(hotels.next()));
+                count++;
+            }
+            writer.commit();
+        } catch (IOException | RuntimeException e) {
+            try {
+                reopen();
+            } catch (IOException reopenFailure) {
+                e.addSuppressed(reopenFailure);
+            }
+            throw e;
+        }
+        searcherManager.maybeRefreshBlocking();
+        return count;
+    }
+
+    /**
+     * 丢弃未提交的写入，基于上一次提交重新打开。先切换到新的SearcherManager再关闭旧的，
+     * 已经拿到的searcher不受影响
+     */
+    private void reopen() throws IOException {
+        writer.rollback();
+        writer = openWriter();
+        SearcherManager old = searcherManager;
+        searcherManager = new SearcherManager(writer, null);
+        old.close();
+    }
+
+    /**
+     * 重建失败时SearcherManager会被替换，拿到已关闭的旧实例时重新读取
+     */
+    private IndexSearcher acquire() throws IOException {
+        while (true) {
+            SearcherManager manager = searcherManager;
+            try {
+                return manager.acquire();
+            } catch (AlreadyClosedException e) {
+                if (manager == searcherManager) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return 当前可以搜索到的文档数
+     */
+    public int numDocs() throws IOException {
+        IndexSearcher searcher = acquire();
+        try {
+            return searcher.getIndexReader().numDocs();
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    /**
+     * 与ES的/hotel/list相同：关键字算分，其余条件过滤，按相关度、评分或价格排序并分页
+     *
+     * @param params 请求参数
+     * @return 分页结果
+     * @throws IOException 读取索引失败
+     */
+    public PageResult search(RequestParams params) throws IOException {
+        int page = params.getPage() == null || params.getPage() < 1 ? 1 : params.getPage();
+        int size = HotelQueries.pageSize(params);
+        Sort sort = null;
+        if ("price".equals(params.getSortBy())) {
+            sort = new Sort(intSort("price", false), new SortField("id", SortField.Type.LONG));
+        } else if ("score".equals(params.getSortBy())) {
+            sort = new Sort(intSort("score", true), new SortField("id", SortField.Type.LONG));
+        }
+        Query keyQuery = buildKeywordQuery(params);
+        Query query = buildQuery(keyQuery, buildFilters(params), null);
+        Highlighter highlighter = StringUtils.isBlank(params.getKey()) ? null
+                : new Highlighter(new SimpleHTMLFormatter("<em>", "</em>"), new QueryScorer(keyQuery));
+        if (highlighter != null) {
+            // 整个name作为一个片段
+            highlighter.setTextFragmenter(new NullFragmenter());
+        }
+
+        IndexSearcher searcher = acquire();
+        try {
+            int from = (page - 1) * size;
+            // 精确统计总条数，与ES的track_total_hits=true一致
+            TopDocsCollector<?> collector = sort == null
+                    ? TopScoreDocCollector.create(from + size, Integer.MAX_VALUE)
+                    : TopFieldCollector.create(sort, from + size, Integer.MAX_VALUE);
+            searcher.search(query, collector);
+            TopDocs topDocs = collector.topDocs();
+            ScoreDoc[] scoreDocs = topDocs.scoreDocs;
+            List<HotelDoc> hotels = new ArrayList<>(Math.max(0, scoreDocs.length - from));
+            for (int i = from; i < scoreDocs.length; i++) {
+                HotelDoc hotelDoc = load(searcher, scoreDocs[i].doc);
+                highlight(highlighter, hotelDoc);
+                hotels.add(hotelDoc);
+            }
+            return new PageResult(topDocs.totalHits.value, hotels);
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    /**
+     * 与ES的/hotel/nearby相同：半径内按距离升序，distance为公里
+     *
+     * @param params 请求参数
+     * @return 分页结果
+     * @throws IOException 读取索引失败
+     * @throws IllegalArgumentException 经纬度不合法
+     */
+    public PageResult nearby(NearbyParams params) throws IOException {
+        if (params.getLat() == null || params.getLon() == null) {
+            throw new IllegalArgumentException("经纬度不能为空");
+        }
+        GeoLocation location = GeoLocation.of(params.getLat(), params.getLon());
+        double meters = HotelQueries.nearbyDistanceKm(params) * 1000;
+        int page = params.getPage() == null || params.getPage() < 1 ? 1 : params.getPage();
+        int size = HotelQueries.pageSize(params.getSize());
+        int from = (page - 1) * size;
+        Query query = LatLonPoint.newDistanceQuery("location", location.getLat(), location.getLon(), meters);
+        Sort sort = new Sort(LatLonDocValuesField.newDistanceSort("location", location.getLat(), location.getLon()));
+
+        IndexSearcher searcher = acquire();
+        try {
+            TopFieldCollector collector = TopFieldCollector.create(sort, from + size, Integer.MAX_VALUE);
+            searcher.search(query, collector);
+            TopDocs topDocs = collector.topDocs();
+            ScoreDoc[] scoreDocs = topDocs.scoreDocs;
+            List<HotelDoc> hotels = new ArrayList<>(Math.max(0, scoreDocs.length - from));
+            for (int i = from; i < scoreDocs.length; i++) {
+                HotelDoc hotelDoc = load(searcher, scoreDocs[i].doc);
+                // 排序值是距离（米）
+                hotelDoc.setDistance((Double) ((FieldDoc) scoreDocs[i]).fields[0] / 1000);
+                hotels.add(hotelDoc);
+            }
+            return new PageResult(topDocs.totalHits.value, hotels);
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    /**
+     * 与ES的/hotel/filters相同：结果列表应用全部过滤条件，每个过滤项按"除自己以外的过滤条件"统计
+     *
+     * @param params      请求参数
+     * @param size        每个过滤项最多返回的取值个数
+     * @param priceRanges 价格区间的分割点
+     * @return 结果列表和过滤项
+     * @throws IOException 读取索引失败
+     */
+    public FacetResult facets(RequestParams params, int size, List<Integer> priceRanges) throws IOException {
+        PageResult page = search(params);
+        Query keyQuery = buildKeywordQuery(params);
+        Map<String, Query> filters = buildFilters(params);
+        Map<String, List<FacetBucket>> facets = new LinkedHashMap<>();
+        IndexSearcher searcher = acquire();
+        try {
+            for (String facet : FACETS) {
+                Query query = buildQuery(keyQuery, filters, facet);
+                if ("price".equals(facet)) {
+                    PriceRangeCounter counter = new PriceRangeCounter(priceRanges);
+                    searcher.search(query, counter);
+                    facets.put(facet, counter.buckets());
+                } else {
+                    TermsCounter counter = new TermsCounter(facet);
+                    searcher.search(query, counter);
+                    facets.put(facet, counter.buckets(size));
+                }
+            }
+        } finally {
+            searcherManager.release(searcher);
+        }
+        return new FacetResult(page, facets);
+    }
+
+    @Override
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+        analyzer.close();
+    }
+
+    private Document toDocument(HotelDoc hotelDoc) {
+        Document document = new Document();
+        document.add(new LongPoint("id", hotelDoc.getId()));
+        document.add(new NumericDocValuesField("id", hotelDoc.getId()));
+        // name、brand、city同时写入all，对应mapping中的copy_to
+        addText(document, "name", hotelDoc.getName());
+        addText(document, "all", hotelDoc.getName());
+        addText(document, "all", hotelDoc.getBrand());
+        addText(document, "all", hotelDoc.getCity());
+        addKeyword(document, "brand", hotelDoc.getBrand());
+        addKeyword(document, "city", hotelDoc.getCity());
+        addKeyword(document, "starName", hotelDoc.getStarName());
+        addInt(document, "price", hotelDoc.getPrice());
+        addInt(document, "score", hotelDoc.getScore());
+        GeoLocation location = hotelDoc.getLocation();
+        if (location != null) {
+            document.add(new LatLonPoint("location", location.getLat(), location.getLon()));
+            document.add(new LatLonDocValuesField("location", location.getLat(), location.getLon()));
+        }
+        JSONObject source = JSONUtil.parseObj(hotelDoc);
+        source.remove("suggestion");
+        document.add(new StoredField(SOURCE, new BytesRef(source.toString().getBytes(StandardCharsets.UTF_8))));
+        return document;
+    }
+
+    private static void addText(Document document, String field, String value) {
+        if (value != null) {
+            document.add(new TextField(field, value, Field.Store.NO));
+        }
+    }
+
+    private static void addKeyword(Document document, String field, String value) {
+        if (value != null) {
+            document.add(new StringField(field, value, Field.Store.NO));
+            document.add(new SortedDocValuesField(field, new BytesRef(value)));
+        }
+    }
+
+    private static void addInt(Document document, String field, Integer value) {
+        if (value != null) {
+            document.add(new IntPoint(field, value));
+            document.add(new NumericDocValuesField(field, value));
+        }
+    }
+
+    /**
+     * 与ES一样，没有值的文档无论升序降序都排在最后
+     */
+    private static SortField intSort(String field, boolean reverse) {
+        SortField sortField = new SortField(field, SortField.Type.INT, reverse);
+        sortField.setMissingValue(reverse ? Integer.MIN_VALUE : Integer.MAX_VALUE);
+        return sortField;
+    }
+
+    /**
+     * 对应ES的match查询：分词后的词项之间为OR；没有关键字时为match_all
+     */
+    private Query buildKeywordQuery(RequestParams params) {
+        String key = StringUtils.trimToNull(params.getKey());
+        if (key == null) {
+            return new MatchAllDocsQuery();
+        }
+        Query query = new QueryBuilder(analyzer).createBooleanQuery("all", key);
+        return query == null ? new MatchNoDocsQuery("关键字分词后为空") : query;
+    }
+
+    /**
+     * 与HotelQueries.buildFacetFilters相同的过滤条件
+     */
+    private static Map<String, Query> buildFilters(RequestParams params) {
+        Map<String, String> terms = new LinkedHashMap<>();
+        terms.put("city", params.getCity());
+        terms.put("brand", params.getBrand());
+        terms.put("starName", params.getStarName());
+        Map<String, Query> filters = new LinkedHashMap<>();
+        terms.forEach((field, value) -> {
+            if (StringUtils.isNotBlank(value)) {
+                filters.put(field, new TermQuery(new Term(field, value.trim())));
+            }
+        });
+        if (params.getMinPrice() != null || params.getMaxPrice() != null) {
+            filters.put("price", IntPoint.newRangeQuery("price",
+                    params.getMinPrice() == null ? Integer.MIN_VALUE : params.getMinPrice(),
+                    params.getMaxPrice() == null ? Integer.MAX_VALUE : params.getMaxPrice()));
+        }
+        return filters;
+    }
+
+    /**
+     * @param exclude 不参与的过滤条件，null表示全部参与
+     */
+    private static Query buildQuery(Query keyQuery, Map<String, Query> filters, String exclude) {
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        builder.add(keyQuery, BooleanClause.Occur.MUST);
+        filters.forEach((field, filter) -> {
+            if (!field.equals(exclude)) {
+                builder.add(filter, BooleanClause.Occur.FILTER);
+            }
+        });
+        return builder.build();
+    }
+
+    private static HotelDoc load(IndexSearcher searcher, int doc) throws IOException {
+        BytesRef source = searcher.doc(doc, SOURCE_ONLY).getBinaryValue(SOURCE);
+        return HotelDocDecoder.decode(new BytesArray(source.bytes, source.offset, source.length));
+    }
+
+    /**
+     * 与ES的高亮一样，有匹配时用&lt;em&gt;标签替换name
+     */
+    private void highlight(Highlighter highlighter, HotelDoc hotelDoc) throws IOException {
+        if (highlighter == null || hotelDoc.getName() == null) {
+            return;
+        }
+        try {
+            String fragment = highlighter.getBestFragment(analyzer, "name", hotelDoc.getName());
+            if (fragment != null) {
+                hotelDoc.setName(fragment);
+            }
+        } catch (InvalidTokenOffsetsException e) {
+            // 高亮失败时返回原始name
+        }
+    }
+
+    /**
+     * keyword字段的terms统计，按数量降序、取值升序，与ES的terms聚合一致
+     */
+    private static final class TermsCounter extends SimpleCollector {
+
+        private final String field;
+        private final Map<String, Long> counts = new HashMap<>();
+        private SortedDocValues values;
+
+        TermsCounter(String field) {
+            this.field = field;
+        }
+
+        @Override
+        protected void doSetNextReader(LeafReaderContext context) throws IOException {
+            values = DocValues.getSorted(context.reader(), field);
+        }
+
+        @Override
+        public void collect(int doc) throws IOException {
+            if (values.advanceExact(doc)) {
+                counts.merge(values.lookupOrd(values.ordValue()).utf8ToString(), 1L, Long::sum);
+            }
+        }
+
+        @Override
+        public ScoreMode scoreMode() {
+            return ScoreMode.COMPLETE_NO_SCORES;
+        }
+
+        List<FacetBucket> buckets(int size) {
+            List<FacetBucket> buckets = new ArrayList<>(counts.size());
+            counts.forEach((key, count) -> buckets.add(new FacetBucket(key, count)));
+            buckets.sort((a, b) -> a.getCount() != b.getCount()
+                    ? Long.compare(b.getCount(), a.getCount()) : a.getKey().compareTo(b.getKey()));
+            return buckets.size() > size ? new ArrayList<>(buckets.subList(0, size)) : buckets;
+        }
+    }
+
+    /**
+     * 价格区间统计，区间左闭右开，key与ES的range聚合相同，数量为0的区间也返回
+     */
+    private static final class PriceRangeCounter extends SimpleCollector {
+
+        private final List<Integer> bounds;
+        private final long[] counts;
+        private NumericDocValues values;
+
+        PriceRangeCounter(List<Integer> bounds) {
+            this.bounds = bounds;
+            this.counts = new long[bounds.size() + 1];
+        }
+
+        @Override
+        protected void doSetNextReader(LeafReaderContext context) throws IOException {
+            values = DocValues.getNumeric(context.reader(), "price");
+        }
+
+        @Override
+        public void collect(int doc) throws IOException {
+            if (!values.advanceExact(doc)) {
+                return;
+            }
+            long price = values.longValue();
+            if (price < 0) {
+                return;
+            }
+            int bucket = 0;
+            while (bucket < bounds.size() && price >= bounds.get(bucket)) {
+                bucket++;
+            }
+            counts[bucket]++;
+        }
+
+        @Override
+        public ScoreMode scoreMode() {
+            return ScoreMode.COMPLETE_NO_SCORES;
+        }
+
+        List<FacetBucket> buckets() {
+            List<FacetBucket> buckets = new ArrayList<>(counts.length);
+            int from = 0;
+            for (int i = 0; i < bounds.size(); i++) {
+                buckets.add(new FacetBucket(from + "-" + bounds.get(i), counts[i]));
+                from = bounds.get(i);
+            }
+            buckets.add(new FacetBucket(from + "-", counts[bounds.size()]));
+            return buckets;
+        }
+    }
+}
@@ -2,12 +2,74 @@ package com.chan.hotel.mapper;
 
 import com.chan.hotel.pojo.Hotel;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 /**
  * @Entity com.chan.hotel.pojo.Hotel
  */
 public interface HotelMapper extends BaseMapper<Hotel> {
 
+    /**
+     * 按id游标分页读取：id > lastId order by id limit #{limit}
+     * <p>
+     * 走主键索引，每一页的代价相同，不会像limit offset那样越往后越慢
+     *
+     * @param lastId 上一页最后一条记录的id，为null时从头开始
+     * @param limit  每页行数
+     * @return 酒店列表
+     */
+    List<Hotel> selectBatchAfterId(@Param("lastId") Long lastId, @Param("limit") int limit);
+
+    /**
+     * 在id区间内按id游标分页读取：id > lastId and id < toId order by id limit #{limit}
+     *
+     * @param lastId 上一页最后一条记录的id，第一页传区间起点减一
+     * @param toId   区间终点（不包含）
+     * @param limit  每页行数
+     * @return 酒店列表
+     */
+    List<Hotel> selectBatchInRange(@Param("lastId") long lastId, @Param("toId") long toId, @Param("limit") int limit);
+
+    /**
+     * 只查询id和城市
+     *
+     * @param ids 酒店id，不能为空
+     * @return 存在的酒店，只有id和city
+     */
+    List<Hotel> selectCities(@Param("ids") Collection<Long> ids);
+
+    /**
+     * @return 最小的酒店id，表为空时为null
+     */
+    Long selectMinId();
+
+    /**
+     * @return 最大的酒店id，表为空时为null
+     */
+    Long selectMaxId();
+
+    /**
+     * 多行insert ... on duplicate key update：一批酒店只执行一条语句，已存在的id只更新不为null的字段，
+     * 合作方数据缺少的列（或空值）保留表中原来的值
+     * <p>
+     * 一条语句的大小受max_allowed_packet限制，调用方控制每批的行数
+     *
+     * @param hotels 酒店，不能为空
+     * @return 影响行数：新增的行计1，有变化的已存在行计2
+     */
+    int upsertBatch(@Param("hotels") List<Hotel> hotels);
+
+    /**
+     * 多行update：一批酒店只执行一条语句，每个酒店只更新不为null的字段，不存在的id忽略。
+     * 不更新经纬度
+     *
+     * @param hotels 酒店，不能为空，id不能重复
+     * @return 有变化的行数
+     */
+    int updateBatch(@Param("hotels") List<Hotel> hotels);
 }
 
 
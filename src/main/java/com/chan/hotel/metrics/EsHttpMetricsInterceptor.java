@@ -0,0 +1,72 @@
+package com.chan.hotel.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpCoreContext;
+
+import java.net.URI;
+
+/**
+ * 在HTTP层记录ES响应体的字节数（es.response.bytes）。
+ * 高级客户端的响应对象拿不到原始字节数，所以注册为低级客户端的响应拦截器，
+ * operation和index从请求路径解析，例如 POST /hotel/_search 记为search、hotel
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public class EsHttpMetricsInterceptor implements HttpResponseInterceptor {
+
+    private final MeterRegistry registry;
+
+    public EsHttpMetricsInterceptor(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void process(HttpResponse response, HttpContext context) {
+        HttpEntity entity = response.getEntity();
+        Object request = context.getAttribute(HttpCoreContext.HTTP_REQUEST);
+        // 分块传输的响应没有Content-Length，不记录
+        if (entity == null || entity.getContentLength() < 0 || !(request instanceof HttpRequest)) {
+            return;
+        }
+        HttpRequest httpRequest = (HttpRequest) request;
+        String path = URI.create(httpRequest.getRequestLine().getUri()).getPath();
+        DistributionSummary.builder("es.response.bytes")
+                .baseUnit("bytes")
+                .tags(EsMetrics.tags(operation(httpRequest.getRequestLine().getMethod(), path), index(path)))
+                .register(registry)
+                .record(entity.getContentLength());
+    }
+
+    /**
+     * 最后一个以_开头的路径段，例如_search、_bulk；没有时按文档操作处理
+     */
+    static String operation(String method, String path) {
+        String[] segments = path.split("/");
+        for (int i = segments.length - 1; i >= 0; i--) {
+            if (segments[i].startsWith("_") && segments[i].length() > 1) {
+                return segments[i].substring(1);
+            }
+        }
+        return method.toLowerCase();
+    }
+
+    /**
+     * 第一个路径段，以_开头时表示没有指定索引
+     */
+    static String index(String path) {
+        String[] segments = path.split("/");
+        for (String segment : segments) {
+            if (!segment.isEmpty()) {
+                return segment.startsWith("_") ? null : segment;
+            }
+        }
+        return null;
+    }
+}
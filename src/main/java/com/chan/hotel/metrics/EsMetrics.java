@@ -0,0 +1,213 @@
+package com.chan.hotel.metrics;
+
+import com.chan.hotel.constants.HotelConstant;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.get.MultiGetItemResponse;
+import org.elasticsearch.action.get.MultiGetResponse;
+import org.elasticsearch.action.search.MultiSearchResponse;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.Response;
+import org.elasticsearch.client.ResponseListener;
+import org.elasticsearch.common.CheckedSupplier;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.rest.RestStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ES调用的指标，所有指标都带operation（search、bulk、mget……）和index两个标签：
+ * <p>
+ * - es.client.latency：客户端从发出请求到解析完响应的耗时，额外带outcome标签
+ * - es.server.took：响应里的took，即ES服务端执行耗时
+ * - es.client.overhead：同一个请求的客户端耗时减去took，即排队、网络传输和序列化的耗时。
+ * p99升高时对比它和es.server.took，就能区分是ES变慢了还是请求在路上排队
+ * - es.search.hits：每次查询命中的总数
+ * - es.bulk.items：bulk中每条文档的结果，result标签为success、failed、rejected（429，线程池满）
+ * - es.item.failures：msearch、mget中失败的子请求数
+ * - es.response.bytes：响应体字节数，由{@link EsHttpMetricsInterceptor}在HTTP层记录
+ * <p>
+ * 百分位由application.yml中的management.metrics.distribution配置，Micrometer基于HdrHistogram计算
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Component
+public class EsMetrics {
+
+    private final MeterRegistry registry;
+
+    public EsMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * 包装异步调用的listener，在响应或失败时记录指标
+     */
+    public <T> ActionListener<T> listener(String operation, String index, ActionListener<T> delegate) {
+        long start = System.nanoTime();
+        return new ActionListener<T>() {
+            @Override
+            public void onResponse(T response) {
+                record(operation, index, System.nanoTime() - start, response);
+                delegate.onResponse(response);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                recordFailure(operation, index, System.nanoTime() - start);
+                delegate.onFailure(e);
+            }
+        };
+    }
+
+    /**
+     * 包装低级客户端的异步调用
+     */
+    public ResponseListener listener(String operation, String index, ResponseListener delegate) {
+        long start = System.nanoTime();
+        return new ResponseListener() {
+            @Override
+            public void onSuccess(Response response) {
+                record(operation, index, System.nanoTime() - start, response);
+                delegate.onSuccess(response);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                recordFailure(operation, index, System.nanoTime() - start);
+                delegate.onFailure(e);
+            }
+        };
+    }
+
+    /**
+     * 同步调用并记录指标
+     */
+    public <T> T record(String operation, String index, CheckedSupplier<T, IOException> call) throws IOException {
+        long start = System.nanoTime();
+        T response;
+        try {
+            response = call.get();
+        } catch (IOException | RuntimeException e) {
+            recordFailure(operation, index, System.nanoTime() - start);
+            throw e;
+        }
+        record(operation, index, System.nanoTime() - start, response);
+        return response;
+    }
+
+    /**
+     * 记录一次成功的调用
+     *
+     * @param nanos    客户端耗时（纳秒）
+     * @param response 响应，能取到took、命中数、bulk结果的会一并记录
+     */
+    public void record(String operation, String index, long nanos, Object response) {
+        Tags tags = tags(operation, index);
+        Timer.builder("es.client.latency").tags(tags).tag("outcome", "success")
+                .register(registry).record(nanos, TimeUnit.NANOSECONDS);
+        if (response instanceof SearchResponse) {
+            SearchResponse searchResponse = (SearchResponse) response;
+            recordTook(tags, nanos, searchResponse.getTook());
+            recordHits(tags, searchResponse);
+        } else if (response instanceof MultiSearchResponse) {
+            MultiSearchResponse multiResponse = (MultiSearchResponse) response;
+            recordTook(tags, nanos, multiResponse.getTook());
+            for (MultiSearchResponse.Item item : multiResponse.getResponses()) {
+                if (item.isFailure()) {
+                    failures(tags).increment();
+                } else {
+                    recordHits(tags, item.getResponse());
+                }
+            }
+        } else if (response instanceof BulkResponse) {
+            BulkResponse bulkResponse = (BulkResponse) response;
+            recordTook(tags, nanos, bulkResponse.getTook());
+            recordBulkItems(tags, bulkResponse);
+        } else if (response instanceof MultiGetResponse) {
+            for (MultiGetItemResponse item : ((MultiGetResponse) response).getResponses()) {
+                if (item.isFailed()) {
+                    failures(tags).increment();
+                }
+            }
+        }
+    }
+
+    private void recordFailure(String operation, String index, long nanos) {
+        Timer.builder("es.client.latency").tags(tags(operation, index)).tag("outcome", "error")
+                .register(registry).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void recordTook(Tags tags, long nanos, TimeValue took) {
+        if (took == null) {
+            return;
+        }
+        long tookNanos = took.nanos();
+        Timer.builder("es.server.took").tags(tags).register(registry).record(tookNanos, TimeUnit.NANOSECONDS);
+        Timer.builder("es.client.overhead").tags(tags).register(registry)
+                .record(Math.max(0, nanos - tookNanos), TimeUnit.NANOSECONDS);
+    }
+
+    private void recordHits(Tags tags, SearchResponse response) {
+        if (response.getHits().getTotalHits() == null) {
+            return;
+        }
+        DistributionSummary.builder("es.search.hits").tags(tags).register(registry)
+                .record(response.getHits().getTotalHits().value);
+    }
+
+    private void recordBulkItems(Tags tags, BulkResponse response) {
+        long success = 0;
+        long failed = 0;
+        long rejected = 0;
+        for (BulkItemResponse item : response.getItems()) {
+            if (!item.isFailed()) {
+                success++;
+            } else if (item.status() == RestStatus.TOO_MANY_REQUESTS) {
+                rejected++;
+            } else {
+                failed++;
+            }
+        }
+        bulkItems(tags, "success").increment(success);
+        bulkItems(tags, "failed").increment(failed);
+        bulkItems(tags, "rejected").increment(rejected);
+    }
+
+    private Counter bulkItems(Tags tags, String result) {
+        return Counter.builder("es.bulk.items").tags(tags).tag("result", result).register(registry);
+    }
+
+    /**
+     * msearch、mget中单个子请求的失败
+     */
+    private Counter failures(Tags tags) {
+        return Counter.builder("es.item.failures").tags(tags).register(registry);
+    }
+
+    static Tags tags(String operation, String index) {
+        return Tags.of("operation", operation, "index", indexTag(index));
+    }
+
+    /**
+     * hotel_v{n}统一记为hotel，避免每次重建索引都产生一组新的指标
+     */
+    static String indexTag(String index) {
+        if (index == null || index.isEmpty()) {
+            return "none";
+        }
+        if (index.startsWith(HotelConstant.VERSIONED_INDEX_PREFIX)) {
+            return HotelConstant.INDEX_NAME;
+        }
+        return index;
+    }
+}
@@ -0,0 +1,71 @@
+package com.chan.hotel.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MyBatis插件，记录每个Mapper方法的执行耗时（mybatis.query），标签：
+ * <p>
+ * - mapper：Mapper接口名，例如HotelMapper
+ * - method：Mapper方法名，包括BaseMapper提供的selectBatchIds、updateById等
+ * - type：SELECT、INSERT、UPDATE、DELETE
+ * - outcome：success、error
+ * <p>
+ * 作为Bean注册后由mybatis-plus自动配置加入SqlSessionFactory
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Component
+@Intercepts({
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "update",
+                args = {MappedStatement.class, Object.class})
+})
+public class MapperMetricsInterceptor implements Interceptor {
+
+    private final MeterRegistry registry;
+
+    public MapperMetricsInterceptor(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        MappedStatement statement = (MappedStatement) invocation.getArgs()[0];
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            Object result = invocation.proceed();
+            outcome = "success";
+            return result;
+        } finally {
+            String id = statement.getId();
+            int dot = id.lastIndexOf('.');
+            String mapper = id.substring(id.lastIndexOf('.', dot - 1) + 1, dot);
+            Timer.builder("mybatis.query")
+                    .tag("mapper", mapper)
+                    .tag("method", id.substring(dot + 1))
+                    .tag("type", statement.getSqlCommandType().name())
+                    .tag("outcome", outcome)
+                    .register(registry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
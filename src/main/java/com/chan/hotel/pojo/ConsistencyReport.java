@@ -0,0 +1,60 @@
+package com.chan.hotel.pojo;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 一次一致性校验的结果
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Data
+public class ConsistencyReport {
+    /**
+     * 校验的id区间[minId, maxId]，取两侧的并集
+     */
+    private Long minId;
+    private Long maxId;
+    /**
+     * 顶层区间数
+     */
+    private long ranges;
+    /**
+     * 逐个id比较的叶子区间数，两侧一致时为0
+     */
+    private long leafRanges;
+    /**
+     * 校验失败（查询出错）的顶层区间数
+     */
+    private long failedRanges;
+    /**
+     * tb_hotel中有、索引中没有的文档数
+     */
+    private long missing;
+    /**
+     * 索引中有、tb_hotel中没有的文档数
+     */
+    private long extra;
+    /**
+     * 两侧都有但内容不一致（或在索引中重复）的文档数
+     */
+    private long different;
+    /**
+     * tb_hotel中数据不合法、不参与比较的行数（只统计叶子区间）
+     */
+    private long skipped;
+    /**
+     * 已提交同步修复的文档数
+     */
+    private long repaired;
+    /**
+     * 部分不一致的酒店id，便于排查
+     */
+    private List<Long> sampleIds;
+    /**
+     * 耗时（毫秒）
+     */
+    private long took;
+}
@@ -0,0 +1,48 @@
+package com.chan.hotel.pojo;
+
+/**
+ * 导出格式
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public enum ExportFormat {
+
+    /**
+     * 每行一个HotelDoc的json
+     */
+    NDJSON("application/x-ndjson", "ndjson"),
+
+    /**
+     * 带表头的csv，location拆分为lat、lon两列
+     */
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * @throws IllegalArgumentException 不支持的格式
+     */
+    public static ExportFormat of(String name) {
+        for (ExportFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("不支持的导出格式：" + name);
+    }
+}
@@ -0,0 +1,25 @@
+package com.chan.hotel.pojo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 过滤项的一个取值及其酒店数量
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetBucket {
+    /**
+     * 取值，价格区间为"200-500"这样的形式
+     */
+    private String key;
+    /**
+     * 酒店数量
+     */
+    private long count;
+}
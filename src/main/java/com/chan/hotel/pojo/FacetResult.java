@@ -0,0 +1,36 @@
+package com.chan.hotel.pojo;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 搜索结果以及侧边栏的过滤项
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Data
+@NoArgsConstructor
+public class FacetResult {
+    /**
+     * 总条数
+     */
+    private Long total;
+    /**
+     * 当前页数据
+     */
+    private List<HotelDoc> hotels;
+    /**
+     * 过滤项：city、brand、starName、price -> 取值及数量。每一项的数量都排除了该项自身的选择
+     */
+    private Map<String, List<FacetBucket>> facets;
+
+    public FacetResult(PageResult page, Map<String, List<FacetBucket>> facets) {
+        this.total = page.getTotal();
+        this.hotels = page.getHotels();
+        this.facets = facets;
+    }
+}
@@ -0,0 +1,62 @@
+package com.chan.hotel.pojo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * 经纬度，序列化为{"lat": 31.2, "lon": 121.5}，ES的geo_point可以直接使用，无需再解析字符串
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GeoLocation {
+    /**
+     * 纬度
+     */
+    private double lat;
+    /**
+     * 经度
+     */
+    private double lon;
+
+    /**
+     * 解析并校验tb_hotel中字符串类型的经纬度
+     *
+     * @param latitude  纬度
+     * @param longitude 经度
+     * @return 经纬度
+     * @throws IllegalArgumentException 经纬度为空、不是数字或者超出范围
+     */
+    public static GeoLocation parse(String latitude, String longitude) {
+        if (StringUtils.isBlank(latitude) || StringUtils.isBlank(longitude)) {
+            throw new IllegalArgumentException("经纬度为空：" + latitude + ", " + longitude);
+        }
+        double lat;
+        double lon;
+        try {
+            lat = Double.parseDouble(latitude.trim());
+            lon = Double.parseDouble(longitude.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("经纬度不是数字：" + latitude + ", " + longitude, e);
+        }
+        return of(lat, lon);
+    }
+
+    /**
+     * @throws IllegalArgumentException 经纬度超出范围
+     */
+    public static GeoLocation of(double lat, double lon) {
+        if (Double.isNaN(lat) || lat < -90 || lat > 90) {
+            throw new IllegalArgumentException("纬度超出范围：" + lat);
+        }
+        if (Double.isNaN(lon) || lon < -180 || lon > 180) {
+            throw new IllegalArgumentException("经度超出范围：" + lon);
+        }
+        return new GeoLocation(lat, lon);
+    }
+}
@@ -0,0 +1,22 @@
+package com.chan.hotel.pojo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 按id高频查询的酒店属性，来自本地的酒店目录快照
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HotelAttributes {
+    private Long id;
+    private Integer price;
+    private Integer score;
+    private String city;
+    private String brand;
+}
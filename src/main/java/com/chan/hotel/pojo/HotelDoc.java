@@ -2,6 +2,12 @@ package com.chan.hotel.pojo;
 
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 @Data
 @NoArgsConstructor
@@ -15,9 +21,20 @@ public class HotelDoc {
     private String city;
     private String starName;
     private String business;
-    private String location;
+    private GeoLocation location;
     private String pic;
+    /**
+     * 距离（公里），只在附近的酒店查询中由排序值填充，不写入索引
+     */
+    private Double distance;
+    /**
+     * 自动补全的输入：酒店名称、品牌、商圈
+     */
+    private List<String> suggestion;
 
+    /**
+     * @throws IllegalArgumentException 经纬度不合法
+     */
     public HotelDoc(Hotel hotel) {
         this.id = hotel.getId();
         this.name = hotel.getName();
@@ -28,8 +45,37 @@ public class HotelDoc {
         this.city = hotel.getCity();
         this.starName = hotel.getStarName();
         this.business = hotel.getBusiness();
-        // tb_hotel表与索引库结构存在差异：longitude和latitude需要合并为location
-        this.location = hotel.getLatitude() + ", " + hotel.getLongitude();
+        // tb_hotel表与索引库结构存在差异：longitude和latitude需要合并为location，在这里一次性校验
+        try {
+            this.location = GeoLocation.parse(hotel.getLatitude(), hotel.getLongitude());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("酒店 " + hotel.getId() + " 的" + e.getMessage(), e);
+        }
         this.pic = hotel.getPic();
+        this.suggestion = suggestionsOf(hotel);
+    }
+
+    /**
+     * 自动补全的输入：名称、品牌，以及按"/"、"、"拆分后的商圈，去重
+     *
+     * @param hotel 酒店
+     * @return 补全词
+     */
+    public static List<String> suggestionsOf(Hotel hotel) {
+        Set<String> suggestions = new LinkedHashSet<>();
+        if (StringUtils.isNotBlank(hotel.getName())) {
+            suggestions.add(hotel.getName().trim());
+        }
+        if (StringUtils.isNotBlank(hotel.getBrand())) {
+            suggestions.add(hotel.getBrand().trim());
+        }
+        if (StringUtils.isNotBlank(hotel.getBusiness())) {
+            for (String business : hotel.getBusiness().split("[/、]")) {
+                if (StringUtils.isNotBlank(business)) {
+                    suggestions.add(business.trim());
+                }
+            }
+        }
+        return new ArrayList<>(suggestions);
     }
 }
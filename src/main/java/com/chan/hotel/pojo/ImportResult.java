@@ -0,0 +1,41 @@
+package com.chan.hotel.pojo;
+
+import lombok.Data;
+
+/**
+ * 一次导入的统计结果
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Data
+public class ImportResult {
+    /**
+     * 目标索引库
+     */
+    private String indexName;
+    /**
+     * 从tb_hotel读取并提交给ES的文档数
+     */
+    private long total;
+    /**
+     * 数据不合法（如经纬度错误）而跳过的行数
+     */
+    private long skipped;
+    /**
+     * 最终写入失败的文档数（重试耗尽后仍失败）
+     */
+    private long failed;
+    /**
+     * 发送的BulkRequest数量
+     */
+    private long bulks;
+    /**
+     * 耗时（毫秒）
+     */
+    private long took;
+    /**
+     * 在途BulkRequest是否在超时时间内全部完成
+     */
+    private boolean completed;
+}
@@ -0,0 +1,29 @@
+package com.chan.hotel.pojo;
+
+import lombok.Data;
+
+/**
+ * 一次合作方数据写入tb_hotel的统计结果
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Data
+public class IngestResult {
+    /**
+     * 写入的行数
+     */
+    private long rows;
+    /**
+     * 缺少id或者无法解析而跳过的行数
+     */
+    private long skipped;
+    /**
+     * 执行的upsert语句数
+     */
+    private long batches;
+    /**
+     * 耗时（毫秒）
+     */
+    private long took;
+}
@@ -0,0 +1,33 @@
+package com.chan.hotel.pojo;
+
+import lombok.Data;
+
+/**
+ * 附近的酒店查询参数
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Data
+public class NearbyParams {
+    /**
+     * 当前位置纬度
+     */
+    private Double lat;
+    /**
+     * 当前位置经度
+     */
+    private Double lon;
+    /**
+     * 搜索半径（公里），默认5公里
+     */
+    private Double distance;
+    /**
+     * 页码，从1开始
+     */
+    private Integer page;
+    /**
+     * 每页大小
+     */
+    private Integer size;
+}
@@ -0,0 +1,34 @@
+package com.chan.hotel.pojo;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 酒店搜索的分页结果
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Data
+@NoArgsConstructor
+public class PageResult {
+    /**
+     * 总条数
+     */
+    private Long total;
+    /**
+     * 当前页数据
+     */
+    private List<HotelDoc> hotels;
+    /**
+     * 游标分页时下一页的游标，没有下一页时为null
+     */
+    private String nextCursor;
+
+    public PageResult(Long total, List<HotelDoc> hotels) {
+        this.total = total;
+        this.hotels = hotels;
+    }
+}
@@ -0,0 +1,31 @@
+package com.chan.hotel.pojo;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 一次重建索引的结果
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Data
+public class ReindexResult {
+    /**
+     * 新建的版本化索引，如hotel_v3
+     */
+    private String newIndex;
+    /**
+     * 切换前别名指向的索引（或者旧的同名实体索引hotel）
+     */
+    private List<String> previousIndices;
+    /**
+     * 数据导入统计
+     */
+    private ImportResult importResult;
+    /**
+     * 总耗时（毫秒）
+     */
+    private long took;
+}
@@ -0,0 +1,38 @@
+package com.chan.hotel.pojo;
+
+import lombok.Data;
+
+/**
+ * 酒店搜索的请求参数
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Data
+public class RequestParams {
+    /**
+     * 搜索关键字，匹配all字段
+     */
+    private String key;
+    /**
+     * 页码，从1开始
+     */
+    private Integer page;
+    /**
+     * 每页大小
+     */
+    private Integer size;
+    /**
+     * 排序字段：default（相关度）、score（评分降序）、price（价格升序）
+     */
+    private String sortBy;
+    private String city;
+    private String brand;
+    private String starName;
+    private Integer minPrice;
+    private Integer maxPrice;
+    /**
+     * 游标分页时上一页返回的nextCursor，第一页不传
+     */
+    private String cursor;
+}
@@ -0,0 +1,25 @@
+package com.chan.hotel.pojo;
+
+/**
+ * 请求的优先级，超过并发上限时先拒绝昂贵的请求
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public enum RequestPriority {
+
+    /**
+     * 按id查询，可以用满并发上限
+     */
+    CHEAP,
+
+    /**
+     * 列表第一页、附近的酒店、游标分页
+     */
+    NORMAL,
+
+    /**
+     * 深分页、过滤项聚合
+     */
+    EXPENSIVE
+}
@@ -0,0 +1,37 @@
+package com.chan.hotel.pojo;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 索引结构检查结果
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Data
+public class SchemaCheckResult {
+    /**
+     * 别名当前指向的索引
+     */
+    private String index;
+    /**
+     * 线上索引的版本，没有记录版本时为null
+     */
+    private Integer liveVersion;
+    /**
+     * classpath中的当前版本
+     */
+    private int version;
+    private SchemaStatus status;
+    /**
+     * 可以直接修改的差异
+     */
+    private List<String> inPlaceChanges = new ArrayList<>();
+    /**
+     * 需要重建索引的差异
+     */
+    private List<String> reindexChanges = new ArrayList<>();
+}
@@ -0,0 +1,30 @@
+package com.chan.hotel.pojo;
+
+/**
+ * 线上索引与当前版本索引结构的比较结果
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public enum SchemaStatus {
+
+    /**
+     * 一致
+     */
+    UP_TO_DATE,
+
+    /**
+     * 只有新增字段、动态settings等可以直接修改的差异
+     */
+    UPDATE_IN_PLACE,
+
+    /**
+     * 有字段类型、分片数、索引排序等只能在创建索引时指定的差异，需要重建索引
+     */
+    REINDEX_REQUIRED,
+
+    /**
+     * 索引不存在
+     */
+    MISSING
+}
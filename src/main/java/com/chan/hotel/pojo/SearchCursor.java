@@ -0,0 +1,27 @@
+package com.chan.hotel.pojo;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 游标分页的状态，编码后作为不透明的游标返回给客户端
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Data
+public class SearchCursor {
+    /**
+     * point in time id，保证翻页期间看到的是同一份数据
+     */
+    private String pit;
+    /**
+     * 上一页最后一条结果的排序值，作为下一页的search_after
+     */
+    private List<Object> after;
+    /**
+     * 第一页的查询条件，后续翻页沿用
+     */
+    private RequestParams params;
+}
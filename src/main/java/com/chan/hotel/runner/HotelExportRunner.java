@@ -0,0 +1,57 @@
+package com.chan.hotel.runner;
+
+import com.chan.hotel.config.HotelExportProperties;
+import com.chan.hotel.pojo.ExportFormat;
+import com.chan.hotel.service.HotelExportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * 命令行导出，指定hotel.export.file时生效，导出完成后退出：
+ * <pre>
+ * java -jar es-demo-1.0-SNAPSHOT-exec.jar --spring.main.web-application-type=none \
+ *     --hotel.export.file=hotel.csv --hotel.export.format=csv --hotel.export.slices=8
+ * </pre>
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "hotel.export", name = "file")
+public class HotelExportRunner implements ApplicationRunner {
+
+    @Resource
+    private HotelExportService hotelExportService;
+
+    @Resource
+    private HotelExportProperties properties;
+
+    @Resource
+    private ConfigurableApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int exitCode = 0;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(Paths.get(properties.getFile())), 1 << 16)) {
+            long total = hotelExportService.export(ExportFormat.of(properties.getFormat()), properties.getSlices(), out);
+            log.info("已导出 {} 条文档到 {}", total, properties.getFile());
+        } catch (Exception e) {
+            log.error("导出到 {} 失败", properties.getFile(), e);
+            exitCode = 1;
+        }
+        int code = exitCode;
+        System.exit(SpringApplication.exit(context, () -> code));
+    }
+}
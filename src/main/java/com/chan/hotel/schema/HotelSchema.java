@@ -0,0 +1,57 @@
+package com.chan.hotel.schema;
+
+import org.elasticsearch.common.settings.Settings;
+
+import java.util.Map;
+
+/**
+ * 一个版本的索引结构：classpath下es/hotel/v{n}.json中的settings和mappings
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public class HotelSchema {
+
+    /**
+     * 版本号，同时写入mappings._meta.schema_version
+     */
+    private final int version;
+
+    /**
+     * 扁平化后的settings，例如index.number_of_shards
+     */
+    private final Settings settings;
+
+    /**
+     * mappings的json，创建索引和更新映射时直接发送
+     */
+    private final String mappings;
+
+    /**
+     * mappings解析后的结构，用于和线上索引比较
+     */
+    private final Map<String, Object> mappingsAsMap;
+
+    public HotelSchema(int version, Settings settings, String mappings, Map<String, Object> mappingsAsMap) {
+        this.version = version;
+        this.settings = settings;
+        this.mappings = mappings;
+        this.mappingsAsMap = mappingsAsMap;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public Settings getSettings() {
+        return settings;
+    }
+
+    public String getMappings() {
+        return mappings;
+    }
+
+    public Map<String, Object> getMappingsAsMap() {
+        return mappingsAsMap;
+    }
+}
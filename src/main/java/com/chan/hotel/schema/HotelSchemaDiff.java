@@ -0,0 +1,168 @@
+package com.chan.hotel.schema;
+
+import com.chan.hotel.pojo.SchemaCheckResult;
+import com.chan.hotel.pojo.SchemaStatus;
+import org.elasticsearch.common.settings.Settings;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 比较线上索引与classpath中的索引结构，区分可以直接修改和需要重建索引的差异。
+ * <p>
+ * 字段只比较版本文件中写出的参数，线上索引返回的其他默认参数（如completion的max_input_length）不参与比较，
+ * 所以版本文件中不要写默认值
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public final class HotelSchemaDiff {
+
+    /**
+     * 只能在创建索引时指定的settings前缀
+     */
+    private static final List<String> STATIC_SETTINGS = Arrays.asList(
+            "index.number_of_shards", "index.number_of_routing_shards", "index.sort.", "index.analysis.", "index.codec");
+
+    /**
+     * 可以在已有字段上直接修改的参数
+     */
+    private static final Set<String> UPDATABLE_PARAMS = new HashSet<>(Arrays.asList(
+            "eager_global_ordinals", "ignore_above"));
+
+    private HotelSchemaDiff() {
+    }
+
+    /**
+     * @param schema       当前版本的索引结构
+     * @param index        线上索引名
+     * @param liveMappings 线上索引的mappings
+     * @param liveSettings 线上索引的settings
+     * @return 比较结果
+     */
+    @SuppressWarnings("unchecked")
+    public static SchemaCheckResult diff(HotelSchema schema, String index,
+                                         Map<String, Object> liveMappings, Settings liveSettings) {
+        SchemaCheckResult result = new SchemaCheckResult();
+        result.setIndex(index);
+        result.setVersion(schema.getVersion());
+        Map<String, Object> liveMeta = (Map<String, Object>) liveMappings.get("_meta");
+        Object liveVersion = liveMeta == null ? null : liveMeta.get("schema_version");
+        result.setLiveVersion(liveVersion == null ? null : Integer.valueOf(liveVersion.toString()));
+        if (!Objects.equals(result.getLiveVersion(), schema.getVersion())) {
+            result.getInPlaceChanges().add("_meta.schema_version: " + liveVersion + " -> " + schema.getVersion());
+        }
+
+        // 1.settings
+        Settings desired = schema.getSettings();
+        for (String key : desired.keySet()) {
+            List<String> want = desired.getAsList(key);
+            List<String> have = liveSettings.getAsList(key);
+            if (!want.equals(have)) {
+                String change = key + ": " + have + " -> " + want;
+                if (isStatic(key)) {
+                    result.getReindexChanges().add(change);
+                } else {
+                    result.getInPlaceChanges().add(change);
+                }
+            }
+        }
+
+        // 2.mappings的顶层参数
+        Map<String, Object> desiredMappings = schema.getMappingsAsMap();
+        for (Map.Entry<String, Object> entry : desiredMappings.entrySet()) {
+            String key = entry.getKey();
+            if ("_meta".equals(key) || "properties".equals(key)) {
+                continue;
+            }
+            Object have = liveMappings.get(key);
+            if (!normalize(entry.getValue()).equals(normalize(have))) {
+                String change = key + ": " + have + " -> " + entry.getValue();
+                if ("dynamic".equals(key)) {
+                    result.getInPlaceChanges().add(change);
+                } else {
+                    result.getReindexChanges().add(change);
+                }
+            }
+        }
+
+        // 3.字段
+        Map<String, Object> desiredFields = (Map<String, Object>) desiredMappings.getOrDefault("properties", Collections.emptyMap());
+        Map<String, Object> liveFields = (Map<String, Object>) liveMappings.getOrDefault("properties", Collections.emptyMap());
+        for (Map.Entry<String, Object> field : desiredFields.entrySet()) {
+            Map<String, Object> want = (Map<String, Object>) field.getValue();
+            Map<String, Object> have = (Map<String, Object>) liveFields.get(field.getKey());
+            if (have == null) {
+                result.getInPlaceChanges().add("新增字段 " + field.getKey());
+                continue;
+            }
+            for (Map.Entry<String, Object> param : want.entrySet()) {
+                Object haveValue = have.get(param.getKey());
+                if (normalize(param.getValue()).equals(normalize(haveValue))) {
+                    continue;
+                }
+                String change = field.getKey() + "." + param.getKey() + ": " + haveValue + " -> " + param.getValue();
+                if (isUpdatable(param.getKey(), param.getValue())) {
+                    result.getInPlaceChanges().add(change);
+                } else {
+                    result.getReindexChanges().add(change);
+                }
+            }
+        }
+
+        if (!result.getReindexChanges().isEmpty()) {
+            result.setStatus(SchemaStatus.REINDEX_REQUIRED);
+        } else if (!result.getInPlaceChanges().isEmpty()) {
+            result.setStatus(SchemaStatus.UPDATE_IN_PLACE);
+        } else {
+            result.setStatus(SchemaStatus.UP_TO_DATE);
+        }
+        return result;
+    }
+
+    /**
+     * @return 当前版本settings中可以直接修改的部分
+     */
+    public static Settings dynamicSettings(HotelSchema schema) {
+        return schema.getSettings().filter(key -> !isStatic(key));
+    }
+
+    static boolean isStatic(String key) {
+        for (String prefix : STATIC_SETTINGS) {
+            if (key.equals(prefix) || (prefix.endsWith(".") && key.startsWith(prefix))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isUpdatable(String param, Object value) {
+        // norms可以关闭，但不能重新开启
+        return UPDATABLE_PARAMS.contains(param) || ("norms".equals(param) && Boolean.FALSE.equals(value));
+    }
+
+    /**
+     * 线上返回的值和文件中的类型可能不同（如"false"和false），统一转为字符串比较
+     */
+    @SuppressWarnings("unchecked")
+    private static Object normalize(Object value) {
+        if (value instanceof Map) {
+            Map<String, Object> normalized = new LinkedHashMap<>();
+            ((Map<String, Object>) value).forEach((k, v) -> normalized.put(k, normalize(v)));
+            return normalized;
+        }
+        if (value instanceof List) {
+            List<Object> normalized = new ArrayList<>();
+            ((List<Object>) value).forEach(v -> normalized.add(normalize(v)));
+            return normalized;
+        }
+        return String.valueOf(value);
+    }
+}
@@ -0,0 +1,83 @@
+package com.chan.hotel.schema;
+
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 加载classpath下的es/hotel/v{n}.json，版本号最大的为当前版本。
+ * <p>
+ * 修改索引结构时新增一个版本文件而不是修改旧文件，映射的变更和它对性能的影响都可以在代码评审中看到
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Component
+public class HotelSchemaRegistry {
+
+    private static final String LOCATION = "classpath*:es/hotel/v*.json";
+    private static final Pattern VERSION = Pattern.compile("v(\\d+)\\.json");
+
+    private final TreeMap<Integer, HotelSchema> schemas = new TreeMap<>();
+
+    @PostConstruct
+    public void init() throws IOException {
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources(LOCATION)) {
+            Matcher matcher = VERSION.matcher(String.valueOf(resource.getFilename()));
+            if (!matcher.matches()) {
+                continue;
+            }
+            int version = Integer.parseInt(matcher.group(1));
+            String json = StreamUtils.copyToString(resource.getInputStream(), StandardCharsets.UTF_8);
+            schemas.put(version, parse(version, json));
+        }
+        if (schemas.isEmpty()) {
+            throw new IllegalStateException("classpath下没有找到索引结构文件：" + LOCATION);
+        }
+    }
+
+    /**
+     * @return 当前版本（版本号最大）的索引结构
+     */
+    public HotelSchema current() {
+        return schemas.lastEntry().getValue();
+    }
+
+    /**
+     * @return 指定版本的索引结构，不存在时为null
+     */
+    public HotelSchema get(int version) {
+        return schemas.get(version);
+    }
+
+    @SuppressWarnings("unchecked")
+    static HotelSchema parse(int version, String json) throws IOException {
+        Map<String, Object> root = XContentHelper.convertToMap(XContentType.JSON.xContent(), json, true);
+        Map<String, Object> mappings = (Map<String, Object>) root.get("mappings");
+        Map<String, Object> meta = mappings == null ? null : (Map<String, Object>) mappings.get("_meta");
+        if (meta == null || !Integer.valueOf(version).equals(meta.get("schema_version"))) {
+            throw new IllegalStateException("v" + version + ".json的mappings._meta.schema_version必须为" + version);
+        }
+        Map<String, Object> settings = (Map<String, Object>) root.get("settings");
+        Settings flatSettings = settings == null ? Settings.EMPTY : Settings.builder()
+                .loadFromMap(settings)
+                .normalizePrefix("index.")
+                .build();
+        String mappingsJson = Strings.toString(XContentFactory.jsonBuilder().map(mappings));
+        return new HotelSchema(version, flatSettings, mappingsJson, mappings);
+    }
+}
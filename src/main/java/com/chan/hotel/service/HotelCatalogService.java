@@ -0,0 +1,34 @@
+package com.chan.hotel.service;
+
+import com.chan.hotel.pojo.HotelAttributes;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 按id查询价格、评分、城市、品牌，数据来自内存映射的酒店目录快照，不访问ES和数据库
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public interface HotelCatalogService {
+
+    /**
+     * @param id 酒店id
+     * @return 酒店属性，不存在时返回null
+     * @throws IllegalStateException 快照未启用或尚未生成
+     */
+    HotelAttributes get(long id);
+
+    /**
+     * @param ids 酒店id
+     * @return 存在的酒店属性，顺序与ids相同
+     * @throws IllegalStateException 快照未启用或尚未生成
+     */
+    List<HotelAttributes> get(Collection<Long> ids);
+
+    /**
+     * 生成新快照（build=true）或重新映射被替换的快照文件（build=false），完成后原子地切换
+     */
+    void refresh();
+}
@@ -0,0 +1,23 @@
+package com.chan.hotel.service;
+
+import com.chan.hotel.pojo.ConsistencyReport;
+
+import java.io.IOException;
+
+/**
+ * tb_hotel与hotel索引的一致性校验
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public interface HotelConsistencyService {
+
+    /**
+     * 按id区间比较两侧HotelDoc的指纹，只对指纹不一致的区间继续拆分，最终逐个id比较
+     *
+     * @param repair 是否对不一致的id立即同步（存在则重新写入，不存在则删除）
+     * @return 校验结果
+     * @throws IOException 查询ES的id范围失败
+     */
+    ConsistencyReport check(boolean repair) throws IOException;
+}
@@ -0,0 +1,22 @@
+package com.chan.hotel.service;
+
+import com.chan.hotel.pojo.HotelDoc;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 按id查询酒店文档
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public interface HotelDocLoader {
+
+    /**
+     * 按id查询酒店。并发的查询会在很短的时间窗口内合并为一个MultiGetRequest，每个调用方各自拿到自己的结果。
+     *
+     * @param id 酒店id
+     * @return 酒店文档，不存在时为null
+     */
+    CompletableFuture<HotelDoc> load(Long id);
+}
@@ -0,0 +1,27 @@
+package com.chan.hotel.service;
+
+import com.chan.hotel.pojo.ExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 全量导出hotel索引
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public interface HotelExportService {
+
+    /**
+     * 把hotel索引的全部文档以流的方式写出。多个切片并行scroll，每个切片在内存中最多持有一批文档，
+     * 批与批之间的顺序不确定
+     *
+     * @param format 导出格式
+     * @param slices 切片数，小于1时使用配置的默认值，超过上限时使用上限
+     * @param out    输出流，调用方负责关闭
+     * @return 导出的文档数
+     * @throws IOException 查询ES或者写出失败
+     */
+    long export(ExportFormat format, int slices, OutputStream out) throws IOException;
+}
@@ -0,0 +1,35 @@
+package com.chan.hotel.service;
+
+import com.chan.hotel.pojo.FacetResult;
+import com.chan.hotel.pojo.RequestParams;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 搜索结果+侧边栏过滤项（城市、品牌、星级、价格区间）
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public interface HotelFacetService {
+
+    /**
+     * 在同一个请求中查询结果列表和所有过滤项：
+     * <p>
+     * - query只包含关键字，各过滤条件放在post_filter中，只影响结果列表
+     * - 每个过滤项的聚合套一层filter聚合，包含除它自己以外的过滤条件，所以选中某个品牌后其他品牌仍然可选
+     *
+     * @param params 请求参数
+     * @return 结果列表和过滤项
+     */
+    CompletableFuture<FacetResult> search(RequestParams params);
+
+    /**
+     * 把多个城市的城市级过滤项放在一个MultiSearchRequest中查询并写入缓存
+     *
+     * @param cities 城市，空字符串表示全部城市
+     * @return 完成后的future
+     */
+    CompletableFuture<Void> warmUp(Collection<String> cities);
+}
@@ -0,0 +1,30 @@
+package com.chan.hotel.service;
+
+import com.chan.hotel.pojo.ImportResult;
+
+/**
+ * tb_hotel -> ES 全量导入
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public interface HotelImportService {
+
+    /**
+     * 将tb_hotel全量导入到hotel索引库
+     *
+     * @return 导入统计
+     */
+    ImportResult importAll();
+
+    /**
+     * 将tb_hotel全量导入到指定索引库
+     * <p>
+     * 按id游标分批读库，按文档数和字节数切分BulkRequest，限制在途请求数，遇到429拒绝时指数退避重试，
+     * 因此无论表有多大，内存占用都只与fetchSize和在途bulk数量有关。
+     *
+     * @param indexName 索引库名称
+     * @return 导入统计
+     */
+    ImportResult importAll(String indexName);
+}
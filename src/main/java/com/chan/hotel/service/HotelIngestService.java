@@ -0,0 +1,28 @@
+package com.chan.hotel.service;
+
+import com.chan.hotel.pojo.ExportFormat;
+import com.chan.hotel.pojo.IngestResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 把合作方的酒店数据批量写入tb_hotel
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public interface HotelIngestService {
+
+    /**
+     * 边读边写：每攒够一批执行一条多行insert ... on duplicate key update，耗时与批数而不是行数成正比，
+     * 内存中最多只有一批数据。已存在的酒店只更新数据中不为null的字段，只包含部分列的数据不会清空其他列。
+     * 每批写入后标记变更，由HotelSyncService同步到ES
+     *
+     * @param in     输入流，UTF-8
+     * @param format ndjson或csv，字段名见HotelFeedReader
+     * @return 统计结果
+     * @throws IOException 读取失败
+     */
+    IngestResult ingest(InputStream in, ExportFormat format) throws IOException;
+}
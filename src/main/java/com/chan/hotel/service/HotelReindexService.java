@@ -0,0 +1,29 @@
+package com.chan.hotel.service;
+
+import com.chan.hotel.pojo.ReindexResult;
+
+import java.io.IOException;
+
+/**
+ * 零停机重建hotel索引
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public interface HotelReindexService {
+
+    /**
+     * 重建索引：
+     * <p>
+     * 1.按当前版本的索引结构（es/hotel/v{n}.json）创建版本化索引hotel_v{n}，refresh_interval=-1、副本数为0
+     * 2.从tb_hotel全量导入
+     * 3.force merge，然后恢复为版本文件中的refresh_interval和副本数
+     * 4.原子地把hotel别名切到新索引，把重建期间同步过的酒店再同步一次，删除旧索引
+     * <p>
+     * 搜索流量始终通过hotel别名访问，不会看到缺失或者只导入了一半的索引
+     *
+     * @return 重建结果
+     * @throws IOException 与ES通信失败
+     */
+    ReindexResult reindex() throws IOException;
+}
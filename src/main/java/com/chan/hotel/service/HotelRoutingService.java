@@ -0,0 +1,56 @@
+package com.chan.hotel.service;
+
+import com.chan.hotel.pojo.HotelDoc;
+import com.chan.hotel.pojo.RequestParams;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 酒店文档的路由。未开启按城市路由时所有方法都返回null或空，文档按id路由
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public interface HotelRoutingService {
+
+    /**
+     * 是否开启了按城市路由
+     */
+    boolean isEnabled();
+
+    /**
+     * 写入文档时使用的路由
+     *
+     * @return 城市，未开启时为null
+     */
+    String routingOf(HotelDoc hotelDoc);
+
+    /**
+     * 搜索时使用的路由
+     *
+     * @return 有城市条件时为去掉首尾空白的城市（与查询条件一致），只查询一个分片；没有城市条件或未开启时为null，查询所有分片
+     */
+    String routingOf(RequestParams params);
+
+    /**
+     * 按数据库中酒店所在的城市得到路由。写入文档用的就是这个城市，同步完成后可以用它直接按id读取（实时）；
+     * 同步之前城市被修改过的文档还在旧城市的分片上
+     *
+     * @param ids 酒店id
+     * @return 酒店id -> 路由，数据库中不存在或没有城市的id不在结果中；未开启时为空
+     */
+    Map<Long, String> routingsOf(Collection<Long> ids);
+
+    /**
+     * 用搜索查询文档当前在索引中的路由。搜索只能看到refresh之后的文档，刚写入的文档查不到，
+     * 只能作为补充：修改城市、删除前应当用{@link #routingsOf}记下修改前的城市。
+     * 换城市时如果删除旧文档失败，同一个id会短暂地存在于两个分片上，所以每个id返回一组路由
+     *
+     * @param ids 酒店id
+     * @return 酒店id -> 路由，索引中不存在的id不在结果中；未开启时为空
+     */
+    Map<Long, Set<String>> currentRoutings(Collection<Long> ids) throws IOException;
+}
@@ -0,0 +1,33 @@
+package com.chan.hotel.service;
+
+import com.chan.hotel.pojo.SchemaCheckResult;
+
+import java.io.IOException;
+
+/**
+ * 检查并迁移线上hotel索引的结构，当前版本见classpath下的es/hotel/v{n}.json
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public interface HotelSchemaService {
+
+    /**
+     * 比较hotel别名指向的索引与当前版本的settings和mappings
+     *
+     * @return 检查结果
+     * @throws IOException 与ES通信失败
+     */
+    SchemaCheckResult check() throws IOException;
+
+    /**
+     * 迁移到当前版本：
+     * <p>
+     * 1.新增字段、动态settings、eager_global_ordinals等可以直接修改的差异，通过put mapping和put settings就地修改
+     * 2.分片数、索引排序、字段类型等只能在创建索引时指定的差异，以及索引不存在时，走零停机重建
+     *
+     * @return 迁移后重新检查的结果
+     * @throws IOException 与ES通信失败
+     */
+    SchemaCheckResult migrate() throws IOException;
+}
@@ -0,0 +1,43 @@
+package com.chan.hotel.service;
+
+import com.chan.hotel.pojo.FacetResult;
+import com.chan.hotel.pojo.NearbyParams;
+import com.chan.hotel.pojo.PageResult;
+import com.chan.hotel.pojo.RequestParams;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 酒店搜索引擎：ES实现，以及从tb_hotel构建的本地Lucene实现。
+ * <p>
+ * 两者支持相同的查询，参数和返回值的含义相同；默认注入的实现优先查询ES，失败时降级到本地索引
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public interface HotelSearchEngine {
+
+    /**
+     * 按关键字、城市、品牌、星级、价格过滤并排序、分页
+     *
+     * @param params 请求参数
+     * @return 分页结果
+     */
+    CompletableFuture<PageResult> search(RequestParams params);
+
+    /**
+     * 附近的酒店：在半径内按距离由近到远排序
+     *
+     * @param params 当前位置、半径、分页
+     * @return 分页结果，每个HotelDoc带有distance（公里）
+     */
+    CompletableFuture<PageResult> nearby(NearbyParams params);
+
+    /**
+     * 搜索结果+侧边栏过滤项
+     *
+     * @param params 请求参数
+     * @return 结果列表和过滤项
+     */
+    CompletableFuture<FacetResult> facets(RequestParams params);
+}
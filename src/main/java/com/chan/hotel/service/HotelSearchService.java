@@ -0,0 +1,44 @@
+package com.chan.hotel.service;
+
+import com.chan.hotel.pojo.NearbyParams;
+import com.chan.hotel.pojo.PageResult;
+import com.chan.hotel.pojo.RequestParams;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 酒店搜索
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public interface HotelSearchService {
+
+    /**
+     * 按关键字、城市、品牌、星级、价格过滤并排序、分页。
+     * <p>
+     * 使用异步客户端发送请求，ES响应后在客户端IO线程中完成返回的future，调用线程不会阻塞。
+     *
+     * @param params 请求参数
+     * @return 分页结果
+     */
+    CompletableFuture<PageResult> search(RequestParams params);
+
+    /**
+     * 游标分页：search_after + point in time，第N页和第1页的代价相同，也不受max_result_window限制。
+     * <p>
+     * 第一页传查询条件，之后只需要传上一页返回的nextCursor。
+     *
+     * @param params 请求参数
+     * @return 分页结果，total只在第一页返回
+     */
+    CompletableFuture<PageResult> searchByCursor(RequestParams params);
+
+    /**
+     * 附近的酒店：在半径内按距离由近到远排序，距离直接取自ES的排序值，不在应用中重新计算
+     *
+     * @param params 当前位置、半径、分页
+     * @return 分页结果，每个HotelDoc带有distance（公里）
+     */
+    CompletableFuture<PageResult> nearby(NearbyParams params);
+}
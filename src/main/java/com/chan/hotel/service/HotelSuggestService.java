@@ -0,0 +1,26 @@
+package com.chan.hotel.service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 搜索框自动补全
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public interface HotelSuggestService {
+
+    /**
+     * 按前缀补全酒店名称、品牌、商圈。开启本地前缀树时优先从内存中查询，没有结果再查询ES的completion suggester
+     *
+     * @param prefix 用户已经输入的内容
+     * @return 补全词
+     */
+    CompletableFuture<List<String>> suggest(String prefix);
+
+    /**
+     * 从tb_hotel重新构建本地前缀树
+     */
+    void rebuildTrie();
+}
@@ -0,0 +1,65 @@
+package com.chan.hotel.service;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * tb_hotel -> ES 增量同步
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public interface HotelSyncService {
+
+    /**
+     * 标记酒店发生了变更（新增、修改、删除都一样），在下一个合并窗口同步到ES。
+     * 处于事务中时，等事务提交后才会标记。
+     *
+     * @param id 酒店id
+     */
+    void markChanged(Serializable id);
+
+    /**
+     * 批量标记酒店发生了变更
+     *
+     * @param ids 酒店id
+     */
+    void markChanged(Collection<? extends Serializable> ids);
+
+    /**
+     * 按城市路由时，在可能修改城市或删除酒店的写库之前调用：记下酒店当前所在的城市，
+     * 同步时删除这些城市分片上的旧文档。不能依赖同步时再搜索文档的路由，刚写入的文档还搜不到。
+     * 写库失败时记下的城市与数据库一致，不会误删
+     *
+     * @param ids 酒店id
+     */
+    void recordRoutings(Collection<Long> ids);
+
+    /**
+     * 把当前窗口内合并后的变更同步到ES
+     */
+    void flush();
+
+    /**
+     * 不经过合并窗口，立即按id回查tb_hotel并同步到ES：存在则写入，不存在则删除。
+     * 单条失败的id：429、5xx退避后重试，其他丢弃
+     *
+     * @param ids 酒店id，调用方控制每批的数量
+     * @throws IOException 发送bulk失败
+     */
+    void sync(Collection<Long> ids) throws IOException;
+
+    /**
+     * 开始记录同步过的酒店id。重建索引期间的同步写入旧索引，切换别名后要对这些id再同步一次
+     */
+    void startTracking();
+
+    /**
+     * 停止记录
+     *
+     * @return 开始记录以来同步过的酒店id
+     */
+    Set<Long> stopTracking();
+}
@@ -0,0 +1,27 @@
+package com.chan.hotel.service;
+
+import java.util.Map;
+
+/**
+ * 酒店文档局部更新的写缓冲
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public interface HotelUpdateBuffer {
+
+    /**
+     * 提交一个局部更新，写入本地日志后即返回，之后与同一酒店的其他更新合并（后写的字段覆盖先写的），
+     * 按数量或时间批量写入tb_hotel，再同步到ES
+     *
+     * @param id     酒店id
+     * @param fields 要修改的字段
+     * @throws IllegalArgumentException 字段不允许修改、值为null或者类型与映射不符
+     */
+    void update(Long id, Map<String, Object> fields);
+
+    /**
+     * 把缓冲中合并后的更新批量写入tb_hotel，再同步到ES
+     */
+    void flush();
+}
@@ -0,0 +1,44 @@
+package com.chan.hotel.service.impl;
+
+import com.chan.hotel.pojo.FacetResult;
+import com.chan.hotel.pojo.NearbyParams;
+import com.chan.hotel.pojo.PageResult;
+import com.chan.hotel.pojo.RequestParams;
+import com.chan.hotel.service.HotelFacetService;
+import com.chan.hotel.service.HotelSearchEngine;
+import com.chan.hotel.service.HotelSearchService;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * ES实现，带有搜索结果缓存和城市级过滤项缓存
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Service
+public class EsHotelSearchEngine implements HotelSearchEngine {
+
+    @Resource
+    private HotelSearchService hotelSearchService;
+
+    @Resource
+    private HotelFacetService hotelFacetService;
+
+    @Override
+    public CompletableFuture<PageResult> search(RequestParams params) {
+        return hotelSearchService.search(params);
+    }
+
+    @Override
+    public CompletableFuture<PageResult> nearby(NearbyParams params) {
+        return hotelSearchService.nearby(params);
+    }
+
+    @Override
+    public CompletableFuture<FacetResult> facets(RequestParams params) {
+        return hotelFacetService.search(params);
+    }
+}
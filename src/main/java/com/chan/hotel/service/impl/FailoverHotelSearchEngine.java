@@ -0,0 +1,89 @@
+package com.chan.hotel.service.impl;
+
+import com.chan.hotel.config.HotelLuceneProperties;
+import com.chan.hotel.pojo.FacetResult;
+import com.chan.hotel.pojo.NearbyParams;
+import com.chan.hotel.pojo.PageResult;
+import com.chan.hotel.pojo.RequestParams;
+import com.chan.hotel.service.HotelSearchEngine;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.ElasticsearchStatusException;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 默认注入的实现：先查询ES，ES不可用时降级到本地Lucene索引。
+ * <p>
+ * 参数错误（IllegalArgumentException）和ES返回的4xx是请求本身的问题，不降级
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Slf4j
+@Primary
+@Service
+public class FailoverHotelSearchEngine implements HotelSearchEngine {
+
+    @Resource
+    private EsHotelSearchEngine esHotelSearchEngine;
+
+    @Resource
+    private LuceneHotelSearchEngine luceneHotelSearchEngine;
+
+    @Resource
+    private HotelLuceneProperties properties;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    @Override
+    public CompletableFuture<PageResult> search(RequestParams params) {
+        return withFallback("search", esHotelSearchEngine.search(params), () -> luceneHotelSearchEngine.search(params));
+    }
+
+    @Override
+    public CompletableFuture<PageResult> nearby(NearbyParams params) {
+        return withFallback("nearby", esHotelSearchEngine.nearby(params), () -> luceneHotelSearchEngine.nearby(params));
+    }
+
+    @Override
+    public CompletableFuture<FacetResult> facets(RequestParams params) {
+        return withFallback("facets", esHotelSearchEngine.facets(params), () -> luceneHotelSearchEngine.facets(params));
+    }
+
+    private <T> CompletableFuture<T> withFallback(String op, CompletableFuture<T> primary,
+                                                  Supplier<CompletableFuture<T>> fallback) {
+        return primary.handle((result, e) -> {
+            if (e == null) {
+                return CompletableFuture.completedFuture(result);
+            }
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (!shouldFallback(cause)) {
+                CompletableFuture<T> failed = new CompletableFuture<>();
+                failed.completeExceptionally(cause);
+                return failed;
+            }
+            log.warn("ES {}失败，降级到本地索引：{}", op, cause.toString());
+            meterRegistry.counter("hotel.search.fallback", "op", op).increment();
+            return fallback.get();
+        }).thenCompose(Function.identity());
+    }
+
+    private boolean shouldFallback(Throwable cause) {
+        if (!properties.isFallbackEnabled() || !luceneHotelSearchEngine.isReady()) {
+            return false;
+        }
+        if (cause instanceof IllegalArgumentException) {
+            return false;
+        }
+        return !(cause instanceof ElasticsearchStatusException)
+                || ((ElasticsearchStatusException) cause).status().getStatus() >= 500;
+    }
+}
@@ -0,0 +1,174 @@
+package com.chan.hotel.service.impl;
+
+import com.chan.hotel.catalog.HotelCatalogSnapshot;
+import com.chan.hotel.config.HotelCatalogProperties;
+import com.chan.hotel.mapper.HotelMapper;
+import com.chan.hotel.pojo.Hotel;
+import com.chan.hotel.pojo.HotelAttributes;
+import com.chan.hotel.service.HotelCatalogService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 快照先写到临时文件，再原子地重命名为正式文件，最后切换引用：
+ * 正在使用旧快照的查询不受影响，旧的映射在没有引用后由GC释放
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Slf4j
+@Service
+public class HotelCatalogServiceImpl implements HotelCatalogService {
+
+    private static final int FETCH_SIZE = 1000;
+
+    @Resource
+    private HotelMapper hotelMapper;
+
+    @Resource
+    private HotelCatalogProperties properties;
+
+    private volatile HotelCatalogSnapshot snapshot;
+
+    /**
+     * 当前快照对应文件的修改时间，build=false时用于判断文件是否被替换
+     */
+    private volatile FileTime mappedTime;
+
+    @Override
+    public HotelAttributes get(long id) {
+        return current().get(id);
+    }
+
+    @Override
+    public List<HotelAttributes> get(Collection<Long> ids) {
+        HotelCatalogSnapshot current = current();
+        List<HotelAttributes> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            HotelAttributes attributes = id == null ? null : current.get(id);
+            if (attributes != null) {
+                result.add(attributes);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 应用启动完成后先映射已有的快照，再在后台生成新快照
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Path file = Paths.get(properties.getFile());
+        if (Files.exists(file)) {
+            try {
+                map(file);
+            } catch (IOException | RuntimeException e) {
+                log.warn("映射已有的酒店目录快照失败：{}", e.getMessage());
+            }
+        }
+        if (properties.isBuild()) {
+            CompletableFuture.runAsync(this::refresh);
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${hotel.catalog.refresh-interval-ms:600000}",
+            initialDelayString = "${hotel.catalog.refresh-interval-ms:600000}")
+    public synchronized void refresh() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Path file = Paths.get(properties.getFile());
+        try {
+            if (properties.isBuild()) {
+                long start = System.currentTimeMillis();
+                Path parent = file.toAbsolutePath().getParent();
+                Files.createDirectories(parent);
+                Path tmp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+                try {
+                    int rows = HotelCatalogSnapshot.write(new HotelIterator(hotelMapper), tmp);
+                    Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                    log.info("酒店目录快照生成完成，{}家酒店，耗时{}ms", rows, System.currentTimeMillis() - start);
+                } finally {
+                    Files.deleteIfExists(tmp);
+                }
+                map(file);
+            } else if (Files.exists(file) && !Files.getLastModifiedTime(file).equals(mappedTime)) {
+                map(file);
+                log.info("重新映射酒店目录快照，{}家酒店", snapshot.rows());
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("刷新酒店目录快照失败，继续使用上一次的快照", e);
+        }
+    }
+
+    private void map(Path file) throws IOException {
+        FileTime modified = Files.getLastModifiedTime(file);
+        snapshot = HotelCatalogSnapshot.open(file);
+        mappedTime = modified;
+    }
+
+    private HotelCatalogSnapshot current() {
+        HotelCatalogSnapshot current = snapshot;
+        if (current == null) {
+            throw new IllegalStateException("酒店目录快照未启用或尚未生成");
+        }
+        return current;
+    }
+
+    /**
+     * 按id游标分批读库，快照要求id升序
+     */
+    private static final class HotelIterator implements Iterator<Hotel> {
+
+        private final HotelMapper hotelMapper;
+        private Iterator<Hotel> batch = Collections.emptyIterator();
+        private Long lastId;
+        private boolean exhausted;
+
+        HotelIterator(HotelMapper hotelMapper) {
+            this.hotelMapper = hotelMapper;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!batch.hasNext() && !exhausted) {
+                List<Hotel> hotels = hotelMapper.selectBatchAfterId(lastId, FETCH_SIZE);
+                exhausted = hotels.size() < FETCH_SIZE;
+                batch = hotels.iterator();
+            }
+            return batch.hasNext();
+        }
+
+        @Override
+        public Hotel next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Hotel hotel = batch.next();
+            lastId = hotel.getId();
+            return hotel;
+        }
+    }
+}
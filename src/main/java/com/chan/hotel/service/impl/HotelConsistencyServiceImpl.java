@@ -0,0 +1,337 @@
+package com.chan.hotel.service.impl;
+
+import com.chan.hotel.config.HotelCheckProperties;
+import com.chan.hotel.constants.HotelConstant;
+import com.chan.hotel.mapper.HotelMapper;
+import com.chan.hotel.metrics.EsMetrics;
+import com.chan.hotel.pojo.ConsistencyReport;
+import com.chan.hotel.pojo.Hotel;
+import com.chan.hotel.pojo.HotelDoc;
+import com.chan.hotel.service.HotelConsistencyService;
+import com.chan.hotel.service.HotelSyncService;
+import com.chan.hotel.utils.HotelDocDecoder;
+import com.chan.hotel.utils.HotelDocFingerprint;
+import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.metrics.Max;
+import org.elasticsearch.search.aggregations.metrics.Min;
+import org.elasticsearch.search.sort.SortOrder;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * 分区间的一致性校验：
+ * <p>
+ * - 把id空间切成顶层区间，多个线程并行处理；每个区间两侧都按id有序分页读取（tb_hotel用keyset，ES用search_after），
+ * 只保留文档数和指纹之和，内存中不保留文档
+ * - 两侧不一致的区间拆分为fanout个子区间继续比较，一致的子区间直接跳过
+ * - 拆到leafSize以内时逐个id比较，不一致的id交给增量同步立即修复，修复走和增量同步相同的bulk
+ * <p>
+ * 指纹之和与文档顺序无关；两侧一致的大区间只需要一次顺序读，不会产生任何写入。
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Slf4j
+@Service
+public class HotelConsistencyServiceImpl implements HotelConsistencyService {
+
+    private static final int SAMPLE_SIZE = 100;
+
+    @Resource
+    private HotelMapper hotelMapper;
+
+    @Resource
+    private RestHighLevelClient client;
+
+    @Resource
+    private EsMetrics esMetrics;
+
+    @Resource
+    private HotelSyncService hotelSyncService;
+
+    @Resource
+    private HotelCheckProperties properties;
+
+    @Override
+    public ConsistencyReport check(boolean repair) throws IOException {
+        long start = System.currentTimeMillis();
+        ConsistencyReport report = new ConsistencyReport();
+        // 1.两侧id范围的并集
+        long[] esRange = esIdRange();
+        Long mysqlMin = hotelMapper.selectMinId();
+        Long mysqlMax = hotelMapper.selectMaxId();
+        Long minId = min(mysqlMin, esRange == null ? null : esRange[0]);
+        Long maxId = max(mysqlMax, esRange == null ? null : esRange[1]);
+        report.setSampleIds(new ArrayList<>());
+        if (minId == null) {
+            report.setTook(System.currentTimeMillis() - start);
+            return report;
+        }
+        report.setMinId(minId);
+        report.setMaxId(maxId);
+
+        // 2.顶层区间并行比较
+        Context context = new Context(repair);
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(properties.getParallelism(), r -> {
+            Thread thread = new Thread(r, "hotel-check-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        try {
+            for (long from = minId; from <= maxId; from += properties.getRangeSize()) {
+                long rangeFrom = from;
+                long rangeTo = Math.min(from + properties.getRangeSize(), maxId + 1);
+                futures.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        compare(rangeFrom, rangeTo, context);
+                    } catch (IOException | RuntimeException e) {
+                        context.failedRanges.incrementAndGet();
+                        log.error("校验区间 [{}, {}) 失败", rangeFrom, rangeTo, e);
+                    }
+                }, executor));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        report.setRanges(futures.size());
+        report.setLeafRanges(context.leafRanges.get());
+        report.setFailedRanges(context.failedRanges.get());
+        report.setMissing(context.missing.get());
+        report.setExtra(context.extra.get());
+        report.setDifferent(context.different.get());
+        report.setSkipped(context.skipped.get());
+        report.setRepaired(context.repaired.get());
+        synchronized (context.sampleIds) {
+            report.setSampleIds(new ArrayList<>(context.sampleIds));
+        }
+        report.setTook(System.currentTimeMillis() - start);
+        log.info("一致性校验完成：{}", report);
+        return report;
+    }
+
+    /**
+     * 比较[from, to)区间，不一致时拆分或者逐个id比较
+     */
+    private void compare(long from, long to, Context context) throws IOException {
+        Summary mysql = new Summary();
+        scanMysql(from, to, (id, fingerprint) -> mysql.add(fingerprint), null);
+        Summary es = new Summary();
+        scanEs(from, to, (id, fingerprint) -> es.add(fingerprint));
+        if (mysql.equals(es)) {
+            return;
+        }
+        if (to - from <= properties.getLeafSize()) {
+            compareLeaf(from, to, context);
+            return;
+        }
+        long step = (to - from + properties.getFanout() - 1) / properties.getFanout();
+        for (long subFrom = from; subFrom < to; subFrom += step) {
+            compare(subFrom, Math.min(subFrom + step, to), context);
+        }
+    }
+
+    /**
+     * 逐个id比较，并修复不一致的id
+     */
+    private void compareLeaf(long from, long to, Context context) throws IOException {
+        context.leafRanges.incrementAndGet();
+        Map<Long, Long> mysql = new HashMap<>();
+        Set<Long> invalid = new HashSet<>();
+        scanMysql(from, to, mysql::put, invalid);
+        Map<Long, Long> es = new HashMap<>();
+        Set<Long> duplicated = new HashSet<>();
+        scanEs(from, to, (id, fingerprint) -> {
+            // 换城市路由时删除旧文档失败，同一个id会出现在两个分片上
+            if (es.put(id, fingerprint) != null) {
+                duplicated.add(id);
+            }
+        });
+        context.skipped.addAndGet(invalid.size());
+
+        List<Long> mismatched = new ArrayList<>();
+        for (Map.Entry<Long, Long> entry : mysql.entrySet()) {
+            Long fingerprint = es.get(entry.getKey());
+            if (fingerprint == null) {
+                context.missing.incrementAndGet();
+                mismatched.add(entry.getKey());
+            } else if (!fingerprint.equals(entry.getValue()) || duplicated.contains(entry.getKey())) {
+                context.different.incrementAndGet();
+                mismatched.add(entry.getKey());
+            }
+        }
+        for (Long id : es.keySet()) {
+            // 数据不合法的行同步时也会跳过，不算多余
+            if (!mysql.containsKey(id) && !invalid.contains(id)) {
+                context.extra.incrementAndGet();
+                mismatched.add(id);
+            }
+        }
+        if (mismatched.isEmpty()) {
+            return;
+        }
+        synchronized (context.sampleIds) {
+            for (int i = 0; i < mismatched.size() && context.sampleIds.size() < SAMPLE_SIZE; i++) {
+                context.sampleIds.add(mismatched.get(i));
+            }
+        }
+        log.warn("区间 [{}, {}) 有 {} 个酒店不一致", from, to, mismatched.size());
+        if (context.repair) {
+            hotelSyncService.sync(mismatched);
+            context.repaired.addAndGet(mismatched.size());
+        }
+    }
+
+    /**
+     * 按id顺序分页读取tb_hotel的[from, to)区间
+     *
+     * @param invalid 不为null时收集数据不合法的id
+     */
+    private void scanMysql(long from, long to, BiConsumer<Long, Long> consumer, Set<Long> invalid) {
+        long lastId = from - 1;
+        List<Hotel> hotels;
+        do {
+            hotels = hotelMapper.selectBatchInRange(lastId, to, properties.getBatchSize());
+            for (Hotel hotel : hotels) {
+                lastId = hotel.getId();
+                HotelDoc hotelDoc;
+                try {
+                    hotelDoc = new HotelDoc(hotel);
+                } catch (IllegalArgumentException e) {
+                    if (invalid != null) {
+                        invalid.add(hotel.getId());
+                    }
+                    continue;
+                }
+                consumer.accept(hotel.getId(), HotelDocFingerprint.of(hotelDoc));
+            }
+        } while (hotels.size() == properties.getBatchSize());
+    }
+
+    /**
+     * 按id排序，用search_after分页读取索引的[from, to)区间
+     */
+    private void scanEs(long from, long to, BiConsumer<Long, Long> consumer) throws IOException {
+        Object[] after = null;
+        SearchHit[] hits;
+        do {
+            SearchRequest request = new SearchRequest(HotelConstant.INDEX_NAME);
+            request.source()
+                    .query(QueryBuilders.rangeQuery("id").gte(from).lt(to))
+                    .fetchSource(HotelDocDecoder.LIST_FIELDS, null)
+                    .sort("id", SortOrder.ASC)
+                    .size(properties.getBatchSize())
+                    .trackTotalHits(false);
+            if (after != null) {
+                request.source().searchAfter(after);
+            }
+            SearchResponse response = esMetrics.record("search", HotelConstant.INDEX_NAME,
+                    () -> client.search(request, RequestOptions.DEFAULT));
+            hits = response.getHits().getHits();
+            for (SearchHit hit : hits) {
+                HotelDoc hotelDoc = HotelDocDecoder.decode(hit.getSourceRef());
+                consumer.accept(hotelDoc.getId(), HotelDocFingerprint.of(hotelDoc));
+            }
+            if (hits.length > 0) {
+                after = hits[hits.length - 1].getSortValues();
+            }
+        } while (hits.length == properties.getBatchSize());
+    }
+
+    /**
+     * @return 索引中最小和最大的id，索引为空时为null
+     */
+    private long[] esIdRange() throws IOException {
+        SearchRequest request = new SearchRequest(HotelConstant.INDEX_NAME);
+        request.source()
+                .size(0)
+                .aggregation(AggregationBuilders.min("minId").field("id"))
+                .aggregation(AggregationBuilders.max("maxId").field("id"));
+        SearchResponse response = esMetrics.record("search", HotelConstant.INDEX_NAME,
+                () -> client.search(request, RequestOptions.DEFAULT));
+        Min min = response.getAggregations().get("minId");
+        Max max = response.getAggregations().get("maxId");
+        if (Double.isInfinite(min.getValue())) {
+            return null;
+        }
+        return new long[]{(long) min.getValue(), (long) max.getValue()};
+    }
+
+    private static Long min(Long a, Long b) {
+        return a == null ? b : b == null ? a : Long.valueOf(Math.min(a, b));
+    }
+
+    private static Long max(Long a, Long b) {
+        return a == null ? b : b == null ? a : Long.valueOf(Math.max(a, b));
+    }
+
+    /**
+     * 区间的文档数和指纹之和（溢出时回绕），与文档顺序无关
+     */
+    private static class Summary {
+        private long count;
+        private long fingerprints;
+
+        void add(long fingerprint) {
+            count++;
+            fingerprints += fingerprint;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Summary)) {
+                return false;
+            }
+            Summary other = (Summary) o;
+            return count == other.count && fingerprints == other.fingerprints;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(count * 31 + fingerprints);
+        }
+    }
+
+    /**
+     * 一次校验中各个线程共享的统计
+     */
+    private static class Context {
+        private final boolean repair;
+        private final AtomicLong leafRanges = new AtomicLong();
+        private final AtomicLong failedRanges = new AtomicLong();
+        private final AtomicLong missing = new AtomicLong();
+        private final AtomicLong extra = new AtomicLong();
+        private final AtomicLong different = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+        private final AtomicLong repaired = new AtomicLong();
+        private final List<Long> sampleIds = new ArrayList<>();
+
+        Context(boolean repair) {
+            this.repair = repair;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.chan.hotel.service.impl;
+
+import com.chan.hotel.config.HotelLoaderProperties;
+import com.chan.hotel.constants.HotelConstant;
+import com.chan.hotel.hedge.HotelHedgedClient;
+import com.chan.hotel.limit.HotelLoadShedder;
+import com.chan.hotel.metrics.EsMetrics;
+import com.chan.hotel.pojo.HotelDoc;
+import com.chan.hotel.service.HotelDocLoader;
+import com.chan.hotel.service.HotelRoutingService;
+import com.chan.hotel.utils.HotelDocDecoder;
+import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.action.get.MultiGetItemResponse;
+import org.elasticsearch.action.get.MultiGetRequest;
+import org.elasticsearch.action.get.MultiGetResponse;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求合并：
+ * <p>
+ * - 第一个id到达时开启一个时间窗口，窗口到期或者攒够maxBatchSize个id时，把窗口内的id合并为一个MultiGetRequest
+ * - 同一窗口内重复的id只查询一次，结果分发给所有等待它的调用方
+ * - 单个id查询失败只影响等待它的调用方，整批失败（包括发送时同步抛出的异常）通知窗口内所有调用方
+ * - 按城市路由时以数据库中的城市作为路由，找不到的再用ids查询所有分片
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Slf4j
+@Service
+public class HotelDocLoaderImpl implements HotelDocLoader {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "hotel-doc-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 当前窗口内等待查询的id，以及等待每个id的调用方
+     */
+    private Map<Long, List<CompletableFuture<HotelDoc>>> pending = new HashMap<>();
+
+    /**
+     * 当前窗口的序号和定时器，窗口发送后序号加一
+     */
+    private long window;
+    private ScheduledFuture<?> timer;
+
+    @Resource
+    private HotelHedgedClient hotelHedgedClient;
+
+    @Resource
+    private EsMetrics esMetrics;
+
+    @Resource
+    private HotelLoadShedder hotelLoadShedder;
+
+    @Resource
+    private HotelLoaderProperties properties;
+
+    @Resource
+    private HotelRoutingService hotelRoutingService;
+
+    @Override
+    public CompletableFuture<HotelDoc> load(Long id) {
+        CompletableFuture<HotelDoc> future = new CompletableFuture<>();
+        Map<Long, List<CompletableFuture<HotelDoc>>> batch = null;
+        ScheduledFuture<?> expired = null;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                // 窗口内第一个id，定时发送
+                long current = window;
+                timer = scheduler.schedule(() -> flush(current), properties.getWindowMs(), TimeUnit.MILLISECONDS);
+            }
+            pending.computeIfAbsent(id, k -> new ArrayList<>(1)).add(future);
+            if (pending.size() >= properties.getMaxBatchSize()) {
+                batch = pending;
+                pending = new HashMap<>();
+                window++;
+                expired = timer;
+            }
+        }
+        if (batch != null) {
+            // 攒够了数量提前发送，取消这个窗口的定时器
+            expired.cancel(false);
+            send(batch);
+        }
+        return future;
+    }
+
+    /**
+     * @param expected 定时器所属的窗口
+     */
+    private void flush(long expected) {
+        Map<Long, List<CompletableFuture<HotelDoc>>> batch;
+        synchronized (this) {
+            if (window != expected) {
+                // 所属的窗口已经因为攒够了数量提前发送，取消前已经开始执行，不能发送下一个窗口
+                return;
+            }
+            batch = pending;
+            pending = new HashMap<>();
+            window++;
+        }
+        send(batch);
+    }
+
+    private void send(Map<Long, List<CompletableFuture<HotelDoc>>> batch) {
+        try {
+            mget(batch);
+        } catch (RuntimeException e) {
+            // 同步抛出的异常（查询路由、限流拒绝、构建请求）不会回调监听器，调用方会一直等待
+            log.warn("批量查询 {} 个酒店失败：{}", batch.size(), e.getMessage());
+            fail(batch, e);
+        }
+    }
+
+    private void mget(Map<Long, List<CompletableFuture<HotelDoc>>> batch) {
+        // 按城市路由时用数据库中的城市作为路由，mget是实时的；数据库里没有城市的id直接用ids查询
+        Map<Long, String> routings = hotelRoutingService.routingsOf(batch.keySet());
+        Map<Long, List<CompletableFuture<HotelDoc>>> unresolved = new HashMap<>();
+        MultiGetRequest request = new MultiGetRequest();
+        FetchSourceContext fetchSource = new FetchSourceContext(true, HotelDocDecoder.LIST_FIELDS, null);
+        for (Map.Entry<Long, List<CompletableFuture<HotelDoc>>> entry : batch.entrySet()) {
+            String routing = routings.get(entry.getKey());
+            if (hotelRoutingService.isEnabled() && routing == null) {
+                unresolved.put(entry.getKey(), entry.getValue());
+                continue;
+            }
+            request.add(new MultiGetRequest.Item(HotelConstant.INDEX_NAME, entry.getKey().toString())
+                    .routing(routing).fetchSourceContext(fetchSource));
+        }
+        if (request.getItems().isEmpty()) {
+            search(unresolved);
+            return;
+        }
+        ActionListener<MultiGetResponse> listener = ActionListener.wrap(response -> {
+            for (MultiGetItemResponse item : response.getResponses()) {
+                List<CompletableFuture<HotelDoc>> futures = batch.get(Long.valueOf(item.getId()));
+                if (futures == null) {
+                    continue;
+                }
+                if (item.isFailed()) {
+                    Exception failure = item.getFailure().getFailure();
+                    futures.forEach(f -> f.completeExceptionally(failure));
+                    continue;
+                }
+                GetResponse getResponse = item.getResponse();
+                if (!getResponse.isExists() && hotelRoutingService.isEnabled()) {
+                    // 城市改了但还没有同步，文档还在旧城市的分片上
+                    unresolved.put(Long.valueOf(item.getId()), futures);
+                    continue;
+                }
+                HotelDoc hotelDoc;
+                try {
+                    hotelDoc = getResponse.isExists() ? HotelDocDecoder.decode(getResponse.getSourceAsBytesRef()) : null;
+                } catch (Exception e) {
+                    futures.forEach(f -> f.completeExceptionally(e));
+                    continue;
+                }
+                futures.forEach(f -> f.complete(hotelDoc));
+            }
+            if (!unresolved.isEmpty()) {
+                search(unresolved);
+            }
+        }, e -> fail(batch, e));
+        hotelHedgedClient.mgetAsync(request, esMetrics.listener("mget", HotelConstant.INDEX_NAME, hotelLoadShedder.listener(listener)));
+    }
+
+    /**
+     * 按城市路由时不知道路由的id：用ids查询所有分片。搜索不是实时的，只用于数据库中没有城市、
+     * 或者城市改了还没有同步的酒店，这时文档早已写入旧城市的分片
+     */
+    private void search(Map<Long, List<CompletableFuture<HotelDoc>>> batch) {
+        SearchRequest request = new SearchRequest(HotelConstant.INDEX_NAME);
+        request.source()
+                .query(QueryBuilders.idsQuery().addIds(batch.keySet().stream().map(String::valueOf).toArray(String[]::new)))
+                .fetchSource(HotelDocDecoder.LIST_FIELDS, null)
+                // 换城市时同一个id可能短暂地存在于两个分片上
+                .size(batch.size() * 2);
+        ActionListener<SearchResponse> listener = ActionListener.wrap(response -> {
+            Map<Long, HotelDoc> hotelDocs = new HashMap<>(batch.size() * 2);
+            for (SearchHit hit : response.getHits().getHits()) {
+                hotelDocs.putIfAbsent(Long.valueOf(hit.getId()), HotelDocDecoder.decode(hit.getSourceRef()));
+            }
+            batch.forEach((id, futures) -> futures.forEach(f -> f.complete(hotelDocs.get(id))));
+        }, e -> fail(batch, e));
+        hotelHedgedClient.searchAsync(request, esMetrics.listener("search", HotelConstant.INDEX_NAME, hotelLoadShedder.listener(listener)));
+    }
+
+    private static void fail(Map<Long, List<CompletableFuture<HotelDoc>>> batch, Exception e) {
+        batch.values().forEach(futures -> futures.forEach(f -> f.completeExceptionally(e)));
+    }
+
+    @PreDestroy
+    public void destroy() {
+        scheduler.shutdown();
+    }
+}
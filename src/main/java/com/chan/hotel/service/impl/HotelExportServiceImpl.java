@@ -0,0 +1,200 @@
+package com.chan.hotel.service.impl;
+
+import cn.hutool.core.text.csv.CsvUtil;
+import cn.hutool.core.text.csv.CsvWriter;
+import cn.hutool.json.JSONUtil;
+import com.chan.hotel.config.HotelExportProperties;
+import com.chan.hotel.constants.HotelConstant;
+import com.chan.hotel.metrics.EsMetrics;
+import com.chan.hotel.pojo.ExportFormat;
+import com.chan.hotel.pojo.GeoLocation;
+import com.chan.hotel.pojo.HotelDoc;
+import com.chan.hotel.service.HotelExportService;
+import com.chan.hotel.utils.HotelDocDecoder;
+import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.action.search.ClearScrollRequest;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchScrollRequest;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.slice.SliceBuilder;
+import org.elasticsearch.search.sort.SortOrder;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 切片scroll并行导出：
+ * <p>
+ * - 每个切片一个线程，各自独立scroll，切片之间没有协调，导出耗时随切片数近似线性下降（不超过分片数时）
+ * - 按_doc排序，ES不需要打分和排序，scroll的开销最小
+ * - 每批文档先在切片线程里编码为字节，再在锁内整批写出，输出流上不会出现交错的半行
+ * - 任何一个切片失败，其他切片在下一批时停止，并清理各自的scroll上下文
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Slf4j
+@Service
+public class HotelExportServiceImpl implements HotelExportService {
+
+    private static final String[] CSV_HEADER = {
+            "id", "name", "address", "price", "score", "brand", "city", "starName", "business", "lat", "lon", "pic"
+    };
+
+    @Resource
+    private RestHighLevelClient client;
+
+    @Resource
+    private EsMetrics esMetrics;
+
+    @Resource
+    private HotelExportProperties properties;
+
+    @Override
+    public long export(ExportFormat format, int slices, OutputStream out) throws IOException {
+        int sliceCount = slices < 1 ? properties.getSlices() : Math.min(slices, properties.getMaxSlices());
+        long start = System.currentTimeMillis();
+        if (format == ExportFormat.CSV) {
+            out.write(encode(format, new ArrayList<>(), true));
+        }
+        AtomicLong total = new AtomicLong();
+        AtomicBoolean failed = new AtomicBoolean();
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(sliceCount, r -> {
+            Thread thread = new Thread(r, "hotel-export-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<CompletableFuture<Void>> futures = new ArrayList<>(sliceCount);
+            for (int i = 0; i < sliceCount; i++) {
+                int slice = i;
+                futures.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        exportSlice(slice, sliceCount, format, out, total, failed);
+                    } catch (IOException e) {
+                        failed.set(true);
+                        throw new UncheckedIOException(e);
+                    } catch (RuntimeException e) {
+                        failed.set(true);
+                        throw e;
+                    }
+                }, executor));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() instanceof UncheckedIOException ? e.getCause().getCause() : e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException("导出hotel索引失败", cause);
+        } finally {
+            executor.shutdownNow();
+        }
+        out.flush();
+        log.info("导出hotel索引完成：{} 条文档，{} 个切片，耗时 {} ms",
+                total.get(), sliceCount, System.currentTimeMillis() - start);
+        return total.get();
+    }
+
+    private void exportSlice(int slice, int sliceCount, ExportFormat format, OutputStream out,
+                             AtomicLong total, AtomicBoolean failed) throws IOException {
+        TimeValue keepAlive = TimeValue.parseTimeValue(properties.getScrollKeepAlive(), "hotel.export.scroll-keep-alive");
+        SearchRequest request = new SearchRequest(HotelConstant.INDEX_NAME).scroll(keepAlive);
+        request.source()
+                .size(properties.getBatchSize())
+                .fetchSource(HotelDocDecoder.LIST_FIELDS, null)
+                .sort("_doc", SortOrder.ASC);
+        if (sliceCount > 1) {
+            request.source().slice(new SliceBuilder(slice, sliceCount));
+        }
+        SearchResponse response = esMetrics.record("search", HotelConstant.INDEX_NAME,
+                () -> client.search(request, RequestOptions.DEFAULT));
+        String scrollId = response.getScrollId();
+        try {
+            SearchHit[] hits = response.getHits().getHits();
+            while (hits.length > 0 && !failed.get()) {
+                // 1.在切片线程中解析、编码，内存中只有这一批
+                List<HotelDoc> hotelDocs = new ArrayList<>(hits.length);
+                for (SearchHit hit : hits) {
+                    hotelDocs.add(HotelDocDecoder.decode(hit.getSourceRef()));
+                }
+                byte[] bytes = encode(format, hotelDocs, false);
+                // 2.整批写出，写得慢时切片线程在这里等待，不会继续向ES要数据
+                synchronized (out) {
+                    out.write(bytes);
+                }
+                total.addAndGet(hits.length);
+                // 3.下一批
+                SearchScrollRequest scrollRequest = new SearchScrollRequest(scrollId).scroll(keepAlive);
+                response = esMetrics.record("scroll", HotelConstant.INDEX_NAME,
+                        () -> client.scroll(scrollRequest, RequestOptions.DEFAULT));
+                scrollId = response.getScrollId();
+                hits = response.getHits().getHits();
+            }
+        } finally {
+            clearScroll(scrollId);
+        }
+    }
+
+    private void clearScroll(String scrollId) {
+        if (scrollId == null) {
+            return;
+        }
+        ClearScrollRequest request = new ClearScrollRequest();
+        request.addScrollId(scrollId);
+        try {
+            esMetrics.record("clear_scroll", HotelConstant.INDEX_NAME,
+                    () -> client.clearScroll(request, RequestOptions.DEFAULT));
+        } catch (IOException | RuntimeException e) {
+            // 清理失败不影响导出结果，保活时间到期后ES自动释放
+            log.warn("清理scroll上下文失败：{}", e.getMessage());
+        }
+    }
+
+    private static byte[] encode(ExportFormat format, List<HotelDoc> hotelDocs, boolean header) {
+        if (format == ExportFormat.NDJSON) {
+            StringBuilder sb = new StringBuilder(hotelDocs.size() * 256);
+            for (HotelDoc hotelDoc : hotelDocs) {
+                sb.append(JSONUtil.toJsonStr(hotelDoc)).append('\n');
+            }
+            return sb.toString().getBytes(StandardCharsets.UTF_8);
+        }
+        StringWriter writer = new StringWriter(hotelDocs.size() * 256);
+        CsvWriter csv = CsvUtil.getWriter(writer);
+        if (header) {
+            csv.writeLine(CSV_HEADER);
+        }
+        for (HotelDoc hotelDoc : hotelDocs) {
+            GeoLocation location = hotelDoc.getLocation();
+            csv.writeLine(
+                    str(hotelDoc.getId()), hotelDoc.getName(), hotelDoc.getAddress(),
+                    str(hotelDoc.getPrice()), str(hotelDoc.getScore()), hotelDoc.getBrand(), hotelDoc.getCity(),
+                    hotelDoc.getStarName(), hotelDoc.getBusiness(),
+                    location == null ? null : String.valueOf(location.getLat()),
+                    location == null ? null : String.valueOf(location.getLon()),
+                    hotelDoc.getPic());
+        }
+        csv.flush();
+        return writer.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String str(Object value) {
+        return value == null ? null : value.toString();
+    }
+}
@@ -0,0 +1,248 @@
+package com.chan.hotel.service.impl;
+
+import com.chan.hotel.cache.HotelSearchCache;
+import com.chan.hotel.config.HotelFacetProperties;
+import com.chan.hotel.constants.HotelConstant;
+import com.chan.hotel.hedge.HotelHedgedClient;
+import com.chan.hotel.limit.HotelLoadShedder;
+import com.chan.hotel.metrics.EsMetrics;
+import com.chan.hotel.pojo.FacetBucket;
+import com.chan.hotel.pojo.FacetResult;
+import com.chan.hotel.pojo.RequestParams;
+import com.chan.hotel.service.HotelFacetService;
+import com.chan.hotel.service.HotelSearchService;
+import com.chan.hotel.utils.HotelDocDecoder;
+import com.chan.hotel.utils.HotelQueries;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.search.MultiSearchRequest;
+import org.elasticsearch.action.search.MultiSearchResponse;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.index.query.BoolQueryBuilder;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.aggregations.AggregationBuilder;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.Aggregations;
+import org.elasticsearch.search.aggregations.bucket.filter.Filter;
+import org.elasticsearch.search.aggregations.bucket.range.Range;
+import org.elasticsearch.search.aggregations.bucket.range.RangeAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.terms.Terms;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Slf4j
+@Service
+public class HotelFacetServiceImpl implements HotelFacetService {
+
+    /**
+     * 过滤项，同时也是聚合名称
+     */
+    private static final String[] FACETS = {"city", "brand", "starName", "price"};
+
+    /**
+     * filter聚合下真正分桶的子聚合名称
+     */
+    private static final String BUCKETS = "buckets";
+
+    /**
+     * 城市级过滤项缓存：key为"索引代数:城市"
+     */
+    private Cache<String, Map<String, List<FacetBucket>>> cityFacetCache;
+
+    @Resource
+    private RestHighLevelClient client;
+
+    @Resource
+    private HotelHedgedClient hotelHedgedClient;
+
+    @Resource
+    private EsMetrics esMetrics;
+
+    @Resource
+    private HotelLoadShedder hotelLoadShedder;
+
+    @Resource
+    private HotelSearchService hotelSearchService;
+
+    @Resource
+    private HotelSearchCache hotelSearchCache;
+
+    @Resource
+    private HotelFacetProperties properties;
+
+    @PostConstruct
+    public void init() {
+        this.cityFacetCache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtlSeconds(), TimeUnit.SECONDS)
+                .build();
+    }
+
+    @Override
+    public CompletableFuture<FacetResult> search(RequestParams params) {
+        String cacheKey = cityFacetKey(params);
+        if (cacheKey != null) {
+            Map<String, List<FacetBucket>> facets = cityFacetCache.getIfPresent(cacheKey);
+            if (facets != null) {
+                // 城市级过滤项命中缓存，只需查询结果列表（结果列表本身也有缓存）
+                return hotelSearchService.search(params).thenApply(page -> new FacetResult(page, facets));
+            }
+        }
+        // 不按城市路由：城市过滤项要统计其他城市的酒店数，必须查询所有分片
+        SearchRequest request = new SearchRequest(HotelConstant.INDEX_NAME);
+        HotelQueries.buildSource(params, request.source());
+        addFacets(params, request.source());
+
+        CompletableFuture<FacetResult> future = new CompletableFuture<>();
+        ActionListener<SearchResponse> listener = ActionListener.wrap(response -> {
+            Map<String, List<FacetBucket>> facets = parseFacets(response.getAggregations());
+            if (cacheKey != null) {
+                cityFacetCache.put(cacheKey, facets);
+            }
+            future.complete(new FacetResult(HotelDocDecoder.decode(response), facets));
+        }, future::completeExceptionally);
+        hotelHedgedClient.searchAsync(request, esMetrics.listener("search", HotelConstant.INDEX_NAME, hotelLoadShedder.listener(listener)));
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<Void> warmUp(Collection<String> cities) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        if (cities == null || cities.isEmpty()) {
+            future.complete(null);
+            return future;
+        }
+        // 每个城市一个只聚合、不返回结果的请求，合并到一个MultiSearchRequest中发送
+        List<String> keys = new ArrayList<>(cities.size());
+        MultiSearchRequest multiRequest = new MultiSearchRequest();
+        for (String city : cities) {
+            RequestParams params = new RequestParams();
+            params.setCity(city);
+            SearchRequest request = new SearchRequest(HotelConstant.INDEX_NAME);
+            request.source().size(0);
+            addFacets(params, request.source());
+            multiRequest.add(request);
+            keys.add(cityFacetKey(params));
+        }
+        ActionListener<MultiSearchResponse> listener = ActionListener.wrap(response -> {
+            MultiSearchResponse.Item[] items = response.getResponses();
+            for (int i = 0; i < items.length; i++) {
+                if (items[i].isFailure()) {
+                    log.warn("预热城市级过滤项失败：{}", keys.get(i), items[i].getFailure());
+                } else {
+                    cityFacetCache.put(keys.get(i), parseFacets(items[i].getResponse().getAggregations()));
+                }
+            }
+            future.complete(null);
+        }, future::completeExceptionally);
+        client.msearchAsync(multiRequest, RequestOptions.DEFAULT, esMetrics.listener("msearch", HotelConstant.INDEX_NAME, hotelLoadShedder.listener(listener)));
+        return future;
+    }
+
+    /**
+     * 在城市级缓存过期前定时预热配置的热门城市
+     */
+    @Scheduled(fixedDelayString = "${hotel.facet.warm-interval-ms:20000}")
+    public void scheduledWarmUp() {
+        if (!properties.getWarmCities().isEmpty()) {
+            warmUp(properties.getWarmCities()).exceptionally(e -> {
+                log.warn("预热城市级过滤项失败：{}", e.getMessage());
+                return null;
+            });
+        }
+    }
+
+    /**
+     * 只有城市条件（或没有任何条件）的请求才使用城市级缓存，返回缓存key；其他请求返回null
+     */
+    private String cityFacetKey(RequestParams params) {
+        boolean cityOnly = StringUtils.isBlank(params.getKey())
+                && StringUtils.isBlank(params.getBrand())
+                && StringUtils.isBlank(params.getStarName())
+                && params.getMinPrice() == null
+                && params.getMaxPrice() == null;
+        if (!cityOnly) {
+            return null;
+        }
+        return hotelSearchCache.generation() + ":" + StringUtils.trimToEmpty(params.getCity());
+    }
+
+    /**
+     * query只保留关键字，过滤条件放到post_filter；每个过滤项按"除自己以外的过滤条件"聚合
+     */
+    private void addFacets(RequestParams params, SearchSourceBuilder source) {
+        Map<String, QueryBuilder> filters = HotelQueries.buildFacetFilters(params);
+        source.query(HotelQueries.buildKeywordQuery(params));
+        if (!filters.isEmpty()) {
+            BoolQueryBuilder postFilter = QueryBuilders.boolQuery();
+            filters.values().forEach(postFilter::filter);
+            source.postFilter(postFilter);
+        }
+        for (String facet : FACETS) {
+            BoolQueryBuilder others = QueryBuilders.boolQuery();
+            for (Map.Entry<String, QueryBuilder> entry : filters.entrySet()) {
+                if (!entry.getKey().equals(facet)) {
+                    others.filter(entry.getValue());
+                }
+            }
+            source.aggregation(AggregationBuilders.filter(facet, others).subAggregation(bucketAggregation(facet)));
+        }
+    }
+
+    private AggregationBuilder bucketAggregation(String facet) {
+        if (!"price".equals(facet)) {
+            return AggregationBuilders.terms(BUCKETS).field(facet).size(properties.getSize());
+        }
+        RangeAggregationBuilder range = AggregationBuilders.range(BUCKETS).field("price");
+        int from = 0;
+        for (Integer to : properties.getPriceRanges()) {
+            range.addRange(from + "-" + to, from, to);
+            from = to;
+        }
+        range.addUnboundedFrom(from + "-", from);
+        return range;
+    }
+
+    private Map<String, List<FacetBucket>> parseFacets(Aggregations aggregations) {
+        Map<String, List<FacetBucket>> facets = new LinkedHashMap<>();
+        for (String facet : FACETS) {
+            Filter filter = aggregations.get(facet);
+            List<FacetBucket> buckets = new ArrayList<>();
+            if ("price".equals(facet)) {
+                Range range = filter.getAggregations().get(BUCKETS);
+                for (Range.Bucket bucket : range.getBuckets()) {
+                    buckets.add(new FacetBucket(bucket.getKeyAsString(), bucket.getDocCount()));
+                }
+            } else {
+                Terms terms = filter.getAggregations().get(BUCKETS);
+                for (Terms.Bucket bucket : terms.getBuckets()) {
+                    buckets.add(new FacetBucket(bucket.getKeyAsString(), bucket.getDocCount()));
+                }
+            }
+            facets.put(facet, buckets);
+        }
+        return facets;
+    }
+}
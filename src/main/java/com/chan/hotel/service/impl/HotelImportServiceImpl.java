@@ -0,0 +1,184 @@
+package com.chan.hotel.service.impl;
+
+import cn.hutool.json.JSONUtil;
+import com.chan.hotel.cache.HotelSearchCache;
+import com.chan.hotel.config.HotelImportProperties;
+import com.chan.hotel.constants.HotelConstant;
+import com.chan.hotel.metrics.EsMetrics;
+import com.chan.hotel.mapper.HotelMapper;
+import com.chan.hotel.pojo.Hotel;
+import com.chan.hotel.pojo.HotelDoc;
+import com.chan.hotel.pojo.ImportResult;
+import com.chan.hotel.service.HotelImportService;
+import com.chan.hotel.service.HotelRoutingService;
+import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.action.bulk.BackoffPolicy;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkProcessor;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 流式全量导入：
+ * <p>
+ * - 读库：按id做keyset分页（id > lastId order by id limit n），不会把整张表加载到堆内存
+ * - 切分：由BulkProcessor按文档数、字节数切分BulkRequest
+ * - 限流：concurrentRequests限制在途的BulkRequest数量，达到上限时add()阻塞读库线程
+ * - 退避：ES线程池满返回429(EsRejectedExecutionException)时，按指数退避重试被拒绝的文档
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Slf4j
+@Service
+public class HotelImportServiceImpl implements HotelImportService {
+
+    @Resource
+    private HotelMapper hotelMapper;
+
+    @Resource
+    private RestHighLevelClient client;
+
+    @Resource
+    private EsMetrics esMetrics;
+
+    @Resource
+    private HotelImportProperties properties;
+
+    @Resource
+    private HotelSearchCache hotelSearchCache;
+
+    @Resource
+    private HotelRoutingService hotelRoutingService;
+
+    @Override
+    public ImportResult importAll() {
+        return importAll(HotelConstant.INDEX_NAME);
+    }
+
+    @Override
+    public ImportResult importAll(String indexName) {
+        long start = System.currentTimeMillis();
+        ImportListener listener = new ImportListener(indexName);
+        // 1.构建BulkProcessor，bulk请求异步发送，由concurrentRequests控制在途数量
+        BulkProcessor processor = BulkProcessor.builder(
+                (request, bulkListener) -> client.bulkAsync(request, RequestOptions.DEFAULT,
+                        esMetrics.listener("bulk", indexName, bulkListener)),
+                listener)
+                .setBulkActions(properties.getBulkActions())
+                .setBulkSize(new ByteSizeValue(properties.getBulkSizeMb(), ByteSizeUnit.MB))
+                .setConcurrentRequests(properties.getConcurrentRequests())
+                .setBackoffPolicy(BackoffPolicy.exponentialBackoff(
+                        TimeValue.timeValueMillis(properties.getBackoffInitialDelayMs()),
+                        properties.getBackoffMaxRetries()))
+                .build();
+
+        long total = 0;
+        long skipped = 0;
+        boolean completed = false;
+        try {
+            // 2.按id游标分批读库，转换为HotelDoc后交给BulkProcessor
+            int fetchSize = properties.getFetchSize();
+            Long lastId = null;
+            List<Hotel> hotels;
+            do {
+                hotels = hotelMapper.selectBatchAfterId(lastId, fetchSize);
+                for (Hotel hotel : hotels) {
+                    lastId = hotel.getId();
+                    HotelDoc hotelDoc;
+                    String routing;
+                    try {
+                        hotelDoc = new HotelDoc(hotel);
+                        routing = hotelRoutingService.routingOf(hotelDoc);
+                    } catch (IllegalArgumentException e) {
+                        // 数据不合法的行跳过，不影响整体导入
+                        skipped++;
+                        log.warn("跳过不合法的酒店数据：{}", e.getMessage());
+                        continue;
+                    }
+                    processor.add(new IndexRequest(indexName)
+                            .id(hotelDoc.getId().toString())
+                            .routing(routing)
+                            .source(JSONUtil.toJsonStr(hotelDoc), XContentType.JSON));
+                    total++;
+                }
+            } while (hotels.size() == fetchSize);
+        } finally {
+            // 3.刷出最后一批，并等待在途的bulk全部完成
+            try {
+                completed = processor.awaitClose(properties.getAwaitCloseMinutes(), TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (HotelConstant.INDEX_NAME.equals(indexName)) {
+            // 直接写入了对外的hotel索引，搜索缓存失效；写入新版本索引时由切换别名的一方负责
+            hotelSearchCache.invalidate();
+        }
+        ImportResult result = new ImportResult();
+        result.setIndexName(indexName);
+        result.setTotal(total);
+        result.setSkipped(skipped);
+        result.setFailed(listener.failed.get());
+        result.setBulks(listener.bulks.get());
+        result.setCompleted(completed);
+        result.setTook(System.currentTimeMillis() - start);
+        log.info("导入索引库 {} 完成：{}", indexName, result);
+        return result;
+    }
+
+    /**
+     * 统计每个bulk的执行结果
+     */
+    private static class ImportListener implements BulkProcessor.Listener {
+
+        private final String indexName;
+        private final AtomicLong bulks = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+
+        ImportListener(String indexName) {
+            this.indexName = indexName;
+        }
+
+        @Override
+        public void beforeBulk(long executionId, BulkRequest request) {
+            bulks.incrementAndGet();
+        }
+
+        @Override
+        public void afterBulk(long executionId, BulkRequest request, BulkResponse response) {
+            if (!response.hasFailures()) {
+                return;
+            }
+            long count = 0;
+            for (BulkItemResponse item : response.getItems()) {
+                if (item.isFailed()) {
+                    count++;
+                }
+            }
+            failed.addAndGet(count);
+            log.warn("导入索引库 {} 第{}批有 {} 条文档写入失败：{}",
+                    indexName, executionId, count, response.buildFailureMessage());
+        }
+
+        @Override
+        public void afterBulk(long executionId, BulkRequest request, Throwable failure) {
+            failed.addAndGet(request.numberOfActions());
+            log.error("导入索引库 {} 第{}批发送失败，共 {} 条文档", indexName, executionId, request.numberOfActions(), failure);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.chan.hotel.service.impl;
+
+import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.bean.copier.CopyOptions;
+import com.chan.hotel.config.HotelIngestProperties;
+import com.chan.hotel.mapper.HotelMapper;
+import com.chan.hotel.pojo.ExportFormat;
+import com.chan.hotel.pojo.Hotel;
+import com.chan.hotel.pojo.IngestResult;
+import com.chan.hotel.service.HotelIngestService;
+import com.chan.hotel.service.HotelSyncService;
+import com.chan.hotel.utils.HotelFeedReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Slf4j
+@Service
+public class HotelIngestServiceImpl implements HotelIngestService {
+
+    @Resource
+    private HotelMapper hotelMapper;
+
+    @Resource
+    private HotelSyncService hotelSyncService;
+
+    @Resource
+    private HotelIngestProperties properties;
+
+    @Override
+    public IngestResult ingest(InputStream in, ExportFormat format) throws IOException {
+        long start = System.currentTimeMillis();
+        int batchSize = Math.max(1, properties.getBatchSize());
+        IngestResult result = new IngestResult();
+        // 同一批中重复的id合并为一行，后面的非null字段覆盖前面的，与逐行upsert的结果相同
+        Map<Long, Hotel> batch = new LinkedHashMap<>(batchSize * 2);
+        long skipped = HotelFeedReader.read(in, format, hotel -> {
+            batch.merge(hotel.getId(), hotel, (previous, current) -> {
+                BeanUtil.copyProperties(current, previous, CopyOptions.create().setIgnoreNullValue(true));
+                return previous;
+            });
+            if (batch.size() >= batchSize) {
+                flush(batch, result);
+            }
+        });
+        flush(batch, result);
+        result.setSkipped(skipped);
+        result.setTook(System.currentTimeMillis() - start);
+        log.info("合作方数据写入完成：{}", result);
+        return result;
+    }
+
+    private void flush(Map<Long, Hotel> batch, IngestResult result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Hotel> hotels = new ArrayList<>(batch.values());
+        List<Long> ids = new ArrayList<>(batch.keySet());
+        hotelSyncService.recordRoutings(ids);
+        hotelMapper.upsertBatch(hotels);
+        hotelSyncService.markChanged(ids);
+        result.setRows(result.getRows() + hotels.size());
+        result.setBatches(result.getBatches() + 1);
+        batch.clear();
+    }
+}
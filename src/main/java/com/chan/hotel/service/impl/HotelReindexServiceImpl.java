@@ -0,0 +1,245 @@
+package com.chan.hotel.service.impl;
+
+import com.chan.hotel.cache.HotelSearchCache;
+import com.chan.hotel.config.HotelReindexProperties;
+import com.chan.hotel.config.HotelSyncProperties;
+import com.chan.hotel.constants.HotelConstant;
+import com.chan.hotel.metrics.EsMetrics;
+import com.chan.hotel.pojo.ImportResult;
+import com.chan.hotel.pojo.ReindexResult;
+import com.chan.hotel.schema.HotelSchema;
+import com.chan.hotel.schema.HotelSchemaRegistry;
+import com.chan.hotel.service.HotelImportService;
+import com.chan.hotel.service.HotelReindexService;
+import com.chan.hotel.service.HotelSyncService;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.client.config.RequestConfig;
+import org.elasticsearch.action.admin.cluster.health.ClusterHealthRequest;
+import org.elasticsearch.action.admin.cluster.health.ClusterHealthResponse;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequest;
+import org.elasticsearch.action.admin.indices.alias.get.GetAliasesRequest;
+import org.elasticsearch.action.admin.indices.delete.DeleteIndexRequest;
+import org.elasticsearch.action.admin.indices.forcemerge.ForceMergeRequest;
+import org.elasticsearch.action.admin.indices.refresh.RefreshRequest;
+import org.elasticsearch.action.admin.indices.settings.put.UpdateSettingsRequest;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.client.indices.CreateIndexRequest;
+import org.elasticsearch.client.indices.GetIndexRequest;
+import org.elasticsearch.cluster.health.ClusterHealthStatus;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 通过版本化索引+别名切换实现零停机重建。
+ * <p>
+ * 重建期间的增量同步通过hotel别名写入旧索引，全量导入可能读到变更之前的数据：
+ * 从创建新索引开始记录同步过的酒店id，切换别名后按id再同步一次。
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Slf4j
+@Service
+public class HotelReindexServiceImpl implements HotelReindexService {
+
+    private static final String REFRESH_INTERVAL = "index.refresh_interval";
+    private static final String NUMBER_OF_REPLICAS = "index.number_of_replicas";
+
+    @Resource
+    private RestHighLevelClient client;
+
+    @Resource
+    private EsMetrics esMetrics;
+
+    @Resource
+    private HotelImportService hotelImportService;
+
+    @Resource
+    private HotelReindexProperties properties;
+
+    @Resource
+    private HotelSearchCache hotelSearchCache;
+
+    @Resource
+    private HotelSchemaRegistry hotelSchemaRegistry;
+
+    @Resource
+    private HotelSyncService hotelSyncService;
+
+    @Resource
+    private HotelSyncProperties hotelSyncProperties;
+
+    @Override
+    public ReindexResult reindex() throws IOException {
+        long start = System.currentTimeMillis();
+        String alias = HotelConstant.INDEX_NAME;
+        // 0.找到当前别名指向的索引，以及遗留的同名实体索引
+        List<String> previous = currentIndices(alias);
+        boolean legacyIndex = previous.isEmpty()
+                && esMetrics.record("exists", alias,
+                () -> client.indices().exists(new GetIndexRequest(alias), RequestOptions.DEFAULT));
+        String newIndex = HotelConstant.VERSIONED_INDEX_PREFIX + (latestVersion() + 1);
+
+        // 1.按当前版本的索引结构创建新索引，导入期间关闭refresh、不要副本，提高bulk吞吐
+        HotelSchema schema = hotelSchemaRegistry.current();
+        CreateIndexRequest createRequest = new CreateIndexRequest(newIndex);
+        createRequest.mapping(schema.getMappings(), XContentType.JSON);
+        createRequest.settings(Settings.builder()
+                .put(schema.getSettings())
+                .put(REFRESH_INTERVAL, "-1")
+                .put(NUMBER_OF_REPLICAS, 0));
+        esMetrics.record("create_index", newIndex, () -> client.indices().create(createRequest, RequestOptions.DEFAULT));
+        log.info("创建新索引 {}（结构版本 {}），当前别名 {} 指向 {}",
+                newIndex, schema.getVersion(), alias, legacyIndex ? alias : previous);
+
+        ImportResult importResult;
+        // 在全量导入读库之前开始记录，之后的变更要么被导入读到，要么在切换后补同步
+        hotelSyncService.startTracking();
+        try {
+            // 2.全量导入
+            importResult = hotelImportService.importAll(newIndex);
+            if (!importResult.isCompleted() || importResult.getFailed() > 0) {
+                throw new IllegalStateException("导入索引库 " + newIndex + " 未完成：" + importResult);
+            }
+            // 3.段合并，然后恢复为版本文件中的refresh_interval和副本数
+            forceMerge(newIndex);
+            UpdateSettingsRequest settingsRequest = new UpdateSettingsRequest(newIndex).settings(Settings.builder()
+                    .put(REFRESH_INTERVAL, schema.getSettings().get(REFRESH_INTERVAL, "1s"))
+                    .put(NUMBER_OF_REPLICAS, schema.getSettings().get(NUMBER_OF_REPLICAS, "1")));
+            esMetrics.record("put_settings", newIndex,
+                    () -> client.indices().putSettings(settingsRequest, RequestOptions.DEFAULT));
+            esMetrics.record("refresh", newIndex,
+                    () -> client.indices().refresh(new RefreshRequest(newIndex), RequestOptions.DEFAULT));
+            waitForStatus(newIndex);
+        } catch (IOException | RuntimeException e) {
+            // 新索引还没有对外可见，直接删除
+            hotelSyncService.stopTracking();
+            log.error("重建索引 {} 失败，删除新索引", newIndex, e);
+            esMetrics.record("delete_index", newIndex,
+                    () -> client.indices().delete(new DeleteIndexRequest(newIndex), RequestOptions.DEFAULT));
+            throw e;
+        }
+
+        // 4.原子地切换别名：同一个请求里给新索引加别名、从旧索引移除别名
+        IndicesAliasesRequest aliasesRequest = new IndicesAliasesRequest();
+        aliasesRequest.addAliasAction(IndicesAliasesRequest.AliasActions.add().index(newIndex).alias(alias));
+        for (String index : previous) {
+            aliasesRequest.addAliasAction(IndicesAliasesRequest.AliasActions.remove().index(index).alias(alias));
+        }
+        if (legacyIndex) {
+            // 同名实体索引会占用别名，必须在同一个请求里删除
+            aliasesRequest.addAliasAction(IndicesAliasesRequest.AliasActions.removeIndex().index(alias));
+        }
+        try {
+            esMetrics.record("update_aliases", alias, () -> client.indices().updateAliases(aliasesRequest, RequestOptions.DEFAULT));
+        } catch (IOException | RuntimeException e) {
+            hotelSyncService.stopTracking();
+            throw e;
+        }
+        hotelSearchCache.invalidate();
+        log.info("别名 {} 已切换到 {}", alias, newIndex);
+        resync(hotelSyncService.stopTracking());
+
+        // 5.删除旧索引
+        if (properties.isDeleteOldIndex() && !previous.isEmpty()) {
+            DeleteIndexRequest deleteRequest = new DeleteIndexRequest(previous.toArray(new String[0]));
+            esMetrics.record("delete_index", alias, () -> client.indices().delete(deleteRequest, RequestOptions.DEFAULT));
+            log.info("删除旧索引 {}", previous);
+        }
+
+        ReindexResult result = new ReindexResult();
+        result.setNewIndex(newIndex);
+        List<String> replaced = new ArrayList<>(previous);
+        if (legacyIndex) {
+            replaced.add(alias);
+        }
+        result.setPreviousIndices(replaced);
+        result.setImportResult(importResult);
+        result.setTook(System.currentTimeMillis() - start);
+        return result;
+    }
+
+    /**
+     * 把重建期间同步过的酒店再同步到新索引，失败的交给增量同步的下一个窗口
+     */
+    private void resync(Set<Long> tracked) {
+        if (tracked.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(tracked);
+        int batchSize = Math.max(1, hotelSyncProperties.getMaxBatchSize());
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> batch = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            try {
+                hotelSyncService.sync(batch);
+            } catch (IOException | RuntimeException e) {
+                log.warn("重建期间变更的 {} 个酒店同步到新索引失败，放入增量同步的下一个窗口", batch.size(), e);
+                List<Long> changed = new ArrayList<>(batch);
+                hotelSyncService.markChanged(changed);
+            }
+        }
+        log.info("重建期间变更的 {} 个酒店已同步到新索引", ids.size());
+    }
+
+    /**
+     * 查询别名当前指向的索引，别名不存在时返回空集合
+     */
+    private List<String> currentIndices(String alias) throws IOException {
+        GetAliasesRequest request = new GetAliasesRequest(alias);
+        return new ArrayList<>(esMetrics.record("get_alias", alias,
+                () -> client.indices().getAlias(request, RequestOptions.DEFAULT)).getAliases().keySet());
+    }
+
+    /**
+     * 已存在的hotel_v{n}中最大的n，不存在时返回0
+     */
+    private int latestVersion() throws IOException {
+        String prefix = HotelConstant.VERSIONED_INDEX_PREFIX;
+        String[] indices = esMetrics.record("get_index", HotelConstant.INDEX_NAME,
+                () -> client.indices().get(new GetIndexRequest(prefix + "*"), RequestOptions.DEFAULT))
+                .getIndices();
+        int latest = 0;
+        for (String index : indices) {
+            try {
+                latest = Math.max(latest, Integer.parseInt(index.substring(prefix.length())));
+            } catch (NumberFormatException ignored) {
+                // 不是hotel_v{n}格式的索引，忽略
+            }
+        }
+        return latest;
+    }
+
+    private void forceMerge(String index) throws IOException {
+        int timeout = (int) TimeUnit.MINUTES.toMillis(properties.getForceMergeTimeoutMinutes());
+        RequestOptions options = RequestOptions.DEFAULT.toBuilder()
+                .setRequestConfig(RequestConfig.custom().setSocketTimeout(timeout).build())
+                .build();
+        ForceMergeRequest request = new ForceMergeRequest(index).maxNumSegments(properties.getMaxNumSegments());
+        esMetrics.record("forcemerge", index, () -> client.indices().forcemerge(request, options));
+    }
+
+    private void waitForStatus(String index) throws IOException {
+        ClusterHealthRequest request = new ClusterHealthRequest(index)
+                .waitForStatus(ClusterHealthStatus.fromString(properties.getWaitForStatus()))
+                .timeout(TimeValue.timeValueMinutes(properties.getWaitForStatusTimeoutMinutes()));
+        int timeout = (int) TimeUnit.MINUTES.toMillis(properties.getWaitForStatusTimeoutMinutes() + 1);
+        RequestOptions options = RequestOptions.DEFAULT.toBuilder()
+                .setRequestConfig(RequestConfig.custom().setSocketTimeout(timeout).build())
+                .build();
+        ClusterHealthResponse response = esMetrics.record("health", index, () -> client.cluster().health(request, options));
+        if (response.isTimedOut()) {
+            throw new IllegalStateException("索引 " + index + " 未能在超时时间内达到 "
+                    + properties.getWaitForStatus() + " 状态，当前为 " + response.getStatus());
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.chan.hotel.service.impl;
+
+import com.chan.hotel.config.HotelRoutingProperties;
+import com.chan.hotel.constants.HotelConstant;
+import com.chan.hotel.mapper.HotelMapper;
+import com.chan.hotel.metrics.EsMetrics;
+import com.chan.hotel.pojo.Hotel;
+import com.chan.hotel.pojo.HotelDoc;
+import com.chan.hotel.pojo.RequestParams;
+import com.chan.hotel.service.HotelRoutingService;
+import org.apache.commons.lang3.StringUtils;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.document.DocumentField;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.SearchHit;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Service
+public class HotelRoutingServiceImpl implements HotelRoutingService {
+
+    @Resource
+    private RestHighLevelClient client;
+
+    @Resource
+    private EsMetrics esMetrics;
+
+    @Resource
+    private HotelRoutingProperties properties;
+
+    @Resource
+    private HotelMapper hotelMapper;
+
+    @Override
+    public boolean isEnabled() {
+        return properties.isCityEnabled();
+    }
+
+    @Override
+    public String routingOf(HotelDoc hotelDoc) {
+        if (!isEnabled()) {
+            return null;
+        }
+        if (StringUtils.isBlank(hotelDoc.getCity())) {
+            // 没有城市的文档无法路由，写入后也无法按id找到
+            throw new IllegalArgumentException("酒店 " + hotelDoc.getId() + " 没有城市，无法按城市路由");
+        }
+        return hotelDoc.getCity();
+    }
+
+    @Override
+    public String routingOf(RequestParams params) {
+        if (!isEnabled()) {
+            return null;
+        }
+        // 与查询中的城市条件一致，否则带空格的城市会路由到另一个分片
+        return StringUtils.trimToNull(params.getCity());
+    }
+
+    @Override
+    public Map<Long, String> routingsOf(Collection<Long> ids) {
+        if (!isEnabled() || ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Long, String> routings = new HashMap<>(ids.size() * 2);
+        for (Hotel hotel : hotelMapper.selectCities(ids)) {
+            if (StringUtils.isNotBlank(hotel.getCity())) {
+                routings.put(hotel.getId(), hotel.getCity());
+            }
+        }
+        return routings;
+    }
+
+    @Override
+    public Map<Long, Set<String>> currentRoutings(Collection<Long> ids) throws IOException {
+        if (!isEnabled() || ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        // 不知道路由，只能查询所有分片；只要_id和_routing，不要_source
+        SearchRequest request = new SearchRequest(HotelConstant.INDEX_NAME);
+        request.source()
+                .query(QueryBuilders.idsQuery().addIds(ids.stream().map(String::valueOf).toArray(String[]::new)))
+                .fetchSource(false)
+                // 同一个id可能短暂地存在于两个分片上
+                .size(ids.size() * 2);
+        SearchResponse response = esMetrics.record("search", HotelConstant.INDEX_NAME,
+                () -> client.search(request, RequestOptions.DEFAULT));
+        Map<Long, Set<String>> routings = new HashMap<>(ids.size() * 2);
+        for (SearchHit hit : response.getHits().getHits()) {
+            DocumentField routing = hit.field("_routing");
+            if (routing != null) {
+                routings.computeIfAbsent(Long.valueOf(hit.getId()), k -> new HashSet<>(2)).add(routing.getValue());
+            }
+        }
+        return routings;
+    }
+}
@@ -0,0 +1,133 @@
+package com.chan.hotel.service.impl;
+
+import com.chan.hotel.config.HotelSchemaProperties;
+import com.chan.hotel.constants.HotelConstant;
+import com.chan.hotel.metrics.EsMetrics;
+import com.chan.hotel.pojo.SchemaCheckResult;
+import com.chan.hotel.pojo.SchemaStatus;
+import com.chan.hotel.schema.HotelSchema;
+import com.chan.hotel.schema.HotelSchemaDiff;
+import com.chan.hotel.schema.HotelSchemaRegistry;
+import com.chan.hotel.service.HotelReindexService;
+import com.chan.hotel.service.HotelSchemaService;
+import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.action.admin.indices.settings.put.UpdateSettingsRequest;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.client.indices.GetIndexRequest;
+import org.elasticsearch.client.indices.GetIndexResponse;
+import org.elasticsearch.client.indices.PutMappingRequest;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Slf4j
+@Service
+public class HotelSchemaServiceImpl implements HotelSchemaService {
+
+    @Resource
+    private RestHighLevelClient client;
+
+    @Resource
+    private EsMetrics esMetrics;
+
+    @Resource
+    private HotelSchemaRegistry hotelSchemaRegistry;
+
+    @Resource
+    private HotelReindexService hotelReindexService;
+
+    @Resource
+    private HotelSchemaProperties properties;
+
+    @Override
+    public SchemaCheckResult check() throws IOException {
+        String alias = HotelConstant.INDEX_NAME;
+        HotelSchema schema = hotelSchemaRegistry.current();
+        GetIndexRequest request = new GetIndexRequest(alias);
+        boolean exists = esMetrics.record("exists", alias,
+                () -> client.indices().exists(request, RequestOptions.DEFAULT));
+        if (!exists) {
+            SchemaCheckResult result = new SchemaCheckResult();
+            result.setVersion(schema.getVersion());
+            result.setStatus(SchemaStatus.MISSING);
+            return result;
+        }
+        GetIndexResponse response = esMetrics.record("get_index", alias,
+                () -> client.indices().get(request, RequestOptions.DEFAULT));
+        // 别名只指向一个索引
+        String index = response.getIndices()[0];
+        return HotelSchemaDiff.diff(schema, index,
+                response.getMappings().containsKey(index)
+                        ? response.getMappings().get(index).getSourceAsMap() : Collections.emptyMap(),
+                response.getSettings().getOrDefault(index, Settings.EMPTY));
+    }
+
+    @Override
+    public SchemaCheckResult migrate() throws IOException {
+        SchemaCheckResult result = check();
+        switch (result.getStatus()) {
+            case MISSING:
+            case REINDEX_REQUIRED:
+                log.info("索引结构需要重建：{}", result.getReindexChanges());
+                hotelReindexService.reindex();
+                break;
+            case UPDATE_IN_PLACE:
+                updateInPlace(result.getIndex());
+                log.info("索引 {} 已就地更新到版本 {}：{}", result.getIndex(), result.getVersion(), result.getInPlaceChanges());
+                break;
+            default:
+                return result;
+        }
+        return check();
+    }
+
+    /**
+     * 发送完整的mappings：已有字段的相同定义会被忽略，新增字段被添加，_meta被替换
+     */
+    private void updateInPlace(String index) throws IOException {
+        HotelSchema schema = hotelSchemaRegistry.current();
+        PutMappingRequest mappingRequest = new PutMappingRequest(index).source(schema.getMappings(), XContentType.JSON);
+        esMetrics.record("put_mapping", index,
+                () -> client.indices().putMapping(mappingRequest, RequestOptions.DEFAULT));
+        Settings dynamicSettings = HotelSchemaDiff.dynamicSettings(schema);
+        if (!dynamicSettings.isEmpty()) {
+            UpdateSettingsRequest settingsRequest = new UpdateSettingsRequest(index).settings(dynamicSettings);
+            esMetrics.record("put_settings", index,
+                    () -> client.indices().putSettings(settingsRequest, RequestOptions.DEFAULT));
+        }
+    }
+
+    /**
+     * 应用启动完成后在后台检查，不阻塞启动
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!properties.isCheckOnStartup() && !properties.isAutoMigrate()) {
+            return;
+        }
+        CompletableFuture.runAsync(() -> {
+            try {
+                SchemaCheckResult result = properties.isAutoMigrate() ? migrate() : check();
+                if (result.getStatus() == SchemaStatus.UP_TO_DATE) {
+                    log.info("索引 {} 的结构与版本 {} 一致", result.getIndex(), result.getVersion());
+                } else {
+                    log.warn("索引结构与版本 {} 不一致：{}", result.getVersion(), result);
+                }
+            } catch (IOException | RuntimeException e) {
+                log.error("检查索引结构失败", e);
+            }
+        });
+    }
+}
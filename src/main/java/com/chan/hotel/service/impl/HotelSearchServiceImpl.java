@@ -0,0 +1,214 @@
+package com.chan.hotel.service.impl;
+
+import cn.hutool.json.JSONUtil;
+import com.chan.hotel.cache.HotelSearchCache;
+import com.chan.hotel.config.HotelSearchProperties;
+import com.chan.hotel.constants.HotelConstant;
+import com.chan.hotel.hedge.HotelHedgedClient;
+import com.chan.hotel.limit.HotelLoadShedder;
+import com.chan.hotel.metrics.EsMetrics;
+import com.chan.hotel.pojo.HotelDoc;
+import com.chan.hotel.pojo.NearbyParams;
+import com.chan.hotel.pojo.PageResult;
+import com.chan.hotel.pojo.RequestParams;
+import com.chan.hotel.pojo.SearchCursor;
+import com.chan.hotel.service.HotelRoutingService;
+import com.chan.hotel.service.HotelSearchService;
+import com.chan.hotel.utils.HotelDocDecoder;
+import com.chan.hotel.utils.HotelQueries;
+import com.chan.hotel.utils.SearchCursorCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.util.EntityUtils;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.Request;
+import org.elasticsearch.client.Response;
+import org.elasticsearch.client.ResponseListener;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.builder.PointInTimeBuilder;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Slf4j
+@Service
+public class HotelSearchServiceImpl implements HotelSearchService {
+
+    @Resource
+    private RestHighLevelClient client;
+
+    @Resource
+    private HotelHedgedClient hotelHedgedClient;
+
+    @Resource
+    private EsMetrics esMetrics;
+
+    @Resource
+    private HotelLoadShedder hotelLoadShedder;
+
+    @Resource
+    private HotelSearchCache hotelSearchCache;
+
+    @Resource
+    private HotelSearchProperties properties;
+
+    @Resource
+    private HotelRoutingService hotelRoutingService;
+
+    @Override
+    public CompletableFuture<PageResult> search(RequestParams params) {
+        // 1.准备Request
+        SearchRequest request = new SearchRequest(HotelConstant.INDEX_NAME);
+        // 按城市路由时，带城市条件的搜索只查询一个分片
+        request.routing(hotelRoutingService.routingOf(params));
+        // 2.准备DSL，参数已经规范化，路由加DSL的json可以直接作为缓存key
+        HotelQueries.buildSource(params, request.source());
+        return hotelSearchCache.get(request.routing() + ":" + request.source(), () -> doSearch(request));
+    }
+
+    private CompletableFuture<PageResult> doSearch(SearchRequest request) {
+        // 3.异步发送请求，响应在客户端IO线程中解析
+        CompletableFuture<PageResult> future = new CompletableFuture<>();
+        ActionListener<SearchResponse> listener = ActionListener.wrap(
+                response -> future.complete(HotelDocDecoder.decode(response)),
+                future::completeExceptionally);
+        hotelHedgedClient.searchAsync(request, esMetrics.listener("search", HotelConstant.INDEX_NAME, hotelLoadShedder.listener(listener)));
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<PageResult> searchByCursor(RequestParams params) {
+        if (StringUtils.isBlank(params.getCursor())) {
+            // 第一页：先打开point in time
+            return openPointInTime(params).thenCompose(pit -> searchAfter(pit, null, params));
+        }
+        SearchCursor cursor;
+        try {
+            cursor = SearchCursorCodec.decode(params.getCursor());
+        } catch (IllegalArgumentException e) {
+            CompletableFuture<PageResult> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+        return searchAfter(cursor.getPit(), cursor.getAfter().toArray(), cursor.getParams());
+    }
+
+    @Override
+    public CompletableFuture<PageResult> nearby(NearbyParams params) {
+        CompletableFuture<PageResult> future = new CompletableFuture<>();
+        SearchRequest request = new SearchRequest(HotelConstant.INDEX_NAME);
+        try {
+            HotelQueries.buildNearbySource(params, request.source());
+        } catch (IllegalArgumentException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+        ActionListener<SearchResponse> listener = ActionListener.wrap(response -> {
+            PageResult result = HotelDocDecoder.decode(response);
+            SearchHit[] hits = response.getHits().getHits();
+            List<HotelDoc> hotels = result.getHotels();
+            for (int i = 0; i < hits.length; i++) {
+                // 第一个排序值就是到当前位置的距离（公里）
+                hotels.get(i).setDistance(((Number) hits[i].getSortValues()[0]).doubleValue());
+            }
+            future.complete(result);
+        }, future::completeExceptionally);
+        hotelHedgedClient.searchAsync(request, esMetrics.listener("search", HotelConstant.INDEX_NAME, hotelLoadShedder.listener(listener)));
+        return future;
+    }
+
+    private CompletableFuture<PageResult> searchAfter(String pit, Object[] after, RequestParams params) {
+        // point in time搜索不能指定索引
+        SearchRequest request = new SearchRequest();
+        HotelQueries.buildCursorSource(params, after, request.source());
+        request.source().pointInTimeBuilder(new PointInTimeBuilder(pit).setKeepAlive(keepAlive()));
+        int size = HotelQueries.pageSize(params);
+
+        CompletableFuture<PageResult> future = new CompletableFuture<>();
+        ActionListener<SearchResponse> listener = ActionListener.wrap(response -> {
+            PageResult result = HotelDocDecoder.decode(response);
+            // ES可能返回新的pit id，后续翻页要使用新的
+            String nextPit = response.pointInTimeId() != null ? response.pointInTimeId() : pit;
+            SearchHit[] hits = response.getHits().getHits();
+            if (hits.length < size) {
+                // 最后一页，释放point in time
+                closePointInTime(nextPit);
+            } else {
+                SearchCursor next = new SearchCursor();
+                next.setPit(nextPit);
+                next.setAfter(Arrays.asList(hits[hits.length - 1].getSortValues()));
+                next.setParams(params);
+                result.setNextCursor(SearchCursorCodec.encode(next));
+            }
+            future.complete(result);
+        }, future::completeExceptionally);
+        hotelHedgedClient.searchAsync(request, esMetrics.listener("search", HotelConstant.INDEX_NAME, hotelLoadShedder.listener(listener)));
+        return future;
+    }
+
+    /**
+     * 高级客户端没有封装point in time的API，通过低级客户端调用 POST /hotel/_pit。
+     * 按城市路由时只在城市所在的分片上打开，之后的翻页也只查询这个分片
+     */
+    private CompletableFuture<String> openPointInTime(RequestParams params) {
+        Request request = new Request("POST", "/" + HotelConstant.INDEX_NAME + "/_pit");
+        request.addParameter("keep_alive", properties.getCursorKeepAlive());
+        String routing = hotelRoutingService.routingOf(params);
+        if (routing != null) {
+            request.addParameter("routing", routing);
+        }
+        CompletableFuture<String> future = new CompletableFuture<>();
+        ResponseListener listener = new ResponseListener() {
+            @Override
+            public void onSuccess(Response response) {
+                try {
+                    future.complete(JSONUtil.parseObj(EntityUtils.toString(response.getEntity())).getStr("id"));
+                } catch (IOException | RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                future.completeExceptionally(e);
+            }
+        };
+        client.getLowLevelClient().performRequestAsync(request, esMetrics.listener("pit", HotelConstant.INDEX_NAME, hotelLoadShedder.listener(listener)));
+        return future;
+    }
+
+    /**
+     * DELETE /_pit，失败时不影响本次查询，等保活时间到期后ES自动释放
+     */
+    private void closePointInTime(String pit) {
+        Request request = new Request("DELETE", "/_pit");
+        request.setJsonEntity(JSONUtil.createObj().set("id", pit).toString());
+        ResponseListener listener = new ResponseListener() {
+            @Override
+            public void onSuccess(Response response) {
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                log.warn("释放point in time失败：{}", e.getMessage());
+            }
+        };
+        client.getLowLevelClient().performRequestAsync(request, esMetrics.listener("pit", HotelConstant.INDEX_NAME, hotelLoadShedder.listener(listener)));
+    }
+
+    private TimeValue keepAlive() {
+        return TimeValue.parseTimeValue(properties.getCursorKeepAlive(), "hotel.search.cursor-keep-alive");
+    }
+}
@@ -4,15 +4,109 @@ import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.chan.hotel.pojo.Hotel;
 import com.chan.hotel.service.HotelService;
 import com.chan.hotel.mapper.HotelMapper;
+import com.chan.hotel.service.HotelSyncService;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.Resource;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
 /**
- *
+ * 按id写库的方法执行成功后，把变更的酒店id交给HotelSyncService，合并后同步到ES。
+ * 可能修改城市或删除酒店的方法在写库前记下酒店原来的城市，按城市路由时用来删除旧分片上的文档。
+ * <p>
+ * 按Wrapper条件更新、删除的方法拿不到具体id，不会触发同步。
  */
 @Service
 public class HotelServiceImpl extends ServiceImpl<HotelMapper, Hotel>
     implements HotelService{
 
+    @Resource
+    private HotelSyncService hotelSyncService;
+
+    @Override
+    public boolean save(Hotel entity) {
+        return changed(super.save(entity), entity);
+    }
+
+    @Override
+    public boolean saveBatch(Collection<Hotel> entityList, int batchSize) {
+        return changed(super.saveBatch(entityList, batchSize), entityList);
+    }
+
+    @Override
+    public boolean saveOrUpdate(Hotel entity) {
+        recordRoutings(entity);
+        return changed(super.saveOrUpdate(entity), entity);
+    }
+
+    @Override
+    public boolean saveOrUpdateBatch(Collection<Hotel> entityList, int batchSize) {
+        recordRoutings(entityList);
+        return changed(super.saveOrUpdateBatch(entityList, batchSize), entityList);
+    }
+
+    @Override
+    public boolean updateById(Hotel entity) {
+        recordRoutings(entity);
+        return changed(super.updateById(entity), entity);
+    }
+
+    @Override
+    public boolean updateBatchById(Collection<Hotel> entityList, int batchSize) {
+        recordRoutings(entityList);
+        return changed(super.updateBatchById(entityList, batchSize), entityList);
+    }
+
+    @Override
+    public boolean removeById(Serializable id) {
+        hotelSyncService.recordRoutings(Collections.singletonList(Long.valueOf(id.toString())));
+        boolean removed = super.removeById(id);
+        if (removed) {
+            hotelSyncService.markChanged(id);
+        }
+        return removed;
+    }
+
+    @Override
+    public boolean removeByIds(Collection<? extends Serializable> idList) {
+        hotelSyncService.recordRoutings(idList.stream().map(id -> Long.valueOf(id.toString())).collect(Collectors.toList()));
+        boolean removed = super.removeByIds(idList);
+        if (removed) {
+            hotelSyncService.markChanged(idList);
+        }
+        return removed;
+    }
+
+    private void recordRoutings(Hotel entity) {
+        if (entity.getId() != null) {
+            hotelSyncService.recordRoutings(Collections.singletonList(entity.getId()));
+        }
+    }
+
+    private void recordRoutings(Collection<Hotel> entityList) {
+        List<Long> ids = entityList.stream().map(Hotel::getId).filter(Objects::nonNull).collect(Collectors.toList());
+        hotelSyncService.recordRoutings(ids);
+    }
+
+    private boolean changed(boolean success, Hotel entity) {
+        if (success) {
+            hotelSyncService.markChanged(entity.getId());
+        }
+        return success;
+    }
+
+    private boolean changed(boolean success, Collection<Hotel> entityList) {
+        if (success) {
+            List<Long> ids = entityList.stream().map(Hotel::getId).collect(Collectors.toList());
+            hotelSyncService.markChanged(ids);
+        }
+        return success;
+    }
 }
 
 
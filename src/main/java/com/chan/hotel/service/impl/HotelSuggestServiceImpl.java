@@ -0,0 +1,136 @@
+package com.chan.hotel.service.impl;
+
+import com.chan.hotel.config.HotelSuggestProperties;
+import com.chan.hotel.constants.HotelConstant;
+import com.chan.hotel.hedge.HotelHedgedClient;
+import com.chan.hotel.metrics.EsMetrics;
+import com.chan.hotel.mapper.HotelMapper;
+import com.chan.hotel.pojo.Hotel;
+import com.chan.hotel.pojo.HotelDoc;
+import com.chan.hotel.service.HotelSuggestService;
+import com.chan.hotel.utils.HotelPrefixTrie;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.search.suggest.SuggestBuilder;
+import org.elasticsearch.search.suggest.SuggestBuilders;
+import org.elasticsearch.search.suggest.completion.CompletionSuggestion;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Slf4j
+@Service
+public class HotelSuggestServiceImpl implements HotelSuggestService {
+
+    private static final String SUGGESTION_NAME = "suggestions";
+
+    /**
+     * 本地前缀树，未开启或尚未构建完成时为null
+     */
+    private volatile HotelPrefixTrie trie;
+
+    @Resource
+    private HotelMapper hotelMapper;
+
+    @Resource
+    private HotelHedgedClient hotelHedgedClient;
+
+    @Resource
+    private EsMetrics esMetrics;
+
+    @Resource
+    private HotelSuggestProperties properties;
+
+    @Override
+    public CompletableFuture<List<String>> suggest(String prefix) {
+        String key = StringUtils.trimToNull(prefix);
+        if (key == null) {
+            return CompletableFuture.completedFuture(Collections.emptyList());
+        }
+        HotelPrefixTrie local = this.trie;
+        if (local != null) {
+            List<String> suggestions = local.suggest(key, properties.getSize());
+            if (!suggestions.isEmpty()) {
+                return CompletableFuture.completedFuture(suggestions);
+            }
+        }
+        // 1.准备Request，只要补全结果，不要文档
+        SearchRequest request = new SearchRequest(HotelConstant.INDEX_NAME);
+        request.source().size(0).fetchSource(false);
+        request.source().suggest(new SuggestBuilder().addSuggestion(SUGGESTION_NAME,
+                SuggestBuilders.completionSuggestion("suggestion")
+                        .prefix(key)
+                        .skipDuplicates(true)
+                        .size(properties.getSize())));
+        // 2.异步发送请求并解析
+        CompletableFuture<List<String>> future = new CompletableFuture<>();
+        ActionListener<SearchResponse> listener = ActionListener.wrap(response -> {
+            CompletionSuggestion suggestion = response.getSuggest().getSuggestion(SUGGESTION_NAME);
+            List<String> suggestions = new ArrayList<>();
+            for (CompletionSuggestion.Entry.Option option : suggestion.getOptions()) {
+                suggestions.add(option.getText().string());
+            }
+            future.complete(suggestions);
+        }, future::completeExceptionally);
+        hotelHedgedClient.searchAsync(request, esMetrics.listener("search", HotelConstant.INDEX_NAME, listener));
+        return future;
+    }
+
+    /**
+     * 应用启动完成后在后台构建，不阻塞启动
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (properties.isLocalTrieEnabled()) {
+            CompletableFuture.runAsync(this::rebuildTrie);
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${hotel.suggest.trie-refresh-ms:600000}",
+            initialDelayString = "${hotel.suggest.trie-refresh-ms:600000}")
+    public void rebuildTrie() {
+        if (!properties.isLocalTrieEnabled()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        // 按id游标分批读库，只保留补全词和权重，不保留Hotel对象
+        // 权重为包含该词的酒店评分之和：品牌、商圈被多家酒店共享，自然排在单个酒店名称前面
+        HotelPrefixTrie.Builder builder = HotelPrefixTrie.builder(properties.getTrieTopK());
+        int fetchSize = 1000;
+        Long lastId = null;
+        List<Hotel> hotels;
+        try {
+            do {
+                hotels = hotelMapper.selectBatchAfterId(lastId, fetchSize);
+                for (Hotel hotel : hotels) {
+                    long weight = hotel.getScore() == null ? 1 : Math.max(1, hotel.getScore());
+                    for (String term : HotelDoc.suggestionsOf(hotel)) {
+                        builder.add(term, weight);
+                    }
+                    lastId = hotel.getId();
+                }
+            } while (hotels.size() == fetchSize);
+        } catch (RuntimeException e) {
+            // 构建失败时保留旧的前缀树
+            log.error("构建自动补全前缀树失败", e);
+            return;
+        }
+        this.trie = builder.build();
+        log.info("构建自动补全前缀树完成，共 {} 个词，耗时 {} ms", trie.size(), System.currentTimeMillis() - start);
+    }
+}
@@ -0,0 +1,356 @@
+package com.chan.hotel.service.impl;
+
+import cn.hutool.json.JSONConfig;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import com.chan.hotel.cache.HotelSearchCache;
+import com.chan.hotel.config.HotelSyncProperties;
+import com.chan.hotel.constants.HotelConstant;
+import com.chan.hotel.metrics.EsMetrics;
+import com.chan.hotel.mapper.HotelMapper;
+import com.chan.hotel.pojo.Hotel;
+import com.chan.hotel.pojo.HotelDoc;
+import com.chan.hotel.service.HotelRoutingService;
+import com.chan.hotel.service.HotelSyncService;
+import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.rest.RestStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.Resource;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按酒店id合并变更的增量同步：
+ * <p>
+ * - 写库时只记录发生变更的酒店id，同一个id在窗口内无论变更多少次都只记一次
+ * - 窗口到期后按id批量回查tb_hotel：存在则发送UpdateRequest（doc_as_upsert，为null的字段也写出），不存在则发送DeleteRequest
+ * - UpdateRequest默认开启detect_noop，内容没变的文档ES不会重新索引
+ * - 按城市路由时，写库前由recordRoutings记下酒店原来的城市，同步时删除旧城市分片上的文档
+ * - 失败的id退避后重试：整批失败（ES、数据库不可用）不限次数；单条失败只重试429和5xx，最多maxRetries次，其他直接丢弃
+ * <p>
+ * 同步的是回查时数据库里的最新值，所以不关心窗口内变更的先后顺序。
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Slf4j
+@Service
+public class HotelSyncServiceImpl implements HotelSyncService {
+
+    /**
+     * 待同步的酒店id，Set本身就完成了按id合并
+     */
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 重建索引期间同步过的酒店id，没有在重建时为null
+     */
+    private volatile Set<Long> tracked;
+
+    /**
+     * 同步失败等待重试的酒店id，到期后与下一个窗口一起同步
+     */
+    private final Map<Long, Retry> retries = new ConcurrentHashMap<>();
+
+    /**
+     * 按城市路由时，写库前记下的酒店所在城市：文档可能还在这些城市的分片上
+     */
+    private final Map<Long, Set<String>> previousRoutings = new ConcurrentHashMap<>();
+
+    @Resource
+    private HotelMapper hotelMapper;
+
+    @Resource
+    private RestHighLevelClient client;
+
+    @Resource
+    private EsMetrics esMetrics;
+
+    @Resource
+    private HotelSyncProperties properties;
+
+    @Resource
+    private HotelSearchCache hotelSearchCache;
+
+    @Resource
+    private HotelRoutingService hotelRoutingService;
+
+    @Override
+    public void markChanged(Serializable id) {
+        markChanged(Collections.singletonList(id));
+    }
+
+    @Override
+    public void markChanged(Collection<? extends Serializable> ids) {
+        if (!properties.isEnabled() || ids == null || ids.isEmpty()) {
+            return;
+        }
+        List<Long> hotelIds = new ArrayList<>(ids.size());
+        for (Serializable id : ids) {
+            if (id != null) {
+                hotelIds.add(Long.valueOf(id.toString()));
+            }
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // 事务提交后再标记，避免回查时读到未提交或者已回滚的数据
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pending.addAll(hotelIds);
+                }
+            });
+        } else {
+            pending.addAll(hotelIds);
+        }
+    }
+
+    @Override
+    public void recordRoutings(Collection<Long> ids) {
+        if (!hotelRoutingService.isEnabled() || ids.isEmpty()) {
+            return;
+        }
+        hotelRoutingService.routingsOf(ids).forEach((id, routing) ->
+                previousRoutings.computeIfAbsent(id, k -> ConcurrentHashMap.newKeySet()).add(routing));
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${hotel.sync.window-ms:1000}")
+    public void flush() {
+        // 到期的重试与当前窗口一起同步，结果出来之前仍留在retries中
+        long now = System.currentTimeMillis();
+        retries.forEach((id, retry) -> {
+            if (retry.dueAt <= now) {
+                pending.add(id);
+            }
+        });
+        if (pending.isEmpty()) {
+            return;
+        }
+        // 1.取出当前窗口内的id，之后新来的变更进入下一个窗口
+        List<Long> ids = new ArrayList<>();
+        for (Iterator<Long> it = pending.iterator(); it.hasNext(); ) {
+            ids.add(it.next());
+            it.remove();
+        }
+        int batchSize = properties.getMaxBatchSize();
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> batch = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            try {
+                sync(batch);
+            } catch (RuntimeException | IOException e) {
+                // 整批失败，多半是ES或数据库不可用，退避后重试，不限次数
+                log.error("同步酒店到ES失败，{} 个id退避后重试", batch.size(), e);
+                batch.forEach(id -> retryLater(id, false));
+            }
+        }
+    }
+
+    @Override
+    public void startTracking() {
+        tracked = ConcurrentHashMap.newKeySet();
+    }
+
+    @Override
+    public Set<Long> stopTracking() {
+        Set<Long> ids = tracked;
+        tracked = null;
+        return ids == null ? Collections.emptySet() : ids;
+    }
+
+    @Override
+    public void sync(Collection<Long> ids) throws IOException {
+        if (ids.isEmpty()) {
+            return;
+        }
+        // 发送之前记录：正在发送时切换别名的请求也可能写入旧索引
+        Set<Long> tracking = tracked;
+        if (tracking != null) {
+            tracking.addAll(ids);
+        }
+        // 2.按id回查最新数据
+        Map<Long, Hotel> hotels = new HashMap<>(ids.size() * 2);
+        for (Hotel hotel : hotelMapper.selectBatchIds(ids)) {
+            hotels.put(hotel.getId(), hotel);
+        }
+        // 按城市路由时，更新、删除都要带上文档写入时的路由：写库前记下的城市，加上搜索能看到的路由
+        Map<Long, Set<String>> recorded = takeRecordedRoutings(ids);
+        BulkResponse response;
+        try {
+            response = sync(ids, hotels, recorded);
+        } catch (IOException | RuntimeException e) {
+            restoreRecordedRoutings(recorded);
+            throw e;
+        }
+        Set<Long> failed = new HashSet<>();
+        if (response != null) {
+            hotelSearchCache.invalidate();
+            for (BulkItemResponse item : response.getItems()) {
+                if (!item.isFailed()) {
+                    continue;
+                }
+                Long id = Long.valueOf(item.getId());
+                if (!failed.add(id)) {
+                    // 同一个id的另一个请求（换城市时的删除）已经处理过
+                    continue;
+                }
+                restoreRecordedRoutings(Collections.singletonMap(id, recorded.get(id)));
+                if (isRetryable(item.status())) {
+                    retryLater(id, true);
+                } else {
+                    // 映射不符（400）等，重试也没有用，等数据修正后的下一次变更或一致性修复
+                    retries.remove(id);
+                    log.error("酒店 {} 同步到ES被拒绝，丢弃：{}", id, item.getFailureMessage());
+                }
+            }
+            if (response.hasFailures()) {
+                log.warn("同步酒店到ES部分失败：{}", response.buildFailureMessage());
+            }
+        }
+        for (Long id : ids) {
+            if (!failed.contains(id)) {
+                retries.remove(id);
+            }
+        }
+        log.debug("同步 {} 个酒店到ES，更新 {} 个，删除 {} 个",
+                ids.size(), hotels.size(), ids.size() - hotels.size());
+    }
+
+    /**
+     * @return bulk的响应，没有需要发送的请求时为null
+     */
+    private BulkResponse sync(Collection<Long> ids, Map<Long, Hotel> hotels, Map<Long, Set<String>> recorded) throws IOException {
+        Map<Long, Set<String>> routings = hotelRoutingService.currentRoutings(ids);
+        // 3.存在的发送局部更新，不存在的发送删除
+        BulkRequest request = new BulkRequest();
+        for (Long id : ids) {
+            Hotel hotel = hotels.get(id);
+            Set<String> current = new HashSet<>(routings.getOrDefault(id, Collections.emptySet()));
+            current.addAll(recorded.getOrDefault(id, Collections.emptySet()));
+            if (hotel == null) {
+                if (!hotelRoutingService.isEnabled()) {
+                    request.add(new DeleteRequest(HotelConstant.INDEX_NAME, id.toString()));
+                }
+                for (String routing : current) {
+                    request.add(new DeleteRequest(HotelConstant.INDEX_NAME, id.toString()).routing(routing));
+                }
+                continue;
+            }
+            HotelDoc hotelDoc;
+            String routing;
+            try {
+                hotelDoc = new HotelDoc(hotel);
+                routing = hotelRoutingService.routingOf(hotelDoc);
+            } catch (IllegalArgumentException e) {
+                // 数据不合法，重试也没有用，等数据修正后的下一次变更再同步，那时还要删除旧城市的文档
+                log.warn("跳过不合法的酒店数据：{}", e.getMessage());
+                restoreRecordedRoutings(Collections.singletonMap(id, recorded.get(id)));
+                continue;
+            }
+            for (String old : current) {
+                if (!old.equals(routing)) {
+                    // 城市变了，文档要换到新城市的分片：删除其他分片上的文档
+                    request.add(new DeleteRequest(HotelConstant.INDEX_NAME, id.toString()).routing(old));
+                }
+            }
+            request.add(new UpdateRequest(HotelConstant.INDEX_NAME, id.toString())
+                    .routing(routing)
+                    .doc(toPartialDoc(hotelDoc), XContentType.JSON)
+                    .docAsUpsert(true));
+        }
+        if (request.numberOfActions() == 0) {
+            return null;
+        }
+        return esMetrics.record("bulk", HotelConstant.INDEX_NAME, () -> client.bulk(request, RequestOptions.DEFAULT));
+    }
+
+    /**
+     * 只有429（线程池满）和5xx是暂时的，其他失败重试也没有用
+     */
+    private static boolean isRetryable(RestStatus status) {
+        return status == RestStatus.TOO_MANY_REQUESTS || status.getStatus() >= 500;
+    }
+
+    /**
+     * 退避后重试：等待时间为合并窗口 * 2^(失败次数 - 1)，最长maxBackoffMs
+     *
+     * @param limited 是否限制重试次数，超过maxRetries次后丢弃
+     */
+    private void retryLater(Long id, boolean limited) {
+        Retry retry = retries.compute(id, (k, old) -> {
+            int attempts = old == null ? 1 : old.attempts + 1;
+            long backoff = Math.min(properties.getMaxBackoffMs(),
+                    properties.getWindowMs() << Math.min(attempts - 1, 20));
+            return new Retry(attempts, System.currentTimeMillis() + backoff);
+        });
+        if (limited && retry.attempts > properties.getMaxRetries()) {
+            retries.remove(id);
+            log.error("酒店 {} 同步到ES连续失败 {} 次，丢弃，等待一致性修复", id, retry.attempts);
+        }
+    }
+
+    private Map<Long, Set<String>> takeRecordedRoutings(Collection<Long> ids) {
+        if (previousRoutings.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Long, Set<String>> recorded = new HashMap<>();
+        for (Long id : ids) {
+            Set<String> routings = previousRoutings.remove(id);
+            if (routings != null) {
+                recorded.put(id, routings);
+            }
+        }
+        return recorded;
+    }
+
+    /**
+     * 同步失败，记下的城市留给下一次同步
+     */
+    private void restoreRecordedRoutings(Map<Long, Set<String>> recorded) {
+        recorded.forEach((id, routings) -> {
+            if (routings != null) {
+                previousRoutings.computeIfAbsent(id, k -> ConcurrentHashMap.newKeySet()).addAll(routings);
+            }
+        });
+    }
+
+    /**
+     * 局部更新会与已有文档合并，库里清空的列必须以null写出，否则ES保留旧值。distance只用于查询结果，不写入
+     */
+    private static String toPartialDoc(HotelDoc hotelDoc) {
+        JSONObject doc = JSONUtil.parseObj(hotelDoc, JSONConfig.create().setIgnoreNullValue(false));
+        doc.remove("distance");
+        return doc.toString();
+    }
+
+    private static final class Retry {
+        private final int attempts;
+        private final long dueAt;
+
+        Retry(int attempts, long dueAt) {
+            this.attempts = attempts;
+            this.dueAt = dueAt;
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package com.chan.hotel.service.impl;
+
+import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import com.chan.hotel.config.HotelUpdateBufferProperties;
+import com.chan.hotel.mapper.HotelMapper;
+import com.chan.hotel.pojo.Hotel;
+import com.chan.hotel.schema.HotelSchemaRegistry;
+import com.chan.hotel.service.HotelSyncService;
+import com.chan.hotel.service.HotelUpdateBuffer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 写缓冲+本地日志：
+ * <p>
+ * - update：在锁内先把更新追加到当前日志段（可选fsync），再合并到内存，返回即代表更新不会丢失
+ * - flush：封存当前日志段并换一个新段，取出内存中的全部更新，分批以一条update语句写入tb_hotel，
+ * 再由HotelSyncService回查同步到ES；写库失败的更新重新合并回内存并写入新段，之后被封存的旧段可以安全删除
+ * - 启动：按顺序回放目录中的全部日志段，恢复上次未写入数据库的更新
+ * <p>
+ * 更新先落到tb_hotel而不是直接写ES：增量同步、一致性修复都以数据库为准，直接写ES的修改会被它们用旧值覆盖。
+ * 同步走与其他写库相同的路径，按城市路由时修改城市也会把文档搬到新城市的分片
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Slf4j
+@Service
+public class HotelUpdateBufferImpl implements HotelUpdateBuffer {
+
+    /**
+     * 允许局部更新的字段，与tb_hotel的列对应。location、suggestion由多个列计算得到，经纬度只能通过其他写库的途径修改
+     */
+    private static final Set<String> UPDATABLE_FIELDS = new HashSet<>(Arrays.asList(
+            "name", "address", "price", "score", "brand", "city", "starName", "business", "pic"));
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Object lock = new Object();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ExecutorService flushExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "hotel-update-buffer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 酒店id -> 合并后的待更新字段
+     */
+    private Map<Long, Map<String, Object>> pending = new HashMap<>();
+
+    /**
+     * 已封存的日志段，其中的更新都已经在pending中或者正在刷新
+     */
+    private final List<Path> sealedSegments = new ArrayList<>();
+
+    private Path journalDir;
+    private long segmentSeq;
+    private Path currentSegment;
+    private FileChannel journal;
+
+    @Resource
+    private HotelMapper hotelMapper;
+
+    @Resource
+    private HotelSyncService hotelSyncService;
+
+    @Resource
+    private HotelUpdateBufferProperties properties;
+
+    @Resource
+    private HotelSchemaRegistry hotelSchemaRegistry;
+
+    @PostConstruct
+    public void init() throws IOException {
+        journalDir = Paths.get(properties.getJournalDir());
+        Files.createDirectories(journalDir);
+        // 回放上次遗留的日志段
+        for (Path segment : listSegments()) {
+            int count = replay(segment);
+            sealedSegments.add(segment);
+            segmentSeq = Math.max(segmentSeq, segmentSeq(segment));
+            log.info("从日志 {} 恢复 {} 条未写入数据库的更新", segment, count);
+        }
+        openSegment();
+    }
+
+    @Override
+    public void update(Long id, Map<String, Object> fields) {
+        if (id == null || fields == null || fields.isEmpty()) {
+            throw new IllegalArgumentException("酒店id和修改的字段不能为空");
+        }
+        for (Map.Entry<String, Object> entry : fields.entrySet()) {
+            if (!UPDATABLE_FIELDS.contains(entry.getKey())) {
+                throw new IllegalArgumentException("字段不允许修改：" + entry.getKey());
+            }
+            if (entry.getValue() == null) {
+                throw new IllegalArgumentException("字段的值不能为null：" + entry.getKey());
+            }
+            checkType(entry.getKey(), entry.getValue());
+        }
+        int size;
+        synchronized (lock) {
+            append(id, fields);
+            pending.computeIfAbsent(id, k -> new LinkedHashMap<>()).putAll(fields);
+            size = pending.size();
+        }
+        if (size >= properties.getMaxPending()) {
+            flushExecutor.execute(this::flush);
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${hotel.update-buffer.flush-interval-ms:1000}")
+    public void flush() {
+        // 同一时间只有一个刷新，正在刷新时直接跳过，剩下的更新留给下一次
+        if (!flushLock.tryLock()) {
+            return;
+        }
+        try {
+            Map<Long, Map<String, Object>> snapshot;
+            List<Path> segments;
+            synchronized (lock) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                // 1.封存当前日志段，新的更新写入新段
+                sealCurrentSegment();
+                segments = new ArrayList<>(sealedSegments);
+                snapshot = pending;
+                pending = new HashMap<>();
+            }
+            // 2.写入合并后的更新，失败的重新放回缓冲
+            Map<Long, Map<String, Object>> failed;
+            try {
+                failed = send(snapshot);
+            } catch (RuntimeException e) {
+                log.error("写入 {} 个酒店的局部更新失败，等待重试", snapshot.size(), e);
+                failed = snapshot;
+            }
+            synchronized (lock) {
+                // 先放回内存，期间到达的新更新覆盖失败的旧值
+                Map<Long, Map<String, Object>> requeued = new LinkedHashMap<>();
+                for (Map.Entry<Long, Map<String, Object>> entry : failed.entrySet()) {
+                    Map<String, Object> merged = new LinkedHashMap<>(entry.getValue());
+                    Map<String, Object> newer = pending.get(entry.getKey());
+                    if (newer != null) {
+                        merged.putAll(newer);
+                    }
+                    pending.put(entry.getKey(), merged);
+                    requeued.put(entry.getKey(), merged);
+                }
+                // 再把合并结果写入新段；写日志失败时保留封存的旧段，其中的更新由下一次刷新处理后再删除
+                requeued.forEach(this::append);
+                sealedSegments.removeAll(segments);
+            }
+            // 3.封存段中的更新要么已经写入数据库，要么已经重新写入新段，可以删除
+            for (Path segment : segments) {
+                Files.deleteIfExists(segment);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("刷新局部更新缓冲失败", e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 按batchSize分批写入tb_hotel，每批写入后立即同步到ES
+     *
+     * @return 需要重试的更新
+     */
+    private Map<Long, Map<String, Object>> send(Map<Long, Map<String, Object>> snapshot) {
+        Map<Long, Map<String, Object>> failed = new HashMap<>();
+        List<Long> ids = new ArrayList<>(snapshot.keySet());
+        int batchSize = Math.max(1, properties.getBatchSize());
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> batch = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            try {
+                List<Hotel> hotels = new ArrayList<>(batch.size());
+                // 修改城市时记下原来的城市，同步时删除旧分片上的文档
+                List<Long> cityChanged = new ArrayList<>();
+                for (Long id : batch) {
+                    Hotel hotel = BeanUtil.fillBeanWithMap(snapshot.get(id), new Hotel(), false);
+                    hotel.setId(id);
+                    hotels.add(hotel);
+                    if (snapshot.get(id).containsKey("city")) {
+                        cityChanged.add(id);
+                    }
+                }
+                hotelSyncService.recordRoutings(cityChanged);
+                hotelMapper.updateBatch(hotels);
+            } catch (RuntimeException e) {
+                log.error("写入 {} 个酒店的局部更新失败，等待重试", batch.size(), e);
+                batch.forEach(id -> failed.put(id, snapshot.get(id)));
+                continue;
+            }
+            // 已经写入数据库，同步失败时交给增量同步的下一个窗口，不再重试写库
+            try {
+                hotelSyncService.sync(batch);
+            } catch (IOException | RuntimeException e) {
+                log.warn("{} 个酒店的局部更新同步到ES失败，放入增量同步的下一个窗口", batch.size(), e);
+                List<Long> changed = new ArrayList<>(batch);
+                hotelSyncService.markChanged(changed);
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * 按当前版本的映射检查值的类型：keyword、text只接受字符串，integer、long只接受整数，
+     * 否则写库时无法转换，或者同步时被ES以mapper_parsing_exception拒绝
+     */
+    @SuppressWarnings("unchecked")
+    private void checkType(String field, Object value) {
+        Map<String, Object> fieldProperties = (Map<String, Object>) hotelSchemaRegistry.current().getMappingsAsMap().get("properties");
+        Map<String, Object> mapping = fieldProperties == null ? null : (Map<String, Object>) fieldProperties.get(field);
+        String type = mapping == null ? null : (String) mapping.get("type");
+        if (type == null) {
+            throw new IllegalArgumentException("映射中没有字段：" + field);
+        }
+        boolean valid;
+        switch (type) {
+            case "keyword":
+            case "text":
+                valid = value instanceof String;
+                break;
+            case "integer":
+                valid = (value instanceof Integer || value instanceof Short || value instanceof Byte
+                        || value instanceof Long && (Long) value == ((Long) value).intValue());
+                break;
+            case "long":
+                valid = value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+                break;
+            default:
+                valid = false;
+        }
+        if (!valid) {
+            throw new IllegalArgumentException("字段 " + field + " 的类型应为" + type + "：" + value);
+        }
+    }
+
+    private void append(Long id, Map<String, Object> fields) {
+        JSONObject record = JSONUtil.createObj().set("id", id).set("fields", fields);
+        ByteBuffer buffer = ByteBuffer.wrap((record.toString() + "\n").getBytes(StandardCharsets.UTF_8));
+        try {
+            while (buffer.hasRemaining()) {
+                journal.write(buffer);
+            }
+            if (properties.isFsync()) {
+                journal.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("写入局部更新日志失败", e);
+        }
+    }
+
+    private int replay(Path segment) throws IOException {
+        int count = 0;
+        try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                try {
+                    JSONObject record = JSONUtil.parseObj(line);
+                    Long id = record.getLong("id");
+                    JSONObject fields = record.getJSONObject("fields");
+                    pending.computeIfAbsent(id, k -> new LinkedHashMap<>()).putAll(fields);
+                    count++;
+                } catch (RuntimeException e) {
+                    // 崩溃时写了一半的最后一行
+                    log.warn("忽略无法解析的日志行：{}", line);
+                }
+            }
+        }
+        return count;
+    }
+
+    private List<Path> listSegments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(journalDir, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(segments::add);
+        }
+        segments.sort((a, b) -> Long.compare(segmentSeq(a), segmentSeq(b)));
+        return segments;
+    }
+
+    private long segmentSeq(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private void openSegment() throws IOException {
+        segmentSeq++;
+        Path segment = journalDir.resolve(SEGMENT_PREFIX + segmentSeq + SEGMENT_SUFFIX);
+        journal = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        currentSegment = segment;
+    }
+
+    private void sealCurrentSegment() throws IOException {
+        journal.close();
+        sealedSegments.add(currentSegment);
+        openSegment();
+    }
+
+    @PreDestroy
+    public void destroy() throws IOException {
+        flushExecutor.shutdown();
+        // 尽量在停机前写入数据库，失败的更新仍保留在日志中，下次启动时恢复
+        flush();
+        synchronized (lock) {
+            journal.close();
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.chan.hotel.service.impl;
+
+import com.chan.hotel.config.HotelFacetProperties;
+import com.chan.hotel.config.HotelLuceneProperties;
+import com.chan.hotel.lucene.HotelLuceneIndex;
+import com.chan.hotel.mapper.HotelMapper;
+import com.chan.hotel.pojo.FacetResult;
+import com.chan.hotel.pojo.Hotel;
+import com.chan.hotel.pojo.HotelDoc;
+import com.chan.hotel.pojo.NearbyParams;
+import com.chan.hotel.pojo.PageResult;
+import com.chan.hotel.pojo.RequestParams;
+import com.chan.hotel.service.HotelSearchEngine;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.MMapDirectory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 本地Lucene实现，索引由tb_hotel定时全量构建，查询在调用线程中同步执行。
+ * <p>
+ * 数据相对tb_hotel最多延迟一个构建周期，只用于ES不可用时的降级读
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+@Slf4j
+@Service
+public class LuceneHotelSearchEngine implements HotelSearchEngine {
+
+    private static final int FETCH_SIZE = 1000;
+
+    @Resource
+    private HotelMapper hotelMapper;
+
+    @Resource
+    private HotelLuceneProperties properties;
+
+    @Resource
+    private HotelFacetProperties facetProperties;
+
+    private HotelLuceneIndex index;
+
+    /**
+     * 至少有一次完整构建的数据可以搜索
+     */
+    private volatile boolean ready;
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Directory directory;
+        if (StringUtils.isBlank(properties.getDirectory())) {
+            directory = new ByteBuffersDirectory();
+        } else {
+            Path path = Paths.get(properties.getDirectory());
+            Files.createDirectories(path);
+            directory = new MMapDirectory(path);
+        }
+        index = new HotelLuceneIndex(directory);
+        // 上一次运行构建的索引在重启后立即可用，ES和数据库都不可用时也能降级
+        ready = index.numDocs() > 0;
+    }
+
+    /**
+     * @return 本地索引是否可以搜索
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public CompletableFuture<PageResult> search(RequestParams params) {
+        CompletableFuture<PageResult> future = new CompletableFuture<>();
+        try {
+            future.complete(readyIndex().search(params));
+        } catch (IOException | RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<PageResult> nearby(NearbyParams params) {
+        CompletableFuture<PageResult> future = new CompletableFuture<>();
+        try {
+            future.complete(readyIndex().nearby(params));
+        } catch (IOException | RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<FacetResult> facets(RequestParams params) {
+        CompletableFuture<FacetResult> future = new CompletableFuture<>();
+        try {
+            future.complete(readyIndex().facets(params, facetProperties.getSize(), facetProperties.getPriceRanges()));
+        } catch (IOException | RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * 应用启动完成后在后台构建，不阻塞启动
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (properties.isEnabled()) {
+            CompletableFuture.runAsync(this::rebuild);
+        }
+    }
+
+    /**
+     * 从tb_hotel全量重建，失败时继续使用上一次的数据
+     */
+    @Scheduled(fixedDelayString = "${hotel.lucene.rebuild-interval-ms:600000}",
+            initialDelayString = "${hotel.lucene.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        if (index == null) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            long count = index.replaceAll(new HotelDocIterator(hotelMapper));
+            ready = true;
+            log.info("本地索引构建完成，{}家酒店，耗时{}ms", count, System.currentTimeMillis() - start);
+        } catch (IOException | RuntimeException e) {
+            log.error("本地索引构建失败，继续使用上一次的数据", e);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (index != null) {
+            index.close();
+        }
+    }
+
+    private HotelLuceneIndex readyIndex() {
+        if (!ready) {
+            throw new IllegalStateException("本地索引未启用或尚未构建完成");
+        }
+        return index;
+    }
+
+    /**
+     * 按id游标分批读库，跳过经纬度不合法的行
+     */
+    private static final class HotelDocIterator implements Iterator<HotelDoc> {
+
+        private final HotelMapper hotelMapper;
+        private Iterator<Hotel> batch = Collections.emptyIterator();
+        private Long lastId;
+        private boolean exhausted;
+        private HotelDoc next;
+
+        HotelDocIterator(HotelMapper hotelMapper) {
+            this.hotelMapper = hotelMapper;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                if (!batch.hasNext()) {
+                    if (exhausted) {
+                        return false;
+                    }
+                    List<Hotel> hotels = hotelMapper.selectBatchAfterId(lastId, FETCH_SIZE);
+                    exhausted = hotels.size() < FETCH_SIZE;
+                    batch = hotels.iterator();
+                    continue;
+                }
+                Hotel hotel = batch.next();
+                lastId = hotel.getId();
+                try {
+                    next = new HotelDoc(hotel);
+                } catch (IllegalArgumentException e) {
+                    log.warn("跳过不合法的酒店数据：{}", e.getMessage());
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public HotelDoc next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            HotelDoc hotelDoc = next;
+            next = null;
+            return hotelDoc;
+        }
+    }
+}
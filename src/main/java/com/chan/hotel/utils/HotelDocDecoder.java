@@ -0,0 +1,190 @@
+package com.chan.hotel.utils;
+
+import com.chan.hotel.pojo.GeoLocation;
+import com.chan.hotel.pojo.HotelDoc;
+import com.chan.hotel.pojo.PageResult;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.xcontent.DeprecationHandler;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.SearchHits;
+import org.elasticsearch.search.fetch.subphase.highlight.HighlightField;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 直接从_source的字节流解析HotelDoc。
+ * <p>
+ * 与 hit.getSourceAsString() + JSONUtil.toBean() 相比，不会先生成整个文档的String，
+ * 也不会经过反射和中间的JSONObject；高亮结果在同一次解析中合并。
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public final class HotelDocDecoder {
+
+    /**
+     * 列表页需要的字段，搜索时作为_source的includes，其余字段不会在网络上传输
+     */
+    public static final String[] LIST_FIELDS = {
+            "id", "name", "address", "price", "score", "brand", "city", "starName", "business", "location", "pic"
+    };
+
+    private HotelDocDecoder() {
+    }
+
+    /**
+     * 解析搜索响应中的总条数和当前页数据
+     *
+     * @param response 搜索响应
+     * @return 分页结果，没有统计总条数时total为null
+     * @throws IOException 解析_source失败
+     */
+    public static PageResult decode(SearchResponse response) throws IOException {
+        SearchHits searchHits = response.getHits();
+        Long total = searchHits.getTotalHits() == null ? null : searchHits.getTotalHits().value;
+        SearchHit[] hits = searchHits.getHits();
+        List<HotelDoc> hotels = new ArrayList<>(hits.length);
+        for (SearchHit hit : hits) {
+            hotels.add(decode(hit));
+        }
+        return new PageResult(total, hotels);
+    }
+
+    /**
+     * 解析一条搜索结果，有name的高亮结果时覆盖name
+     *
+     * @param hit 搜索结果
+     * @return HotelDoc
+     * @throws IOException 解析_source失败
+     */
+    public static HotelDoc decode(SearchHit hit) throws IOException {
+        HotelDoc hotelDoc = decode(hit.getSourceRef());
+        Map<String, HighlightField> highlightFields = hit.getHighlightFields();
+        if (highlightFields != null && !highlightFields.isEmpty()) {
+            HighlightField highlightField = highlightFields.get("name");
+            if (highlightField != null && highlightField.getFragments().length > 0) {
+                hotelDoc.setName(highlightField.getFragments()[0].string());
+            }
+        }
+        return hotelDoc;
+    }
+
+    /**
+     * 解析_source
+     *
+     * @param source _source字节
+     * @return HotelDoc，source为空时返回null
+     * @throws IOException 解析失败
+     */
+    public static HotelDoc decode(BytesReference source) throws IOException {
+        if (source == null || source.length() == 0) {
+            return null;
+        }
+        HotelDoc hotelDoc = new HotelDoc();
+        try (XContentParser parser = XContentHelper.createParser(NamedXContentRegistry.EMPTY,
+                DeprecationHandler.THROW_UNSUPPORTED_OPERATION, source, XContentType.JSON)) {
+            parser.nextToken();
+            String field = null;
+            XContentParser.Token token;
+            while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
+                if (token == XContentParser.Token.FIELD_NAME) {
+                    field = parser.currentName();
+                } else if (token == XContentParser.Token.VALUE_NULL) {
+                    // null值保持默认
+                } else if (token.isValue()) {
+                    readValue(parser, field, hotelDoc);
+                } else if ("location".equals(field)) {
+                    hotelDoc.setLocation(readLocation(parser, token));
+                } else {
+                    // 不认识的对象、数组字段直接跳过
+                    parser.skipChildren();
+                }
+            }
+        }
+        return hotelDoc;
+    }
+
+    private static void readValue(XContentParser parser, String field, HotelDoc hotelDoc) throws IOException {
+        switch (field) {
+            case "id":
+                hotelDoc.setId(parser.longValue());
+                break;
+            case "name":
+                hotelDoc.setName(parser.text());
+                break;
+            case "address":
+                hotelDoc.setAddress(parser.text());
+                break;
+            case "price":
+                hotelDoc.setPrice(parser.intValue());
+                break;
+            case "score":
+                hotelDoc.setScore(parser.intValue());
+                break;
+            case "brand":
+                hotelDoc.setBrand(parser.text());
+                break;
+            case "city":
+                hotelDoc.setCity(parser.text());
+                break;
+            case "starName":
+                hotelDoc.setStarName(parser.text());
+                break;
+            case "business":
+                hotelDoc.setBusiness(parser.text());
+                break;
+            case "location":
+                // 旧数据中的"lat, lon"字符串
+                String[] latLon = parser.text().split(",");
+                if (latLon.length == 2) {
+                    hotelDoc.setLocation(GeoLocation.parse(latLon[0], latLon[1]));
+                }
+                break;
+            case "pic":
+                hotelDoc.setPic(parser.text());
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * 解析{"lat": 31.2, "lon": 121.5}或者[121.5, 31.2]形式的location
+     */
+    private static GeoLocation readLocation(XContentParser parser, XContentParser.Token start) throws IOException {
+        GeoLocation location = new GeoLocation();
+        if (start == XContentParser.Token.START_ARRAY) {
+            // GeoJSON顺序：[lon, lat]
+            parser.nextToken();
+            location.setLon(parser.doubleValue());
+            parser.nextToken();
+            location.setLat(parser.doubleValue());
+            while (parser.nextToken() != XContentParser.Token.END_ARRAY) {
+                parser.skipChildren();
+            }
+            return location;
+        }
+        String field = null;
+        XContentParser.Token token;
+        while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
+            if (token == XContentParser.Token.FIELD_NAME) {
+                field = parser.currentName();
+            } else if ("lat".equals(field)) {
+                location.setLat(parser.doubleValue());
+            } else if ("lon".equals(field)) {
+                location.setLon(parser.doubleValue());
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return location;
+    }
+}
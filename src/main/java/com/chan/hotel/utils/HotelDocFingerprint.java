@@ -0,0 +1,44 @@
+package com.chan.hotel.utils;
+
+import cn.hutool.core.lang.hash.MurmurHash;
+import com.chan.hotel.pojo.GeoLocation;
+import com.chan.hotel.pojo.HotelDoc;
+
+/**
+ * HotelDoc的指纹，用于比较tb_hotel和hotel索引是否一致。
+ * <p>
+ * 只包含从tb_hotel映射过来的字段，不包含suggestion这类派生字段；
+ * 经纬度按解析后的double计算，所以数据库里"31.20"和索引里的31.2得到相同的指纹
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public final class HotelDocFingerprint {
+
+    private static final char SEPARATOR = '\u0001';
+
+    private HotelDocFingerprint() {
+    }
+
+    /**
+     * @param hotelDoc 文档
+     * @return 64位指纹
+     */
+    public static long of(HotelDoc hotelDoc) {
+        GeoLocation location = hotelDoc.getLocation();
+        StringBuilder sb = new StringBuilder(256)
+                .append(hotelDoc.getId()).append(SEPARATOR)
+                .append(hotelDoc.getName()).append(SEPARATOR)
+                .append(hotelDoc.getAddress()).append(SEPARATOR)
+                .append(hotelDoc.getPrice()).append(SEPARATOR)
+                .append(hotelDoc.getScore()).append(SEPARATOR)
+                .append(hotelDoc.getBrand()).append(SEPARATOR)
+                .append(hotelDoc.getCity()).append(SEPARATOR)
+                .append(hotelDoc.getStarName()).append(SEPARATOR)
+                .append(hotelDoc.getBusiness()).append(SEPARATOR)
+                .append(location == null ? null : location.getLat()).append(SEPARATOR)
+                .append(location == null ? null : location.getLon()).append(SEPARATOR)
+                .append(hotelDoc.getPic());
+        return MurmurHash.hash64(sb);
+    }
+}
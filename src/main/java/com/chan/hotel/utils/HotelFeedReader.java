@@ -0,0 +1,120 @@
+package com.chan.hotel.utils;
+
+import cn.hutool.core.text.csv.CsvReadConfig;
+import cn.hutool.core.text.csv.CsvReader;
+import cn.hutool.core.text.csv.CsvRow;
+import cn.hutool.core.text.csv.CsvUtil;
+import cn.hutool.json.JSONUtil;
+import com.chan.hotel.pojo.ExportFormat;
+import com.chan.hotel.pojo.Hotel;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 流式读取合作方的酒店数据：逐行解析并回调，不会把整个文件读入内存。
+ * <p>
+ * 字段名与tb_hotel的实体Hotel相同：id、name、address、price、score、brand、city、starName、business、latitude、longitude、pic。
+ * csv的第一行为表头，列的顺序不限，缺少的列为null
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public final class HotelFeedReader {
+
+    private HotelFeedReader() {
+    }
+
+    /**
+     * @param in       输入流，UTF-8，调用方负责关闭
+     * @param format   ndjson或csv
+     * @param consumer 每一行解析得到的酒店，id不为空
+     * @return 缺少id或者无法解析而跳过的行数
+     * @throws IOException 读取失败
+     */
+    public static long read(InputStream in, ExportFormat format, Consumer<Hotel> consumer) throws IOException {
+        Reader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        return format == ExportFormat.CSV ? readCsv(reader, consumer) : readNdjson((BufferedReader) reader, consumer);
+    }
+
+    private static long readNdjson(BufferedReader reader, Consumer<Hotel> consumer) throws IOException {
+        long skipped = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (StringUtils.isBlank(line)) {
+                continue;
+            }
+            Hotel hotel;
+            try {
+                hotel = JSONUtil.toBean(line, Hotel.class);
+            } catch (RuntimeException e) {
+                skipped++;
+                continue;
+            }
+            if (hotel.getId() == null) {
+                skipped++;
+                continue;
+            }
+            consumer.accept(hotel);
+        }
+        return skipped;
+    }
+
+    private static long readCsv(Reader reader, Consumer<Hotel> consumer) {
+        AtomicLong skipped = new AtomicLong();
+        CsvReader csvReader = CsvUtil.getReader(CsvReadConfig.defaultConfig()
+                .setContainsHeader(true)
+                .setSkipEmptyRows(true)
+                .setTrimField(true));
+        csvReader.read(reader, row -> {
+            Hotel hotel;
+            try {
+                hotel = toHotel(row);
+            } catch (RuntimeException e) {
+                // 数字列无法解析、列数少于表头
+                skipped.incrementAndGet();
+                return;
+            }
+            if (hotel.getId() == null) {
+                skipped.incrementAndGet();
+                return;
+            }
+            consumer.accept(hotel);
+        });
+        return skipped.get();
+    }
+
+    private static Hotel toHotel(CsvRow row) {
+        Hotel hotel = new Hotel();
+        String id = column(row, "id");
+        hotel.setId(id == null ? null : Long.valueOf(id));
+        hotel.setName(column(row, "name"));
+        hotel.setAddress(column(row, "address"));
+        String price = column(row, "price");
+        hotel.setPrice(price == null ? null : Integer.valueOf(price));
+        String score = column(row, "score");
+        hotel.setScore(score == null ? null : Integer.valueOf(score));
+        hotel.setBrand(column(row, "brand"));
+        hotel.setCity(column(row, "city"));
+        hotel.setStarName(column(row, "starName"));
+        hotel.setBusiness(column(row, "business"));
+        hotel.setLatitude(column(row, "latitude"));
+        hotel.setLongitude(column(row, "longitude"));
+        hotel.setPic(column(row, "pic"));
+        return hotel;
+    }
+
+    /**
+     * 缺少的列和空字符串都视为null
+     */
+    private static String column(CsvRow row, String name) {
+        return StringUtils.trimToNull(row.getByName(name));
+    }
+}
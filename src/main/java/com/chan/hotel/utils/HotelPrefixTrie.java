@@ -0,0 +1,116 @@
+package com.chan.hotel.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 只读的前缀树：每个节点预先保存以该前缀开头、权重最高的topK个词，
+ * 查询只需沿前缀走到对应节点，耗时只与前缀长度有关。
+ * <p>
+ * 构建完成后不再修改，可以被多个线程同时读取；刷新时整体替换。
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public final class HotelPrefixTrie {
+
+    private final Node root;
+    private final int topK;
+    private final int size;
+
+    private HotelPrefixTrie(Node root, int topK, int size) {
+        this.root = root;
+        this.topK = topK;
+        this.size = size;
+    }
+
+    public static Builder builder(int topK) {
+        return new Builder(topK);
+    }
+
+    /**
+     * 查询以prefix开头的词，按权重从高到低
+     *
+     * @param prefix 前缀
+     * @param limit  最多返回的个数，不超过topK
+     * @return 只读的补全词，没有时返回空集合
+     */
+    public List<String> suggest(String prefix, int limit) {
+        if (prefix == null || prefix.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.children.get(prefix.charAt(i));
+        }
+        if (node == null) {
+            return Collections.emptyList();
+        }
+        // 返回只读视图，调用方不能改动节点里的候选词
+        return Collections.unmodifiableList(node.top.size() <= limit ? node.top : node.top.subList(0, limit));
+    }
+
+    /**
+     * 词的个数
+     */
+    public int size() {
+        return size;
+    }
+
+    public int topK() {
+        return topK;
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<>(4);
+        private final List<String> top = new ArrayList<>(2);
+    }
+
+    public static final class Builder {
+
+        private final int topK;
+        private final Map<String, Long> weights = new HashMap<>();
+
+        private Builder(int topK) {
+            this.topK = topK;
+        }
+
+        /**
+         * 添加一个词，同一个词多次添加时权重累加
+         *
+         * @param term   词
+         * @param weight 权重
+         * @return this
+         */
+        public Builder add(String term, long weight) {
+            if (term != null && !term.isEmpty()) {
+                weights.merge(term, weight, Long::sum);
+            }
+            return this;
+        }
+
+        public HotelPrefixTrie build() {
+            // 按权重从高到低插入，每个节点的列表先到先得，天然就是topK
+            List<Map.Entry<String, Long>> entries = new ArrayList<>(weights.entrySet());
+            entries.sort((a, b) -> {
+                int byWeight = Long.compare(b.getValue(), a.getValue());
+                return byWeight != 0 ? byWeight : a.getKey().compareTo(b.getKey());
+            });
+            Node root = new Node();
+            for (Map.Entry<String, Long> entry : entries) {
+                String term = entry.getKey();
+                Node node = root;
+                for (int i = 0; i < term.length(); i++) {
+                    node = node.children.computeIfAbsent(term.charAt(i), c -> new Node());
+                    if (node.top.size() < topK) {
+                        node.top.add(term);
+                    }
+                }
+            }
+            return new HotelPrefixTrie(root, topK, entries.size());
+        }
+    }
+}
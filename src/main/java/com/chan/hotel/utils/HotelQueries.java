@@ -0,0 +1,206 @@
+package com.chan.hotel.utils;
+
+import com.chan.hotel.pojo.GeoLocation;
+import com.chan.hotel.pojo.NearbyParams;
+import com.chan.hotel.pojo.RequestParams;
+import org.apache.commons.lang3.StringUtils;
+import org.elasticsearch.index.query.BoolQueryBuilder;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.index.query.RangeQueryBuilder;
+import org.elasticsearch.common.unit.DistanceUnit;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.fetch.subphase.highlight.HighlightBuilder;
+import org.elasticsearch.search.sort.SortBuilders;
+import org.elasticsearch.search.sort.SortOrder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 酒店搜索DSL的构建
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public final class HotelQueries {
+
+    public static final int DEFAULT_PAGE_SIZE = 10;
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final double DEFAULT_NEARBY_DISTANCE_KM = 5;
+    public static final double MAX_NEARBY_DISTANCE_KM = 100;
+
+    private HotelQueries() {
+    }
+
+    /**
+     * 按请求参数构建DSL：query、高亮、排序、分页以及_source过滤
+     * <p>
+     * 各条件按固定顺序添加并去掉首尾空格，相同条件总是得到相同的DSL，可以直接作为缓存key
+     *
+     * @param params 请求参数
+     * @param source DSL
+     */
+    public static void buildSource(RequestParams params, SearchSourceBuilder source) {
+        buildBasicSource(params, source);
+        // 分页
+        int page = params.getPage() == null || params.getPage() < 1 ? 1 : params.getPage();
+        int size = pageSize(params);
+        source.from((page - 1) * size).size(size);
+    }
+
+    /**
+     * 按请求参数构建游标分页（search_after）的DSL：没有from，排序最后追加id作为唯一的tiebreaker
+     *
+     * @param params      请求参数
+     * @param searchAfter 上一页最后一条结果的排序值，第一页为null
+     * @param source      DSL
+     */
+    public static void buildCursorSource(RequestParams params, Object[] searchAfter, SearchSourceBuilder source) {
+        buildBasicSource(params, source);
+        if (source.sorts() == null || source.sorts().isEmpty()) {
+            // 按相关度排序时也要显式写出_score，才能和tiebreaker组合
+            source.sort("_score", SortOrder.DESC);
+        }
+        source.sort("id", SortOrder.ASC);
+        source.size(pageSize(params));
+        if (searchAfter != null) {
+            source.searchAfter(searchAfter);
+            // 总条数在第一页已经返回，后续页不再统计
+            source.trackTotalHits(false);
+        }
+    }
+
+    /**
+     * 附近的酒店：geo_distance过滤+按距离升序排序，距离单位为公里，排序值就是距离
+     *
+     * @param params 请求参数
+     * @param source DSL
+     * @throws IllegalArgumentException 经纬度不合法
+     */
+    public static void buildNearbySource(NearbyParams params, SearchSourceBuilder source) {
+        if (params.getLat() == null || params.getLon() == null) {
+            throw new IllegalArgumentException("经纬度不能为空");
+        }
+        GeoLocation location = GeoLocation.of(params.getLat(), params.getLon());
+        double distance = nearbyDistanceKm(params);
+        source.query(QueryBuilders.boolQuery().filter(QueryBuilders.geoDistanceQuery("location")
+                .point(location.getLat(), location.getLon())
+                .distance(distance, DistanceUnit.KILOMETERS)));
+        source.sort(SortBuilders.geoDistanceSort("location", location.getLat(), location.getLon())
+                .order(SortOrder.ASC)
+                .unit(DistanceUnit.KILOMETERS));
+        int page = params.getPage() == null || params.getPage() < 1 ? 1 : params.getPage();
+        int size = pageSize(params.getSize());
+        source.from((page - 1) * size).size(size);
+        source.fetchSource(HotelDocDecoder.LIST_FIELDS, null);
+    }
+
+    /**
+     * 按请求参数构建bool查询：关键字参与算分，其余条件放在filter中，不算分且可以被缓存
+     *
+     * @param params 请求参数
+     * @return bool查询
+     */
+    public static BoolQueryBuilder buildQuery(RequestParams params) {
+        BoolQueryBuilder boolQuery = buildKeywordQuery(params);
+        for (QueryBuilder filter : buildFacetFilters(params).values()) {
+            boolQuery.filter(filter);
+        }
+        return boolQuery;
+    }
+
+    /**
+     * 只包含关键字的bool查询，没有关键字时为match_all
+     *
+     * @param params 请求参数
+     * @return bool查询
+     */
+    public static BoolQueryBuilder buildKeywordQuery(RequestParams params) {
+        BoolQueryBuilder boolQuery = QueryBuilders.boolQuery();
+        String key = StringUtils.trimToNull(params.getKey());
+        if (key == null) {
+            boolQuery.must(QueryBuilders.matchAllQuery());
+        } else {
+            boolQuery.must(QueryBuilders.matchQuery("all", key));
+        }
+        return boolQuery;
+    }
+
+    /**
+     * 过滤条件，key为过滤的字段（city、brand、starName、price），按固定顺序排列
+     *
+     * @param params 请求参数
+     * @return 字段 -> 过滤条件
+     */
+    public static Map<String, QueryBuilder> buildFacetFilters(RequestParams params) {
+        Map<String, QueryBuilder> filters = new LinkedHashMap<>();
+        String city = StringUtils.trimToNull(params.getCity());
+        if (city != null) {
+            filters.put("city", QueryBuilders.termQuery("city", city));
+        }
+        String brand = StringUtils.trimToNull(params.getBrand());
+        if (brand != null) {
+            filters.put("brand", QueryBuilders.termQuery("brand", brand));
+        }
+        String starName = StringUtils.trimToNull(params.getStarName());
+        if (starName != null) {
+            filters.put("starName", QueryBuilders.termQuery("starName", starName));
+        }
+        if (params.getMinPrice() != null || params.getMaxPrice() != null) {
+            RangeQueryBuilder priceQuery = QueryBuilders.rangeQuery("price");
+            if (params.getMinPrice() != null) {
+                priceQuery.gte(params.getMinPrice());
+            }
+            if (params.getMaxPrice() != null) {
+                priceQuery.lte(params.getMaxPrice());
+            }
+            filters.put("price", priceQuery);
+        }
+        return filters;
+    }
+
+    /**
+     * 每页大小，限制在[1, MAX_PAGE_SIZE]
+     */
+    public static int pageSize(RequestParams params) {
+        return pageSize(params.getSize());
+    }
+
+    /**
+     * 每页大小，限制在[1, MAX_PAGE_SIZE]，为null时取默认值
+     */
+    public static int pageSize(Integer size) {
+        return size == null || size < 1 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * 附近的酒店的搜索半径（公里），限制在(0, MAX_NEARBY_DISTANCE_KM]
+     */
+    public static double nearbyDistanceKm(NearbyParams params) {
+        return params.getDistance() == null || params.getDistance() <= 0 ? DEFAULT_NEARBY_DISTANCE_KM
+                : Math.min(params.getDistance(), MAX_NEARBY_DISTANCE_KM);
+    }
+
+    /**
+     * query、高亮、排序、_source过滤
+     */
+    private static void buildBasicSource(RequestParams params, SearchSourceBuilder source) {
+        // 1.query
+        source.query(buildQuery(params));
+        if (StringUtils.isNotBlank(params.getKey())) {
+            source.highlighter(new HighlightBuilder().field("name").requireFieldMatch(false));
+        }
+
+        // 2.排序
+        String sortBy = params.getSortBy();
+        if ("price".equals(sortBy)) {
+            source.sort("price", SortOrder.ASC);
+        } else if ("score".equals(sortBy)) {
+            source.sort("score", SortOrder.DESC);
+        }
+
+        // 3.只返回列表页需要的字段
+        source.fetchSource(HotelDocDecoder.LIST_FIELDS, null);
+    }
+}
@@ -0,0 +1,43 @@
+package com.chan.hotel.utils;
+
+import cn.hutool.json.JSONUtil;
+import com.chan.hotel.pojo.SearchCursor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 游标的编码与解码：SearchCursor -> json -> base64url
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public final class SearchCursorCodec {
+
+    private SearchCursorCodec() {
+    }
+
+    public static String encode(SearchCursor cursor) {
+        byte[] json = JSONUtil.toJsonStr(cursor).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+    }
+
+    /**
+     * @param token 游标
+     * @return SearchCursor
+     * @throws IllegalArgumentException 游标不合法
+     */
+    public static SearchCursor decode(String token) {
+        SearchCursor cursor;
+        try {
+            String json = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            cursor = JSONUtil.toBean(json, SearchCursor.class);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("游标不合法", e);
+        }
+        if (cursor == null || cursor.getPit() == null || cursor.getAfter() == null || cursor.getParams() == null) {
+            throw new IllegalArgumentException("游标不合法");
+        }
+        return cursor;
+    }
+}
@@ -0,0 +1,75 @@
+package com.chan.hotel;
+
+import com.chan.hotel.config.HotelLimitProperties;
+import com.chan.hotel.limit.AdaptiveConcurrencyLimiter;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 自适应并发限制
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    void testExpensiveRequestsRejectedFirst() {
+        HotelLimitProperties properties = new HotelLimitProperties();
+        properties.setInitialLimit(10);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties);
+
+        List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            permits.add(limiter.tryAcquire(properties.getExpensiveShare()));
+        }
+        // 昂贵请求只能用满60%，按id查询还可以进入
+        assertNull(limiter.tryAcquire(properties.getExpensiveShare()));
+        for (int i = 0; i < 4; i++) {
+            assertNotNull(limiter.tryAcquire(1.0));
+        }
+        assertNull(limiter.tryAcquire(1.0));
+
+        // 重复归还只算一次
+        permits.get(0).release();
+        permits.get(0).release();
+        assertEquals(9, limiter.getInflight());
+    }
+
+    @Test
+    void testLimitFollowsLatency() {
+        HotelLimitProperties properties = new HotelLimitProperties();
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties);
+
+        // 延迟稳定且并发打满时上限增长，样本数超过长期窗口后长期延迟才稳定
+        for (int i = 0; i < 1000; i++) {
+            limiter.update(TimeUnit.MILLISECONDS.toNanos(5), limiter.getLimit());
+        }
+        int grown = limiter.getLimit();
+        assertTrue(grown > properties.getInitialLimit(), "limit=" + grown);
+
+        // ES变慢，延迟放大到10倍，上限减小
+        for (int i = 0; i < 50; i++) {
+            limiter.update(TimeUnit.MILLISECONDS.toNanos(50), limiter.getLimit());
+        }
+        assertTrue(limiter.getLimit() < grown / 2, "limit=" + limiter.getLimit());
+
+        // 在途请求数不到上限一半时不调整
+        int limit = limiter.getLimit();
+        limiter.update(TimeUnit.MILLISECONDS.toNanos(500), 1);
+        assertEquals(limit, limiter.getLimit());
+
+        for (int i = 0; i < 100; i++) {
+            limiter.backoff();
+        }
+        assertEquals(properties.getMinLimit(), limiter.getLimit());
+    }
+}
@@ -0,0 +1,46 @@
+package com.chan.hotel;
+
+import com.chan.hotel.metrics.EsMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.rest.RestStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * ES调用指标
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public class EsMetricsTest {
+
+    @Test
+    void testBulkTookAndRejections() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        EsMetrics esMetrics = new EsMetrics(registry);
+        BulkItemResponse[] items = {
+                new BulkItemResponse(0, DocWriteRequest.OpType.INDEX, new BulkItemResponse.Failure(
+                        "hotel_v2", "_doc", "1", new EsRejectedExecutionException("rejected"), RestStatus.TOO_MANY_REQUESTS)),
+                new BulkItemResponse(1, DocWriteRequest.OpType.INDEX, new BulkItemResponse.Failure(
+                        "hotel_v2", "_doc", "2", new IllegalArgumentException("mapper_parsing_exception"))),
+        };
+        // 客户端耗时50ms，服务端took 30ms
+        esMetrics.record("bulk", "hotel_v2", TimeUnit.MILLISECONDS.toNanos(50), new BulkResponse(items, 30));
+
+        // hotel_v{n}统一记为hotel
+        assertEquals(1.0, registry.get("es.bulk.items").tags("index", "hotel", "result", "rejected").counter().count());
+        assertEquals(1.0, registry.get("es.bulk.items").tags("index", "hotel", "result", "failed").counter().count());
+        assertEquals(0.0, registry.get("es.bulk.items").tags("index", "hotel", "result", "success").counter().count());
+        assertEquals(30.0, registry.get("es.server.took").tags("operation", "bulk").timer().totalTime(TimeUnit.MILLISECONDS));
+        assertEquals(20.0, registry.get("es.client.overhead").tags("operation", "bulk").timer().totalTime(TimeUnit.MILLISECONDS));
+        assertEquals(1, registry.get("es.client.latency").tags("outcome", "success").timer().count());
+    }
+}
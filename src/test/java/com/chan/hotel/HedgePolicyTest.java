@@ -0,0 +1,71 @@
+package com.chan.hotel;
+
+import com.chan.hotel.config.EsClientProperties;
+import com.chan.hotel.hedge.HedgePolicy;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 对冲请求的延迟和预算
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public class HedgePolicyTest {
+
+    @Test
+    void testDelayFollowsPercentile() {
+        EsClientProperties.Hedge properties = new EsClientProperties.Hedge();
+        HedgePolicy policy = new HedgePolicy(properties);
+        // 样本不足时使用上限
+        assertEquals(500, TimeUnit.NANOSECONDS.toMillis(policy.delayNanos("search")));
+
+        // 1~100ms各一个样本，p95为95ms
+        for (int i = 1; i <= 100; i++) {
+            policy.record("search", TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        policy.refresh();
+        assertEquals(95, TimeUnit.NANOSECONDS.toMillis(policy.delayNanos("search")));
+        // 各类请求分别计算
+        assertEquals(500, TimeUnit.NANOSECONDS.toMillis(policy.delayNanos("mget")));
+
+        // ES很快时不低于下限
+        for (int i = 0; i < 100; i++) {
+            policy.record("search", TimeUnit.MICROSECONDS.toNanos(300));
+        }
+        policy.refresh();
+        assertEquals(properties.getMinDelayMs(), TimeUnit.NANOSECONDS.toMillis(policy.delayNanos("search")));
+    }
+
+    @Test
+    void testBudgetLimitsHedges() {
+        EsClientProperties.Hedge properties = new EsClientProperties.Hedge();
+        HedgePolicy policy = new HedgePolicy(properties);
+        assertFalse(policy.tryAcquire());
+
+        // 5%的预算：1000个请求最多对冲50次，但令牌最多积累10个
+        int hedges = 0;
+        for (int i = 0; i < 1000; i++) {
+            policy.deposit();
+            if (policy.tryAcquire()) {
+                hedges++;
+            }
+        }
+        assertEquals(50, hedges);
+
+        for (int i = 0; i < 1000; i++) {
+            policy.deposit();
+        }
+        hedges = 0;
+        while (policy.tryAcquire()) {
+            hedges++;
+        }
+        assertEquals(10, hedges);
+        assertTrue(hedges < 1000 * properties.getBudgetPercent() / 100);
+    }
+}
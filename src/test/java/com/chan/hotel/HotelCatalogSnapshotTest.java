@@ -0,0 +1,66 @@
+package com.chan.hotel;
+
+import com.chan.hotel.catalog.HotelCatalogSnapshot;
+import com.chan.hotel.pojo.Hotel;
+import com.chan.hotel.pojo.HotelAttributes;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 酒店目录快照的写入和内存映射读取
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public class HotelCatalogSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    private static Hotel hotel(long id, Integer price, Integer score, String city, String brand) {
+        Hotel hotel = new Hotel();
+        hotel.setId(id);
+        hotel.setPrice(price);
+        hotel.setScore(score);
+        hotel.setCity(city);
+        hotel.setBrand(brand);
+        return hotel;
+    }
+
+    @Test
+    void testWriteAndRead() throws IOException {
+        // 超过初始容量，覆盖扩容
+        List<Hotel> hotels = new ArrayList<>();
+        for (long id = 1; id <= 3000; id++) {
+            hotels.add(hotel(id * 2, (int) id, 40, id % 2 == 0 ? "上海" : "北京", "如家"));
+        }
+        hotels.add(hotel(10001, null, null, null, null));
+        Path file = dir.resolve("hotel.snapshot");
+        assertEquals(3001, HotelCatalogSnapshot.write(hotels.iterator(), file));
+
+        HotelCatalogSnapshot snapshot = HotelCatalogSnapshot.open(file);
+        assertEquals(3001, snapshot.rows());
+        assertEquals(new HotelAttributes(2000L, 1000, 40, "上海", "如家"), snapshot.get(2000));
+        assertEquals(new HotelAttributes(3L * 2, 3, 40, "北京", "如家"), snapshot.get(6));
+        assertEquals(new HotelAttributes(10001L, null, null, null, null), snapshot.get(10001));
+        assertNull(snapshot.get(3));
+        assertEquals(-1, snapshot.rowOf(0));
+    }
+
+    @Test
+    void testIdsMustAscend() {
+        List<Hotel> hotels = Arrays.asList(hotel(2, 100, 40, "上海", "如家"), hotel(1, 100, 40, "上海", "如家"));
+        assertThrows(IllegalArgumentException.class,
+                () -> HotelCatalogSnapshot.write(hotels.iterator(), dir.resolve("hotel.snapshot")));
+    }
+}
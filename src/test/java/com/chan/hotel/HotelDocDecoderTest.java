@@ -0,0 +1,69 @@
+package com.chan.hotel;
+
+import com.chan.hotel.pojo.GeoLocation;
+import com.chan.hotel.pojo.HotelDoc;
+import com.chan.hotel.utils.HotelDocDecoder;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.text.Text;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.fetch.subphase.highlight.HighlightField;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * HotelDocDecoder不依赖ES和MySQL，直接用_source字节验证
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public class HotelDocDecoderTest {
+
+    private static final String SOURCE = "{\"id\":61083,\"name\":\"上海滴水湖皇冠假日酒店\",\"address\":\"南汇新城镇滴水湖路\"," +
+            "\"price\":971,\"score\":44,\"brand\":\"皇冠假日\",\"city\":\"上海\",\"starName\":\"五钻\"," +
+            "\"business\":\"滴水湖临港地区\",\"location\":{\"lat\":30.890867,\"lon\":121.937241},\"pic\":\"https://a.jpg\"," +
+            "\"unknown\":{\"a\":[1,2]},\"tags\":[\"x\"],\"pic2\":null}";
+
+    @Test
+    void testDecodeSource() throws IOException {
+        HotelDoc hotelDoc = HotelDocDecoder.decode(new BytesArray(SOURCE));
+        assertEquals(61083L, hotelDoc.getId());
+        assertEquals("上海滴水湖皇冠假日酒店", hotelDoc.getName());
+        assertEquals(971, hotelDoc.getPrice());
+        assertEquals(44, hotelDoc.getScore());
+        assertEquals("五钻", hotelDoc.getStarName());
+        assertEquals(new GeoLocation(30.890867, 121.937241), hotelDoc.getLocation());
+        assertEquals("https://a.jpg", hotelDoc.getPic());
+    }
+
+    @Test
+    void testDecodeHitWithHighlight() throws IOException {
+        SearchHit hit = new SearchHit(1, "61083", null, Collections.emptyMap(), Collections.emptyMap());
+        hit.sourceRef(new BytesArray(SOURCE));
+        String highlighted = "上海滴水湖<em>皇冠</em>假日酒店";
+        hit.highlightFields(Collections.singletonMap("name",
+                new HighlightField("name", new Text[]{new Text(highlighted)})));
+        HotelDoc hotelDoc = HotelDocDecoder.decode(hit);
+        assertEquals(highlighted, hotelDoc.getName());
+        assertEquals("上海", hotelDoc.getCity());
+    }
+
+    @Test
+    void testDecodeLegacyLocation() throws IOException {
+        GeoLocation expected = new GeoLocation(30.890867, 121.937241);
+        HotelDoc fromString = HotelDocDecoder.decode(new BytesArray("{\"location\":\"30.890867, 121.937241\"}"));
+        assertEquals(expected, fromString.getLocation());
+        HotelDoc fromArray = HotelDocDecoder.decode(new BytesArray("{\"location\":[121.937241,30.890867],\"id\":1}"));
+        assertEquals(expected, fromArray.getLocation());
+        assertEquals(1L, fromArray.getId());
+    }
+
+    @Test
+    void testDecodeEmptySource() throws IOException {
+        assertNull(HotelDocDecoder.decode(new BytesArray(new byte[0])));
+    }
+}
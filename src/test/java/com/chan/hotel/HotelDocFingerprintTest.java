@@ -0,0 +1,63 @@
+package com.chan.hotel;
+
+import com.chan.hotel.pojo.Hotel;
+import com.chan.hotel.pojo.HotelDoc;
+import com.chan.hotel.utils.HotelDocDecoder;
+import com.chan.hotel.utils.HotelDocFingerprint;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * 一致性校验的指纹：同一家酒店从tb_hotel和从索引得到的指纹必须相同
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public class HotelDocFingerprintTest {
+
+    private static Hotel hotel() {
+        Hotel hotel = new Hotel();
+        hotel.setId(61083L);
+        hotel.setName("上海滴水湖皇冠假日酒店");
+        hotel.setAddress("南汇新城镇滴水湖路");
+        hotel.setPrice(971);
+        hotel.setScore(44);
+        hotel.setBrand("皇冠假日");
+        hotel.setCity("上海");
+        hotel.setStarName("五钻");
+        hotel.setBusiness("滴水湖临港地区");
+        hotel.setLatitude("30.8908670");
+        hotel.setLongitude("121.937241");
+        hotel.setPic("https://a.jpg");
+        return hotel;
+    }
+
+    @Test
+    void testSameOnBothSides() throws IOException {
+        // 索引中多了suggestion，经纬度的写法也不同
+        String source = "{\"id\":61083,\"name\":\"上海滴水湖皇冠假日酒店\",\"address\":\"南汇新城镇滴水湖路\"," +
+                "\"price\":971,\"score\":44,\"brand\":\"皇冠假日\",\"city\":\"上海\",\"starName\":\"五钻\"," +
+                "\"business\":\"滴水湖临港地区\",\"location\":{\"lat\":30.890867,\"lon\":121.937241}," +
+                "\"pic\":\"https://a.jpg\",\"suggestion\":[\"皇冠假日\"]}";
+        HotelDoc fromEs = HotelDocDecoder.decode(new BytesArray(source));
+        assertEquals(HotelDocFingerprint.of(new HotelDoc(hotel())), HotelDocFingerprint.of(fromEs));
+    }
+
+    @Test
+    void testFieldChange() {
+        Hotel changed = hotel();
+        changed.setPrice(972);
+        assertNotEquals(HotelDocFingerprint.of(new HotelDoc(hotel())), HotelDocFingerprint.of(new HotelDoc(changed)));
+        // 空值和空字符串不同
+        Hotel nullBrand = hotel();
+        nullBrand.setBrand(null);
+        Hotel emptyBrand = hotel();
+        emptyBrand.setBrand("");
+        assertNotEquals(HotelDocFingerprint.of(new HotelDoc(nullBrand)), HotelDocFingerprint.of(new HotelDoc(emptyBrand)));
+    }
+}
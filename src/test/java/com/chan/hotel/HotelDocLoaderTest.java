@@ -0,0 +1,174 @@
+package com.chan.hotel;
+
+import com.chan.hotel.config.HotelLoaderProperties;
+import com.chan.hotel.hedge.HotelHedgedClient;
+import com.chan.hotel.limit.HotelLoadShedder;
+import com.chan.hotel.metrics.EsMetrics;
+import com.chan.hotel.pojo.HotelDoc;
+import com.chan.hotel.service.HotelRoutingService;
+import com.chan.hotel.service.impl.HotelDocLoaderImpl;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.action.get.MultiGetItemResponse;
+import org.elasticsearch.action.get.MultiGetRequest;
+import org.elasticsearch.action.get.MultiGetResponse;
+import org.elasticsearch.index.get.GetResult;
+import org.elasticsearch.index.seqno.SequenceNumbers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 按id查询的请求合并：按数量和按时间发送窗口，ES客户端用mock代替
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public class HotelDocLoaderTest {
+
+    private HotelLoaderProperties properties;
+    private HotelHedgedClient hotelHedgedClient;
+    private HotelRoutingService hotelRoutingService;
+    private HotelDocLoaderImpl loader;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        properties = new HotelLoaderProperties();
+        // 默认不让定时器在测试期间触发
+        properties.setWindowMs(60_000);
+        properties.setMaxBatchSize(3);
+        hotelHedgedClient = mock(HotelHedgedClient.class);
+        hotelRoutingService = mock(HotelRoutingService.class);
+        EsMetrics esMetrics = mock(EsMetrics.class);
+        when(esMetrics.listener(anyString(), anyString(), any(ActionListener.class))).thenAnswer(inv -> inv.getArgument(2));
+        HotelLoadShedder hotelLoadShedder = mock(HotelLoadShedder.class);
+        when(hotelLoadShedder.listener(any(ActionListener.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        loader = new HotelDocLoaderImpl();
+        ReflectionTestUtils.setField(loader, "properties", properties);
+        ReflectionTestUtils.setField(loader, "hotelHedgedClient", hotelHedgedClient);
+        ReflectionTestUtils.setField(loader, "hotelRoutingService", hotelRoutingService);
+        ReflectionTestUtils.setField(loader, "esMetrics", esMetrics);
+        ReflectionTestUtils.setField(loader, "hotelLoadShedder", hotelLoadShedder);
+    }
+
+    @AfterEach
+    void tearDown() {
+        loader.destroy();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ActionListener<MultiGetResponse>> verifyMget(int times, List<List<String>> ids) {
+        ArgumentCaptor<MultiGetRequest> requests = ArgumentCaptor.forClass(MultiGetRequest.class);
+        ArgumentCaptor<ActionListener<MultiGetResponse>> listeners = ArgumentCaptor.forClass(ActionListener.class);
+        verify(hotelHedgedClient, timeout(1000).times(times)).mgetAsync(requests.capture(), listeners.capture());
+        assertEquals(ids, requests.getAllValues().stream()
+                .map(request -> request.getItems().stream().map(MultiGetRequest.Item::id).sorted().collect(Collectors.toList()))
+                .collect(Collectors.toList()));
+        return listeners.getAllValues();
+    }
+
+    /**
+     * 全部返回不存在
+     */
+    private static MultiGetResponse notFound(String... ids) {
+        MultiGetItemResponse[] items = Arrays.stream(ids)
+                .map(id -> new MultiGetItemResponse(new GetResponse(new GetResult("hotel", "_doc", id,
+                        SequenceNumbers.UNASSIGNED_SEQ_NO, SequenceNumbers.UNASSIGNED_PRIMARY_TERM, -1, false,
+                        null, null, null)), null))
+                .toArray(MultiGetItemResponse[]::new);
+        return new MultiGetResponse(items);
+    }
+
+    @Test
+    void testSizeTrigger() throws Exception {
+        CompletableFuture<HotelDoc> first = loader.load(1L);
+        CompletableFuture<HotelDoc> second = loader.load(2L);
+        CompletableFuture<HotelDoc> duplicate = loader.load(2L);
+        verify(hotelHedgedClient, times(0)).mgetAsync(any(), any());
+        // 第3个不同的id攒够了数量，不等定时器立即发送，重复的id只查询一次
+        CompletableFuture<HotelDoc> third = loader.load(3L);
+        List<ActionListener<MultiGetResponse>> listeners = verifyMget(1, Arrays.asList(Arrays.asList("1", "2", "3")));
+
+        listeners.get(0).onResponse(notFound("1", "2", "3"));
+        for (CompletableFuture<HotelDoc> future : Arrays.asList(first, second, duplicate, third)) {
+            assertTrue(future.isDone());
+            assertNull(future.get());
+        }
+    }
+
+    @Test
+    void testTimerTrigger() throws Exception {
+        properties.setWindowMs(20);
+        CompletableFuture<HotelDoc> first = loader.load(1L);
+        CompletableFuture<HotelDoc> second = loader.load(2L);
+        List<ActionListener<MultiGetResponse>> listeners = verifyMget(1, Arrays.asList(Arrays.asList("1", "2")));
+
+        // 窗口发送后到达的id开启新窗口
+        CompletableFuture<HotelDoc> third = loader.load(3L);
+        listeners = verifyMget(2, Arrays.asList(Arrays.asList("1", "2"), Arrays.asList("3")));
+        listeners.get(0).onResponse(notFound("1", "2"));
+        assertNull(first.get());
+        assertNull(second.get());
+        assertFalse(third.isDone());
+    }
+
+    @Test
+    void testStaleTimer() {
+        loader.load(1L);
+        loader.load(2L);
+        loader.load(3L);
+        loader.load(4L);
+        verifyMget(1, Arrays.asList(Arrays.asList("1", "2", "3")));
+
+        // 第0个窗口的定时器在取消前已经开始执行：不能把第1个窗口提前发送
+        ReflectionTestUtils.invokeMethod(loader, "flush", 0L);
+        verifyMget(1, Arrays.asList(Arrays.asList("1", "2", "3")));
+        // 第1个窗口自己的定时器照常发送
+        ReflectionTestUtils.invokeMethod(loader, "flush", 1L);
+        verifyMget(2, Arrays.asList(Arrays.asList("1", "2", "3"), Arrays.asList("4")));
+    }
+
+    @Test
+    void testSyncFailure() {
+        IllegalStateException failure = new IllegalStateException("rejected");
+        doThrow(failure).when(hotelHedgedClient).mgetAsync(any(), any());
+        CompletableFuture<HotelDoc> first = loader.load(1L);
+        loader.load(2L);
+        CompletableFuture<HotelDoc> third = loader.load(3L);
+        // 发送时同步抛出的异常也要通知窗口内的调用方，不能让它们一直等待
+        ExecutionException e = assertThrows(ExecutionException.class, first::get);
+        assertSame(failure, e.getCause());
+        assertTrue(third.isCompletedExceptionally());
+
+        when(hotelRoutingService.routingsOf(anyCollection())).thenThrow(new IllegalStateException("db"));
+        CompletableFuture<HotelDoc> fourth = loader.load(4L);
+        ReflectionTestUtils.invokeMethod(loader, "flush", 1L);
+        assertTrue(fourth.isCompletedExceptionally());
+    }
+}
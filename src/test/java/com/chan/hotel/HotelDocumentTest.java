@@ -4,7 +4,10 @@ import cn.hutool.json.JSONUtil;
 import com.chan.hotel.mapper.HotelMapper;
 import com.chan.hotel.pojo.Hotel;
 import com.chan.hotel.pojo.HotelDoc;
-import org.apache.http.HttpHost;
+import com.chan.hotel.pojo.ImportResult;
+import com.chan.hotel.pojo.ReindexResult;
+import com.chan.hotel.service.HotelImportService;
+import com.chan.hotel.service.HotelReindexService;
 import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.delete.DeleteRequest;
 import org.elasticsearch.action.get.GetRequest;
@@ -14,8 +17,6 @@ import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.client.RequestOptions;
-import org.elasticsearch.client.RestClient;
-import org.elasticsearch.client.RestClientBuilder;
 import org.elasticsearch.client.RestHighLevelClient;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.index.query.BoolQueryBuilder;
@@ -31,8 +32,6 @@ import org.elasticsearch.search.fetch.subphase.highlight.HighlightBuilder;
 import org.elasticsearch.search.fetch.subphase.highlight.HighlightField;
 import org.elasticsearch.search.sort.SortBuilders;
 import org.elasticsearch.search.sort.SortOrder;
-import org.junit.jupiter.api.AfterEach;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.util.CollectionUtils;
@@ -60,23 +59,17 @@ public class HotelDocumentTest {
     @Resource
     private HotelMapper hotelMapper;
 
-    private RestHighLevelClient client;
-
-    @BeforeEach
-    void setUp() {
-        // 配置建立http连接信息
-        HttpHost httpHost = new HttpHost("localhost", 9200, "http");
-        // 辅助构建RestClient
-        RestClientBuilder builder = RestClient.builder(httpHost);
-        // 创建ES高级客户端对象，进一步封装了RestClient，并允许发起请求和读取响应
-        this.client = new RestHighLevelClient(builder);
-    }
+    @Resource
+    private HotelImportService hotelImportService;
 
-    @AfterEach
-    void tearDown() throws IOException {
-        this.client.close();
-    }
+    @Resource
+    private HotelReindexService hotelReindexService;
 
+    /**
+     * 注入Spring管理的客户端，与业务代码共用连接池，不需要在每个测试里创建、关闭
+     */
+    @Resource
+    private RestHighLevelClient client;
 
     /**
      * 向es中hotel索引库新增一条文档，IndexRequest
@@ -164,6 +157,24 @@ public class HotelDocumentTest {
         client.bulk(request, RequestOptions.DEFAULT);
     }
 
+    /**
+     * 流式批量导入：按id游标读库，按文档数/字节数切分bulk，限制在途bulk数量
+     */
+    @Test
+    void testImportAll() {
+        ImportResult result = hotelImportService.importAll();
+        System.out.println(result);
+    }
+
+    /**
+     * 零停机重建：导入hotel_v{n}后把hotel别名原子地切过去
+     */
+    @Test
+    void testReindex() throws IOException {
+        ReindexResult result = hotelReindexService.reindex();
+        System.out.println(result);
+    }
+
     // ----------------------- DSL 查询文档 -----------------------
 
     /**
@@ -0,0 +1,65 @@
+package com.chan.hotel;
+
+import com.chan.hotel.pojo.ExportFormat;
+import com.chan.hotel.pojo.Hotel;
+import com.chan.hotel.utils.HotelFeedReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 合作方数据的流式解析
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public class HotelFeedReaderTest {
+
+    private static List<Hotel> read(String feed, ExportFormat format, long expectedSkipped) throws IOException {
+        List<Hotel> hotels = new ArrayList<>();
+        long skipped = HotelFeedReader.read(new ByteArrayInputStream(feed.getBytes(StandardCharsets.UTF_8)), format, hotels::add);
+        assertEquals(expectedSkipped, skipped);
+        return hotels;
+    }
+
+    @Test
+    void testCsv() throws IOException {
+        // 列的顺序与表不同，缺少pic列；第3行价格不是数字，第4行没有id
+        String feed = "name,id,price,score,brand,city,starName,business,latitude,longitude,address\n" +
+                "\"如家酒店(北京西站店)\",1,300,45,如家,北京,二钻,北京西站,39.894,116.322,\"广安门外大街,1号\"\n" +
+                "汉庭酒店,2,,47,汉庭,上海,二钻,,31.236,121.481,\n" +
+                "7天酒店,3,abc,40,7天酒店,上海,二钻,,31.232,121.475,\n" +
+                "无id酒店,,100,40,,上海,,,,,\n";
+        List<Hotel> hotels = read(feed, ExportFormat.CSV, 2);
+        assertEquals(2, hotels.size());
+        assertEquals(1L, hotels.get(0).getId());
+        assertEquals("如家酒店(北京西站店)", hotels.get(0).getName());
+        assertEquals("广安门外大街,1号", hotels.get(0).getAddress());
+        assertEquals(300, hotels.get(0).getPrice());
+        assertEquals("二钻", hotels.get(0).getStarName());
+        assertNull(hotels.get(0).getPic());
+        assertNull(hotels.get(1).getPrice());
+        assertNull(hotels.get(1).getBusiness());
+    }
+
+    @Test
+    void testNdjson() throws IOException {
+        String feed = "{\"id\":1,\"name\":\"如家酒店\",\"price\":300,\"starName\":\"二钻\",\"latitude\":\"39.894\"}\n" +
+                "\n" +
+                "{\"name\":\"无id酒店\"}\n" +
+                "{not json\n" +
+                "{\"id\":2,\"name\":\"汉庭酒店\",\"score\":47}";
+        List<Hotel> hotels = read(feed, ExportFormat.NDJSON, 2);
+        assertEquals(2, hotels.size());
+        assertEquals("二钻", hotels.get(0).getStarName());
+        assertEquals("39.894", hotels.get(0).getLatitude());
+        assertEquals(47, hotels.get(1).getScore());
+    }
+}
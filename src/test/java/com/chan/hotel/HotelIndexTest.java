@@ -1,26 +1,30 @@
 package com.chan.hotel;
 
 import com.chan.hotel.constants.HotelConstant;
-import org.apache.http.HttpHost;
+import com.chan.hotel.schema.HotelSchema;
+import com.chan.hotel.schema.HotelSchemaRegistry;
+import org.elasticsearch.action.admin.indices.alias.Alias;
+import org.elasticsearch.action.admin.indices.alias.get.GetAliasesRequest;
 import org.elasticsearch.action.admin.indices.delete.DeleteIndexRequest;
+import org.elasticsearch.client.GetAliasesResponse;
 import org.elasticsearch.client.RequestOptions;
-import org.elasticsearch.client.RestClient;
 import org.elasticsearch.client.RestHighLevelClient;
 import org.elasticsearch.client.indices.CreateIndexRequest;
 import org.elasticsearch.client.indices.GetIndexRequest;
 import org.elasticsearch.common.xcontent.XContentType;
-import org.junit.jupiter.api.AfterEach;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
 
+import javax.annotation.Resource;
 import java.io.IOException;
+import java.util.Set;
 
 /**
  *
  * JavaRestClient操作elasticsearch的流程基本类似。核心是client.indices()方法来获取索引库的操作对象。
  *
  * 索引库操作的基本步骤：
- * 1.初始化RestHighLevelClient
+ * 1.注入RestHighLevelClient
  * 2.创建XxxIndexRequest对象。XXX是Create、Get、Delete
  * 3.准备DSL（ Create时需要，其它是无参）
  * 4.发送请求。调用RestHighLevelClient#.indices().xxx()方法，xxx是create、exists、delete
@@ -30,46 +34,54 @@ import java.io.IOException;
  * @author CHAN
  * @since 2022/6/13
  */
+@SpringBootTest
 public class HotelIndexTest {
 
+    /**
+     * 注入Spring管理的客户端，地址等配置见application.yml的hotel.elasticsearch
+     */
+    @Resource
     private RestHighLevelClient client;
 
     /**
-     * 初始化RestHighLevelClient
+     * 索引结构见classpath下的es/hotel/v{n}.json
      */
-    @BeforeEach
-    void setUp() {
-        this.client = new RestHighLevelClient(RestClient.builder(
-                HttpHost.create("http://127.0.0.1:9200")
-        ));
-    }
-
-    @AfterEach
-    void tearDown() throws IOException {
-        this.client.close();
-    }
+    @Resource
+    private HotelSchemaRegistry hotelSchemaRegistry;
 
     /**
-     * 在es中创建hotel索引
+     * 在es中创建当前版本的hotel_v{n}索引，并挂上hotel别名。
+     * hotel是别名，不能再创建同名的实体索引
      */
     @Test
     void createHotelIndex() throws IOException {
         // 1.创建Request对象
-        CreateIndexRequest request = new CreateIndexRequest("hotel");
-        // 2.准备请求的参数：DSL语句
-        request.source(HotelConstant.MAPPING_TEMPLATE, XContentType.JSON);
+        HotelSchema schema = hotelSchemaRegistry.current();
+        CreateIndexRequest request = new CreateIndexRequest(HotelConstant.VERSIONED_INDEX_PREFIX + schema.getVersion());
+        // 2.准备请求的参数：当前版本的settings和mappings，以及hotel别名
+        request.settings(schema.getSettings());
+        request.mapping(schema.getMappings(), XContentType.JSON);
+        request.alias(new Alias(HotelConstant.INDEX_NAME));
         // 3.发送请求，client.indices()方法的返回值是IndicesClient类型，封装了所有与索引操作有关的方法
         client.indices().create(request, RequestOptions.DEFAULT);
     }
 
     /**
-     * 删除hotel索引
+     * 删除hotel别名指向的索引
      */
     @Test
     void testDeleteHotelIndex() throws IOException {
-        // 1.创建Request对象
-        DeleteIndexRequest request = new DeleteIndexRequest("hotel");
-        // 2.发送请求
+        // 1.查询别名指向的实体索引，删除索引不能直接使用别名
+        GetAliasesResponse aliases = client.indices().getAlias(
+                new GetAliasesRequest(HotelConstant.INDEX_NAME), RequestOptions.DEFAULT);
+        Set<String> indices = aliases.getAliases().keySet();
+        if (indices.isEmpty()) {
+            System.err.println("索引库不存在！");
+            return;
+        }
+        // 2.创建Request对象
+        DeleteIndexRequest request = new DeleteIndexRequest(indices.toArray(new String[0]));
+        // 3.发送请求
         client.indices().delete(request, RequestOptions.DEFAULT);
     }
 
@@ -80,7 +92,7 @@ public class HotelIndexTest {
     @Test
     void testExistsHotelIndex() throws IOException {
         // 1.创建Request对象
-        GetIndexRequest request = new GetIndexRequest("hotel");
+        GetIndexRequest request = new GetIndexRequest(HotelConstant.INDEX_NAME);
         // 2.发送请求
         boolean exists = client.indices().exists(request, RequestOptions.DEFAULT);
         // 3.输出
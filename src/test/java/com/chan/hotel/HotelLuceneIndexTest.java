@@ -0,0 +1,144 @@
+package com.chan.hotel;
+
+import com.chan.hotel.lucene.HotelLuceneIndex;
+import com.chan.hotel.pojo.FacetBucket;
+import com.chan.hotel.pojo.FacetResult;
+import com.chan.hotel.pojo.Hotel;
+import com.chan.hotel.pojo.HotelDoc;
+import com.chan.hotel.pojo.NearbyParams;
+import com.chan.hotel.pojo.PageResult;
+import com.chan.hotel.pojo.RequestParams;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 本地Lucene索引的查询，不需要ES
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public class HotelLuceneIndexTest {
+
+    private HotelLuceneIndex index;
+
+    private static HotelDoc hotel(long id, String name, int price, int score, String brand, String city,
+                                  String lat, String lon) {
+        Hotel hotel = new Hotel();
+        hotel.setId(id);
+        hotel.setName(name);
+        hotel.setPrice(price);
+        hotel.setScore(score);
+        hotel.setBrand(brand);
+        hotel.setCity(city);
+        hotel.setStarName("二钻");
+        hotel.setLatitude(lat);
+        hotel.setLongitude(lon);
+        return new HotelDoc(hotel);
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        index = new HotelLuceneIndex(new ByteBuffersDirectory());
+        List<HotelDoc> hotels = Arrays.asList(
+                hotel(1, "如家酒店(北京西站店)", 300, 45, "如家", "北京", "39.894", "116.322"),
+                hotel(2, "如家酒店(上海外滩店)", 600, 42, "如家", "上海", "31.238", "121.490"),
+                hotel(3, "7天连锁酒店(上海人民广场店)", 150, 40, "7天酒店", "上海", "31.232", "121.475"),
+                hotel(4, "汉庭酒店(上海南京东路店)", 250, 47, "汉庭", "上海", "31.236", "121.481"));
+        assertEquals(4, index.replaceAll(hotels.iterator()));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        index.close();
+    }
+
+    @Test
+    void testRebuildAfterFailure() throws IOException {
+        // 读库读到一半失败：继续使用上一次的数据
+        Iterator<HotelDoc> failing = new Iterator<HotelDoc>() {
+            private int count;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public HotelDoc next() {
+                if (++count > 2) {
+                    throw new IllegalStateException("数据库连接断开");
+                }
+                return hotel(10 + count, "全季酒店", 400, 46, "全季", "杭州", "30.25", "120.16");
+            }
+        };
+        assertThrows(IllegalStateException.class, () -> index.replaceAll(failing));
+        assertEquals(4, index.numDocs());
+
+        // 下一次重建正常提交
+        List<HotelDoc> hotels = Arrays.asList(
+                hotel(5, "全季酒店(杭州西湖店)", 400, 46, "全季", "杭州", "30.25", "120.16"));
+        assertEquals(1, index.replaceAll(hotels.iterator()));
+        assertEquals(1, index.numDocs());
+        RequestParams params = new RequestParams();
+        params.setCity("杭州");
+        assertEquals(1L, index.search(params).getTotal());
+    }
+
+    @Test
+    void testSearch() throws IOException {
+        RequestParams params = new RequestParams();
+        params.setKey("如家");
+        params.setCity("上海");
+        PageResult result = index.search(params);
+        assertEquals(1L, result.getTotal());
+        assertEquals(2L, result.getHotels().get(0).getId());
+        assertTrue(result.getHotels().get(0).getName().contains("<em>"));
+
+        params = new RequestParams();
+        params.setCity("上海");
+        params.setSortBy("price");
+        params.setMaxPrice(500);
+        result = index.search(params);
+        assertEquals(2L, result.getTotal());
+        assertEquals(3L, result.getHotels().get(0).getId());
+        assertEquals(4L, result.getHotels().get(1).getId());
+    }
+
+    @Test
+    void testNearby() throws IOException {
+        NearbyParams params = new NearbyParams();
+        params.setLat(31.237);
+        params.setLon(121.489);
+        params.setDistance(2.0);
+        PageResult result = index.nearby(params);
+        assertEquals(3L, result.getTotal());
+        assertEquals(2L, result.getHotels().get(0).getId());
+        assertTrue(result.getHotels().get(0).getDistance() < result.getHotels().get(1).getDistance());
+    }
+
+    @Test
+    void testFacets() throws IOException {
+        RequestParams params = new RequestParams();
+        params.setCity("上海");
+        params.setBrand("如家");
+        FacetResult result = index.facets(params, 10, Arrays.asList(200, 500));
+        assertEquals(1L, result.getTotal());
+        // 城市过滤项不受城市条件影响，品牌过滤项不受品牌条件影响
+        assertEquals(Arrays.asList(new FacetBucket("上海", 1), new FacetBucket("北京", 1)), result.getFacets().get("city"));
+        assertEquals(Arrays.asList(new FacetBucket("7天酒店", 1), new FacetBucket("如家", 1), new FacetBucket("汉庭", 1)),
+                result.getFacets().get("brand"));
+        assertEquals(Arrays.asList(new FacetBucket("0-200", 0), new FacetBucket("200-500", 0), new FacetBucket("500-", 1)),
+                result.getFacets().get("price"));
+    }
+}
@@ -0,0 +1,109 @@
+package com.chan.hotel;
+
+import com.chan.hotel.pojo.ExportFormat;
+import com.chan.hotel.pojo.Hotel;
+import com.chan.hotel.utils.HotelFeedReader;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * HotelMapper.xml生成的SQL，不需要数据库
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public class HotelMapperXmlTest {
+
+    private static final String[] COLUMNS = {
+            "name", "address", "price", "score", "brand", "city", "star_name", "business", "latitude", "longitude", "pic"
+    };
+
+    private static Configuration configuration() throws IOException {
+        Configuration configuration = new Configuration();
+        String resource = "mapper/HotelMapper.xml";
+        try (InputStream in = HotelMapperXmlTest.class.getClassLoader().getResourceAsStream(resource)) {
+            new XMLMapperBuilder(in, configuration, resource, configuration.getSqlFragments()).parse();
+        }
+        return configuration;
+    }
+
+    @Test
+    void testUpsertPartialFeed() throws IOException {
+        // 合作方只提供价格和评分，其他列不能被null覆盖
+        String feed = "id,price,score\n1,300,45\n2,188,\n";
+        List<Hotel> hotels = new ArrayList<>();
+        HotelFeedReader.read(new ByteArrayInputStream(feed.getBytes(StandardCharsets.UTF_8)), ExportFormat.CSV, hotels::add);
+        assertEquals(2, hotels.size());
+
+        Map<String, Object> params = new HashMap<>();
+        params.put("hotels", hotels);
+        Configuration configuration = configuration();
+        BoundSql boundSql = configuration.getMappedStatement("com.chan.hotel.mapper.HotelMapper.upsertBatch")
+                .getBoundSql(params);
+        String sql = boundSql.getSql().replaceAll("\\s+", " ");
+        String update = sql.substring(sql.indexOf("on duplicate key update"));
+        for (String column : COLUMNS) {
+            assertTrue(update.contains(column + " = coalesce(values(" + column + "), " + column + ")"), column);
+        }
+
+        // 每行12个参数，缺少的列和空值作为null传入，由coalesce保留原值
+        List<ParameterMapping> mappings = boundSql.getParameterMappings();
+        assertEquals(24, mappings.size());
+        MetaObject values = configuration.newMetaObject(params);
+        assertEquals(300, value(boundSql, values, mappings.get(3)));
+        assertNull(value(boundSql, values, mappings.get(1)));
+        assertNull(value(boundSql, values, mappings.get(12 + 4)));
+    }
+
+    @Test
+    void testUpdateBatch() throws IOException {
+        // 局部更新：一个酒店改价格，一个改名称
+        Hotel price = new Hotel();
+        price.setId(1L);
+        price.setPrice(288);
+        Hotel name = new Hotel();
+        name.setId(2L);
+        name.setName("汉庭酒店");
+        Map<String, Object> params = new HashMap<>();
+        params.put("hotels", Arrays.asList(price, name));
+        BoundSql boundSql = configuration().getMappedStatement("com.chan.hotel.mapper.HotelMapper.updateBatch")
+                .getBoundSql(params);
+        String sql = boundSql.getSql().replaceAll("\\s+", " ");
+        assertEquals(1, sql.split("union all").length - 1);
+        String set = sql.substring(sql.indexOf(" set "));
+        for (String column : COLUMNS) {
+            if (column.equals("latitude") || column.equals("longitude")) {
+                assertFalse(set.contains(column), column);
+            } else {
+                assertTrue(set.contains("t." + column + " = coalesce(v." + column + ", t." + column + ")"), column);
+            }
+        }
+        // 每个酒店10个参数：id和9个可以修改的列
+        assertEquals(20, boundSql.getParameterMappings().size());
+    }
+
+    private static Object value(BoundSql boundSql, MetaObject values, ParameterMapping mapping) {
+        String property = mapping.getProperty();
+        return boundSql.hasAdditionalParameter(property)
+                ? boundSql.getAdditionalParameter(property) : values.getValue(property);
+    }
+}
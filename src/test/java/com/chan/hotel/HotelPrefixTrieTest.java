@@ -0,0 +1,58 @@
+package com.chan.hotel;
+
+import com.chan.hotel.utils.HotelPrefixTrie;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 自动补全前缀树
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public class HotelPrefixTrieTest {
+
+    @Test
+    void testSuggestByWeight() {
+        HotelPrefixTrie trie = HotelPrefixTrie.builder(3)
+                .add("如家酒店(北京国展店)", 45)
+                .add("如家", 45)
+                .add("如家", 40)
+                .add("如家酒店(上海五角场店)", 47)
+                .add("汉庭", 30)
+                .build();
+        // 权重累加：如家 = 85
+        assertEquals(Arrays.asList("如家", "如家酒店(上海五角场店)", "如家酒店(北京国展店)"), trie.suggest("如", 10));
+        assertEquals(Collections.singletonList("如家"), trie.suggest("如家", 1));
+        assertEquals(Collections.singletonList("汉庭"), trie.suggest("汉", 10));
+        assertEquals(4, trie.size());
+    }
+
+    @Test
+    void testTopK() {
+        HotelPrefixTrie.Builder builder = HotelPrefixTrie.builder(2);
+        for (int i = 0; i < 10; i++) {
+            builder.add("7天酒店" + i, i);
+        }
+        HotelPrefixTrie trie = builder.build();
+        assertEquals(Arrays.asList("7天酒店9", "7天酒店8"), trie.suggest("7天", 10));
+        assertEquals(Collections.singletonList("7天酒店3"), trie.suggest("7天酒店3", 10));
+        // 返回的是只读视图，不能改动trie内部的候选词
+        assertThrows(UnsupportedOperationException.class, () -> trie.suggest("7天", 10).clear());
+        assertThrows(UnsupportedOperationException.class, () -> trie.suggest("7天", 1).set(0, "如家"));
+        assertEquals(Arrays.asList("7天酒店9", "7天酒店8"), trie.suggest("7天", 10));
+    }
+
+    @Test
+    void testNoMatch() {
+        HotelPrefixTrie trie = HotelPrefixTrie.builder(2).add("万豪", 1).build();
+        assertEquals(Collections.emptyList(), trie.suggest("希尔顿", 10));
+        assertEquals(Collections.emptyList(), trie.suggest("", 10));
+        assertEquals(Collections.emptyList(), trie.suggest(null, 10));
+    }
+}
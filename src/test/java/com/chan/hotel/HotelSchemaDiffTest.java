@@ -0,0 +1,68 @@
+package com.chan.hotel;
+
+import com.chan.hotel.pojo.SchemaCheckResult;
+import com.chan.hotel.pojo.SchemaStatus;
+import com.chan.hotel.schema.HotelSchema;
+import com.chan.hotel.schema.HotelSchemaDiff;
+import com.chan.hotel.schema.HotelSchemaRegistry;
+import org.elasticsearch.common.settings.Settings;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 用classpath中的版本文件模拟线上索引，检查差异的分类
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public class HotelSchemaDiffTest {
+
+    private HotelSchemaRegistry registry;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        registry = new HotelSchemaRegistry();
+        registry.init();
+    }
+
+    @Test
+    void testUpToDate() {
+        HotelSchema current = registry.current();
+        SchemaCheckResult result = HotelSchemaDiff.diff(current, "hotel_v1", current.getMappingsAsMap(), current.getSettings());
+        assertEquals(SchemaStatus.UP_TO_DATE, result.getStatus());
+        assertEquals(Integer.valueOf(current.getVersion()), result.getLiveVersion());
+    }
+
+    @Test
+    void testShardsAndSortRequireReindex() {
+        HotelSchema v1 = registry.get(1);
+        // 线上返回的settings是字符串
+        Settings live = Settings.builder().put(v1.getSettings()).put("index.number_of_shards", "1").build();
+        SchemaCheckResult result = HotelSchemaDiff.diff(registry.get(2), "hotel_v1", v1.getMappingsAsMap(), live);
+        assertEquals(SchemaStatus.REINDEX_REQUIRED, result.getStatus());
+        assertTrue(result.getReindexChanges().stream().anyMatch(c -> c.startsWith("index.number_of_shards")));
+        assertTrue(result.getReindexChanges().stream().anyMatch(c -> c.startsWith("index.sort.field")));
+        assertTrue(result.getReindexChanges().stream().anyMatch(c -> c.startsWith("address.doc_values")));
+        assertTrue(result.getInPlaceChanges().stream().anyMatch(c -> c.startsWith("brand.eager_global_ordinals")));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testNewFieldIsInPlace() {
+        HotelSchema current = registry.current();
+        Map<String, Object> live = new HashMap<>(current.getMappingsAsMap());
+        Map<String, Object> properties = new HashMap<>((Map<String, Object>) live.get("properties"));
+        properties.remove("suggestion");
+        live.put("properties", properties);
+        SchemaCheckResult result = HotelSchemaDiff.diff(current, "hotel_v2", live, current.getSettings());
+        assertEquals(SchemaStatus.UPDATE_IN_PLACE, result.getStatus());
+        assertEquals(1, result.getInPlaceChanges().size());
+    }
+}
@@ -0,0 +1,85 @@
+package com.chan.hotel;
+
+import com.chan.hotel.cache.HotelSearchCache;
+import com.chan.hotel.config.HotelCacheProperties;
+import com.chan.hotel.constants.HotelConstant;
+import com.chan.hotel.pojo.PageResult;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * 搜索结果缓存的失效和key的组成，用计数的loader代替ES查询
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public class HotelSearchCacheTest {
+
+    private HotelSearchCache cache;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        cache = new HotelSearchCache();
+        ReflectionTestUtils.setField(cache, "properties", new HotelCacheProperties());
+        cache.init();
+    }
+
+    private PageResult get(String key) {
+        return cache.get(key, () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture(new PageResult(1L, Collections.emptyList()));
+        }).join();
+    }
+
+    /**
+     * 与HotelSearchServiceImpl相同的方式生成key：路由加DSL
+     */
+    private static String key(String routing) {
+        SearchRequest request = new SearchRequest(HotelConstant.INDEX_NAME);
+        request.routing(routing);
+        request.source().query(QueryBuilders.matchQuery("all", "如家"));
+        return request.routing() + ":" + request.source();
+    }
+
+    @Test
+    void testInvalidate() {
+        PageResult first = get(key("上海"));
+        assertSame(first, get(key("上海")));
+        assertEquals(1, loads.get());
+
+        // 写入索引后使缓存失效，下一次查询必须回源
+        long generation = cache.generation();
+        cache.invalidate();
+        assertEquals(generation + 1, cache.generation());
+        PageResult second = get(key("上海"));
+        assertEquals(2, loads.get());
+        assertSame(second, get(key("上海")));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testRouting() {
+        // DSL相同、路由不同的查询只查了部分分片，结果不能互相复用
+        assertNotEquals(key("上海"), key(null));
+        PageResult shanghai = get(key("上海"));
+        PageResult all = get(key(null));
+        PageResult beijing = get(key("北京"));
+        assertEquals(3, loads.get());
+        assertSame(shanghai, get(key("上海")));
+        assertSame(all, get(key(null)));
+        assertSame(beijing, get(key("北京")));
+        assertEquals(3, loads.get());
+    }
+}
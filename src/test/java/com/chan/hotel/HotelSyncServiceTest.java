@@ -0,0 +1,248 @@
+package com.chan.hotel;
+
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import com.chan.hotel.cache.HotelSearchCache;
+import com.chan.hotel.config.HotelSyncProperties;
+import com.chan.hotel.mapper.HotelMapper;
+import com.chan.hotel.metrics.EsMetrics;
+import com.chan.hotel.pojo.Hotel;
+import com.chan.hotel.service.HotelRoutingService;
+import com.chan.hotel.service.impl.HotelSyncServiceImpl;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.http.HttpHost;
+import org.elasticsearch.client.RestClient;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 增量同步：按id合并、事务提交后标记、分批、局部文档、失败重试。
+ * ES用本地HTTP替身代替，记录收到的bulk并按设置的状态码返回每一条的结果；数据库用mock代替
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public class HotelSyncServiceTest {
+
+    /**
+     * 每次bulk中的请求：action（update、delete）、_id和文档
+     */
+    private final List<List<JSONObject>> bulks = new CopyOnWriteArrayList<>();
+
+    /**
+     * 酒店id -> bulk中这一条返回的状态码，默认200
+     */
+    private final Map<String, Integer> statuses = new ConcurrentHashMap<>();
+
+    private HttpServer server;
+    private RestHighLevelClient client;
+    private HotelSyncProperties properties;
+    private HotelSyncServiceImpl syncService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/_bulk", this::bulk);
+        server.start();
+        client = new RestHighLevelClient(RestClient.builder(new HttpHost("localhost", server.getAddress().getPort())));
+
+        HotelMapper hotelMapper = mock(HotelMapper.class);
+        when(hotelMapper.selectBatchIds(anyCollection())).thenAnswer(invocation -> {
+            Collection<?> ids = invocation.getArgument(0);
+            // id为偶数的酒店已经被删除
+            return ids.stream().map(id -> (Long) id).filter(id -> id % 2 == 1).map(HotelSyncServiceTest::hotel)
+                    .collect(Collectors.toList());
+        });
+        properties = new HotelSyncProperties();
+        properties.setWindowMs(0);
+        syncService = new HotelSyncServiceImpl();
+        ReflectionTestUtils.setField(syncService, "hotelMapper", hotelMapper);
+        ReflectionTestUtils.setField(syncService, "client", client);
+        ReflectionTestUtils.setField(syncService, "esMetrics", new EsMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(syncService, "properties", properties);
+        ReflectionTestUtils.setField(syncService, "hotelSearchCache", new HotelSearchCache());
+        ReflectionTestUtils.setField(syncService, "hotelRoutingService", mock(HotelRoutingService.class));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        client.close();
+        server.stop(0);
+    }
+
+    private static Hotel hotel(Long id) {
+        Hotel hotel = new Hotel();
+        hotel.setId(id);
+        hotel.setName("酒店" + id);
+        hotel.setPrice(300);
+        hotel.setCity("上海");
+        hotel.setLatitude("31.2");
+        hotel.setLongitude("121.4");
+        // address、brand等列在库里为空
+        return hotel;
+    }
+
+    private void bulk(HttpExchange exchange) throws IOException {
+        String body = StreamUtils.copyToString(exchange.getRequestBody(), StandardCharsets.UTF_8);
+        List<JSONObject> actions = new ArrayList<>();
+        List<String> items = new ArrayList<>();
+        String[] lines = body.split("\n");
+        for (int i = 0; i < lines.length; i++) {
+            JSONObject line = JSONUtil.parseObj(lines[i]);
+            String action = line.keySet().iterator().next();
+            String id = line.getJSONObject(action).getStr("_id");
+            JSONObject request = JSONUtil.createObj().set("action", action).set("id", id);
+            if (!"delete".equals(action)) {
+                request.set("doc", JSONUtil.parseObj(lines[++i], false).getJSONObject("doc"));
+            }
+            actions.add(request);
+            int status = statuses.getOrDefault(id, 200);
+            String item = status == 200
+                    ? "{\"_index\":\"hotel\",\"_type\":\"_doc\",\"_id\":\"" + id + "\",\"_version\":1,\"result\":\""
+                    + ("delete".equals(action) ? "deleted" : "updated") + "\","
+                    + "\"_shards\":{\"total\":1,\"successful\":1,\"failed\":0},\"_seq_no\":0,\"_primary_term\":1,\"status\":200}"
+                    : "{\"_index\":\"hotel\",\"_type\":\"_doc\",\"_id\":\"" + id + "\",\"status\":" + status
+                    + ",\"error\":{\"type\":\"test_exception\",\"reason\":\"status " + status + "\"}}";
+            items.add("{\"" + action + "\":" + item + "}");
+        }
+        bulks.add(actions);
+        boolean errors = items.stream().anyMatch(item -> item.contains("\"error\""));
+        byte[] response = ("{\"took\":1,\"errors\":" + errors + ",\"items\":[" + String.join(",", items) + "]}")
+                .getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, response.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response);
+        }
+    }
+
+    private static List<String> ids(List<JSONObject> bulk) {
+        return bulk.stream().map(action -> action.getStr("action") + ":" + action.getStr("id")).collect(Collectors.toList());
+    }
+
+    @Test
+    void testCoalesce() {
+        List<Long> ids = Arrays.asList(1L, 2L, 1L);
+        syncService.markChanged(ids);
+        syncService.markChanged(1L);
+        syncService.flush();
+        // 同一个id只同步一次：存在的更新，已删除的删除
+        assertEquals(1, bulks.size());
+        List<String> actions = ids(bulks.get(0));
+        assertEquals(2, actions.size());
+        assertTrue(actions.containsAll(Arrays.asList("update:1", "delete:2")));
+        // 窗口内没有新的变更，不再发送
+        syncService.flush();
+        assertEquals(1, bulks.size());
+    }
+
+    @Test
+    void testMarkAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            syncService.markChanged(3L);
+            syncService.flush();
+            assertTrue(bulks.isEmpty());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        syncService.flush();
+        assertEquals(Arrays.asList("update:3"), ids(bulks.get(0)));
+    }
+
+    @Test
+    void testFlushSplit() {
+        properties.setMaxBatchSize(2);
+        List<Long> ids = Arrays.asList(1L, 3L, 5L, 7L, 9L);
+        syncService.markChanged(ids);
+        syncService.flush();
+        assertEquals(3, bulks.size());
+        assertEquals(Arrays.asList(2, 2, 1), bulks.stream().map(List::size).collect(Collectors.toList()));
+    }
+
+    @Test
+    void testPartialDoc() {
+        syncService.markChanged(1L);
+        syncService.flush();
+        JSONObject doc = bulks.get(0).get(0).getJSONObject("doc");
+        assertEquals("酒店1", doc.getStr("name"));
+        // 库里为空的列以null写出，覆盖ES中的旧值；distance不写入
+        assertTrue(doc.containsKey("address"));
+        assertTrue(doc.isNull("address"));
+        assertTrue(doc.containsKey("brand"));
+        assertFalse(doc.containsKey("distance"));
+    }
+
+    @Test
+    void testRetry() {
+        properties.setMaxRetries(2);
+        statuses.put("1", 400);
+        statuses.put("3", 429);
+        List<Long> ids = Arrays.asList(1L, 3L, 5L);
+        syncService.markChanged(ids);
+        syncService.flush();
+        // 400不重试，429重试
+        syncService.flush();
+        assertEquals(Arrays.asList("update:3"), ids(bulks.get(1)));
+        // 超过最大重试次数后丢弃
+        syncService.flush();
+        assertEquals(3, bulks.size());
+        syncService.flush();
+        assertEquals(3, bulks.size());
+
+        // 重试成功后不再发送
+        statuses.clear();
+        syncService.markChanged(3L);
+        statuses.put("3", 503);
+        syncService.flush();
+        statuses.clear();
+        syncService.flush();
+        syncService.flush();
+        assertEquals(5, bulks.size());
+    }
+
+    @Test
+    void testTracking() throws IOException {
+        List<Long> before = Arrays.asList(1L);
+        syncService.sync(before);
+        syncService.startTracking();
+        List<Long> during = Arrays.asList(3L, 4L);
+        syncService.sync(during);
+        // 同步失败的id同样要记录
+        statuses.put("5", 503);
+        syncService.markChanged(5L);
+        syncService.flush();
+        assertEquals(new HashSet<>(Arrays.asList(3L, 4L, 5L)), syncService.stopTracking());
+        assertTrue(syncService.stopTracking().isEmpty());
+    }
+}
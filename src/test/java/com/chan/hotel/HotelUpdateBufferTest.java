@@ -0,0 +1,168 @@
+package com.chan.hotel;
+
+import com.chan.hotel.config.HotelUpdateBufferProperties;
+import com.chan.hotel.mapper.HotelMapper;
+import com.chan.hotel.pojo.Hotel;
+import com.chan.hotel.schema.HotelSchemaRegistry;
+import com.chan.hotel.service.HotelSyncService;
+import com.chan.hotel.service.impl.HotelUpdateBufferImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 局部更新写缓冲的日志回放和刷新失败，数据库和同步用mock代替
+ *
+ * @author CHAN
+ * @since 2026/10/18
+ */
+public class HotelUpdateBufferTest {
+
+    @TempDir
+    Path journalDir;
+
+    private HotelSchemaRegistry registry;
+    private HotelMapper hotelMapper;
+    private HotelSyncService hotelSyncService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        registry = new HotelSchemaRegistry();
+        registry.init();
+        hotelMapper = mock(HotelMapper.class);
+        hotelSyncService = mock(HotelSyncService.class);
+    }
+
+    /**
+     * 模拟一次启动：回放日志目录中的全部日志段
+     */
+    private HotelUpdateBufferImpl start() throws IOException {
+        return start(new HotelUpdateBufferProperties());
+    }
+
+    private HotelUpdateBufferImpl start(HotelUpdateBufferProperties properties) throws IOException {
+        properties.setJournalDir(journalDir.toString());
+        properties.setFsync(false);
+        HotelUpdateBufferImpl buffer = new HotelUpdateBufferImpl();
+        ReflectionTestUtils.setField(buffer, "properties", properties);
+        ReflectionTestUtils.setField(buffer, "hotelSchemaRegistry", registry);
+        ReflectionTestUtils.setField(buffer, "hotelMapper", hotelMapper);
+        ReflectionTestUtils.setField(buffer, "hotelSyncService", hotelSyncService);
+        buffer.init();
+        return buffer;
+    }
+
+    private static Map<String, Object> fields(String key, Object value) {
+        Map<String, Object> fields = new HashMap<>();
+        fields.put(key, value);
+        return fields;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, Hotel> lastUpdate(int calls) {
+        ArgumentCaptor<List<Hotel>> captor = ArgumentCaptor.forClass(List.class);
+        verify(hotelMapper, times(calls)).updateBatch(captor.capture());
+        Map<Long, Hotel> hotels = new HashMap<>();
+        captor.getValue().forEach(hotel -> hotels.put(hotel.getId(), hotel));
+        return hotels;
+    }
+
+    private long segments() throws IOException {
+        try (Stream<Path> files = Files.list(journalDir)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    void testReplay() throws IOException {
+        HotelUpdateBufferImpl crashed = start();
+        crashed.update(1L, fields("price", 300));
+        crashed.update(1L, fields("name", "如家酒店"));
+        crashed.update(2L, fields("score", 45));
+        crashed.update(1L, fields("price", 288));
+        // 没有刷新就崩溃，重启后从日志恢复，同一酒店的更新合并，后写的覆盖先写的
+        HotelUpdateBufferImpl restarted = start();
+        restarted.flush();
+        Map<Long, Hotel> hotels = lastUpdate(1);
+        assertEquals(2, hotels.size());
+        assertEquals(288, hotels.get(1L).getPrice());
+        assertEquals("如家酒店", hotels.get(1L).getName());
+        assertEquals(45, hotels.get(2L).getScore());
+        assertNull(hotels.get(2L).getPrice());
+        verify(hotelSyncService).sync(anyList());
+
+        // 写入数据库后旧日志段被删除，再次重启没有可以恢复的更新
+        assertEquals(1, segments());
+        start().flush();
+        verify(hotelMapper, times(1)).updateBatch(anyList());
+    }
+
+    @Test
+    void testFlushFailure() throws IOException {
+        when(hotelMapper.updateBatch(anyList())).thenThrow(new IllegalStateException("数据库不可用")).thenReturn(1);
+        HotelUpdateBufferImpl buffer = start();
+        buffer.update(1L, fields("price", 300));
+        buffer.flush();
+        verify(hotelSyncService, never()).sync(anyList());
+        // 失败后到达的新更新覆盖旧值
+        buffer.update(1L, fields("score", 47));
+
+        // 失败的更新仍在日志中，这时崩溃重启也不会丢失
+        HotelUpdateBufferImpl restarted = start();
+        restarted.flush();
+        Hotel hotel = lastUpdate(2).get(1L);
+        assertEquals(300, hotel.getPrice());
+        assertEquals(47, hotel.getScore());
+    }
+
+    @Test
+    void testRetryAfterFailure() throws IOException {
+        when(hotelMapper.updateBatch(anyList())).thenThrow(new IllegalStateException("数据库不可用")).thenReturn(1);
+        HotelUpdateBufferImpl buffer = start();
+        buffer.update(1L, fields("price", 300));
+        buffer.flush();
+        buffer.flush();
+        assertEquals(300, lastUpdate(2).get(1L).getPrice());
+        verify(hotelSyncService).sync(Collections.singletonList(1L));
+        // 重试成功后日志中不再有这条更新
+        start().flush();
+        verify(hotelMapper, times(2)).updateBatch(anyList());
+    }
+
+    @Test
+    void testUnexpectedFailure() throws IOException {
+        // 写库之外的异常（这里是读取配置）也不能丢掉已经取出的更新，下一次刷新不能删除还没写入的日志段
+        HotelUpdateBufferProperties properties = spy(new HotelUpdateBufferProperties());
+        doThrow(new IllegalStateException("意外的异常")).doCallRealMethod().when(properties).getBatchSize();
+        HotelUpdateBufferImpl buffer = start(properties);
+        buffer.update(1L, fields("price", 300));
+        buffer.flush();
+        buffer.update(2L, fields("score", 47));
+        buffer.flush();
+        Map<Long, Hotel> hotels = lastUpdate(1);
+        assertEquals(300, hotels.get(1L).getPrice());
+        assertEquals(47, hotels.get(2L).getScore());
+    }
+}